@@ -1,6 +1,12 @@
 package de.intagau.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Ochotona.
@@ -10,7 +16,550 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Sequence sequence = new Sequence();
+
+    private final StockLedger stockLedger = new StockLedger();
+
+    private final Suggestion suggestion = new Suggestion();
+
+    private final SerialNumber serialNumber = new SerialNumber();
+
+    private final Cache cache = new Cache();
+
+    private final Jwt jwt = new Jwt();
+
+    private final TokenRefresh tokenRefresh = new TokenRefresh();
+
+    private final Threads threads = new Threads();
+
     // jhipster-needle-application-properties-property
+
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    public StockLedger getStockLedger() {
+        return stockLedger;
+    }
+
+    public Suggestion getSuggestion() {
+        return suggestion;
+    }
+
+    public SerialNumber getSerialNumber() {
+        return serialNumber;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public TokenRefresh getTokenRefresh() {
+        return tokenRefresh;
+    }
+
+    public Threads getThreads() {
+        return threads;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Sequence {
+
+        /**
+         * Number of ids reserved per call to {@code sequence_generator}, see {@code PooledSequenceGenerator}.
+         */
+        private int incrementSize = 100;
+
+        public int getIncrementSize() {
+            return incrementSize;
+        }
+
+        public void setIncrementSize(int incrementSize) {
+            this.incrementSize = incrementSize;
+        }
+    }
+
+    public static class StockLedger {
+
+        /**
+         * When to snapshot the stock positions that moved since their last snapshot.
+         */
+        private String snapshotCron = "0 0 * * * ?";
+
+        /**
+         * Age of the movements a snapshot covers, leaving the transactions in flight time to commit.
+         */
+        private Duration snapshotLag = Duration.ofMinutes(5);
+
+        public String getSnapshotCron() {
+            return snapshotCron;
+        }
+
+        public void setSnapshotCron(String snapshotCron) {
+            this.snapshotCron = snapshotCron;
+        }
+
+        public Duration getSnapshotLag() {
+            return snapshotLag;
+        }
+
+        public void setSnapshotLag(Duration snapshotLag) {
+            this.snapshotLag = snapshotLag;
+        }
+    }
+
+    public static class Suggestion {
+
+        /**
+         * When to rebuild the suggestion indexes from the database, catching up with the writes of other
+         * instances and of bulk operations.
+         */
+        private String rebuildCron = "0 */15 * * * ?";
+
+        /**
+         * Maximum number of suggestions returned for a prefix.
+         */
+        private int maxLimit = 50;
+
+        public String getRebuildCron() {
+            return rebuildCron;
+        }
+
+        public void setRebuildCron(String rebuildCron) {
+            this.rebuildCron = rebuildCron;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    public static class SerialNumber {
+
+        /**
+         * Number of serial numbers the duplicate filter is sized for, at least; it grows with the data on rebuild.
+         */
+        private long expectedInsertions = 1_000_000;
+
+        /**
+         * Probability that a new serial number needs a database check.
+         */
+        private double falsePositiveProbability = 0.01;
+
+        /**
+         * When to rebuild the duplicate filter from the database, dropping the deleted serial numbers and, without
+         * the cluster mode, picking up those written by other instances.
+         */
+        private String rebuildCron = "0 30 3 * * ?";
+
+        public long getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFalsePositiveProbability() {
+            return falsePositiveProbability;
+        }
+
+        public void setFalsePositiveProbability(double falsePositiveProbability) {
+            this.falsePositiveProbability = falsePositiveProbability;
+        }
+
+        public String getRebuildCron() {
+            return rebuildCron;
+        }
+
+        public void setRebuildCron(String rebuildCron) {
+            this.rebuildCron = rebuildCron;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Directory of the disk tiers; only used when a cache has a disk size.
+         */
+        private String diskPath = System.getProperty("java.io.tmpdir") + "/ochotona-cache";
+
+        /**
+         * Settings of individual caches, by cache name; the other caches keep the {@code jhipster.cache.ehcache}
+         * defaults.
+         */
+        private final Map<String, Settings> caches = new LinkedHashMap<>();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        private final Cluster cluster = new Cluster();
+
+        public String getDiskPath() {
+            return diskPath;
+        }
+
+        public void setDiskPath(String diskPath) {
+            this.diskPath = diskPath;
+        }
+
+        public Map<String, Settings> getCaches() {
+            return caches;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public Cluster getCluster() {
+            return cluster;
+        }
+
+        public static class Settings {
+
+            /**
+             * Number of entries kept on the heap, defaults to {@code jhipster.cache.ehcache.max-entries}.
+             */
+            private Long heapEntries;
+
+            /**
+             * Size of the off-heap tier, outside of the garbage collected heap; none by default.
+             */
+            private DataSize offHeap;
+
+            /**
+             * Size of the disk tier, below the off-heap one; none by default.
+             */
+            private DataSize disk;
+
+            /**
+             * Time after which an entry expires, defaults to {@code jhipster.cache.ehcache.time-to-live-seconds}.
+             */
+            private Duration timeToLive;
+
+            /**
+             * Time after which an entry expires once no longer read or written; replaces the time to live.
+             */
+            private Duration timeToIdle;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getOffHeap() {
+                return offHeap;
+            }
+
+            public void setOffHeap(DataSize offHeap) {
+                this.offHeap = offHeap;
+            }
+
+            public DataSize getDisk() {
+                return disk;
+            }
+
+            public void setDisk(DataSize disk) {
+                this.disk = disk;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+        }
+
+        public static class WarmUp {
+
+            /**
+             * How a region is warmed up.
+             */
+            public enum Mode {
+                /**
+                 * Load the entries cached at the last shutdown.
+                 */
+                RECENT,
+                /**
+                 * Load the whole table, for small ones.
+                 */
+                ALL,
+            }
+
+            /**
+             * Whether to fill the second level caches before the application reports ready.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Regions to warm up, by entity name or collection role.
+             */
+            private final Map<String, Mode> regions = new LinkedHashMap<>();
+
+            /**
+             * Maximum number of entries loaded per region, and saved at shutdown.
+             */
+            private int maxEntries = 1000;
+
+            /**
+             * Number of entries loaded per query.
+             */
+            private int batchSize = 200;
+
+            /**
+             * Number of queries run in parallel.
+             */
+            private int parallelism = 4;
+
+            /**
+             * Time after which the application reports ready even if the warm-up is not done.
+             */
+            private Duration timeout = Duration.ofMinutes(2);
+
+            /**
+             * File holding the ids of the entries cached at shutdown.
+             */
+            private String snapshotFile = System.getProperty("java.io.tmpdir") + "/ochotona-cache/warm-up.json";
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Map<String, Mode> getRegions() {
+                return regions;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+
+            public String getSnapshotFile() {
+                return snapshotFile;
+            }
+
+            public void setSnapshotFile(String snapshotFile) {
+                this.snapshotFile = snapshotFile;
+            }
+        }
+
+        public static class Cluster {
+
+            /**
+             * Whether to send the cache invalidations to the other instances, and apply theirs, through PostgreSQL
+             * notifications.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Notification channel shared by the instances.
+             */
+            private String channel = "ochotona_cache";
+
+            /**
+             * Time the listening connection waits for notifications before checking for shutdown.
+             */
+            private Duration pollTimeout = Duration.ofSeconds(1);
+
+            /**
+             * Delay before reconnecting after losing the listening connection.
+             */
+            private Duration reconnectDelay = Duration.ofSeconds(5);
+
+            /**
+             * Delay after which a received invalidation is applied again, dropping the entries loaded from the
+             * database just before the other instance committed.
+             */
+            private Duration repeatAfter = Duration.ofSeconds(2);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getChannel() {
+                return channel;
+            }
+
+            public void setChannel(String channel) {
+                this.channel = channel;
+            }
+
+            public Duration getPollTimeout() {
+                return pollTimeout;
+            }
+
+            public void setPollTimeout(Duration pollTimeout) {
+                this.pollTimeout = pollTimeout;
+            }
+
+            public Duration getReconnectDelay() {
+                return reconnectDelay;
+            }
+
+            public void setReconnectDelay(Duration reconnectDelay) {
+                this.reconnectDelay = reconnectDelay;
+            }
+
+            public Duration getRepeatAfter() {
+                return repeatAfter;
+            }
+
+            public void setRepeatAfter(Duration repeatAfter) {
+                this.repeatAfter = repeatAfter;
+            }
+        }
+    }
+    public static class Jwt {
+
+        /**
+         * Maximum number of verified tokens kept until they expire, so that their signature is checked once.
+         */
+        private long cacheMaximumSize = 10_000;
+
+        /**
+         * Interval between the background reloads of the signing keys of the IdP.
+         */
+        private Duration jwksRefreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * Minimum time between two reloads of the signing keys for tokens signed with an unknown key.
+         */
+        private Duration jwksMinRefreshInterval = Duration.ofSeconds(30);
+
+        public long getCacheMaximumSize() {
+            return cacheMaximumSize;
+        }
+
+        public void setCacheMaximumSize(long cacheMaximumSize) {
+            this.cacheMaximumSize = cacheMaximumSize;
+        }
+
+        public Duration getJwksRefreshInterval() {
+            return jwksRefreshInterval;
+        }
+
+        public void setJwksRefreshInterval(Duration jwksRefreshInterval) {
+            this.jwksRefreshInterval = jwksRefreshInterval;
+        }
+
+        public Duration getJwksMinRefreshInterval() {
+            return jwksMinRefreshInterval;
+        }
+
+        public void setJwksMinRefreshInterval(Duration jwksMinRefreshInterval) {
+            this.jwksMinRefreshInterval = jwksMinRefreshInterval;
+        }
+    }
+    public static class TokenRefresh {
+
+        /**
+         * Time before its expiry from which the access token of a session is refreshed.
+         */
+        private Duration skew = Duration.ofMinutes(1);
+
+        /**
+         * Ant patterns of the request paths refreshing the access token of the session.
+         */
+        private List<String> paths = new ArrayList<>(List.of("/api/**", "/management/**"));
+
+        public Duration getSkew() {
+            return skew;
+        }
+
+        public void setSkew(Duration skew) {
+            this.skew = skew;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+    }
+    public static class Threads {
+
+        /**
+         * Threads running the requests and the {@code @Async} tasks.
+         */
+        public enum Mode {
+            /**
+             * The Undertow worker threads and the {@code spring.task.execution} pool.
+             */
+            PLATFORM,
+            /**
+             * A virtual thread per request and per task, on Java 21 and later; platform threads otherwise.
+             */
+            VIRTUAL,
+        }
+
+        private Mode mode = Mode.PLATFORM;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -1,9 +1,25 @@
 package de.intagau.config;
 
+import java.io.File;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.jsr107.config.ConfigurationElementState;
+import org.ehcache.jsr107.config.Jsr107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -19,20 +35,50 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+        this.jcacheConfiguration = jcacheConfiguration(new ApplicationProperties.Cache.Settings());
+    }
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    /**
+     * The JCache manager, built here rather than by Spring Boot so that the caches with a disk tier get a
+     * persistence directory, and that all the caches, including those Hibernate creates on its own, keep the
+     * statistics read by their metrics.
+     */
+    @Bean
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        Jsr107Configuration statistics = new Jsr107Configuration(
+            null,
+            Collections.emptyMap(),
+            true,
+            ConfigurationElementState.UNSPECIFIED,
+            ConfigurationElementState.ENABLED
+        );
+        DefaultConfiguration configuration = cacheProperties.getCaches().values().stream().anyMatch(settings -> settings.getDisk() != null)
+            ? new DefaultConfiguration(
+                provider.getDefaultClassLoader(),
+                statistics,
+                new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskPath()))
+            )
+            : new DefaultConfiguration(provider.getDefaultClassLoader(), statistics);
+        javax.cache.CacheManager cm = provider.getCacheManager(provider.getDefaultURI(), configuration);
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cm));
+        Set<String> unknownCacheNames = new HashSet<>(cacheProperties.getCaches().keySet());
+        cm.getCacheNames().forEach(unknownCacheNames::remove);
+        if (!unknownCacheNames.isEmpty()) {
+            log.warn("Ignoring the settings of the unknown caches {}", unknownCacheNames);
+        }
+        return cm;
     }
 
     @Bean
@@ -45,6 +91,7 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, de.intagau.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, de.intagau.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, de.intagau.repository.ProductsRepository.PRODUCTS_BY_EAN_CACHE);
             createCache(cm, de.intagau.domain.User.class.getName());
             createCache(cm, de.intagau.domain.Authority.class.getName());
             createCache(cm, de.intagau.domain.User.class.getName() + ".authorities");
@@ -54,17 +101,76 @@ public class CacheConfiguration {
             createCache(cm, de.intagau.domain.Storage.class.getName());
             createCache(cm, de.intagau.domain.StorageRoom.class.getName());
             createCache(cm, de.intagau.domain.StorageRoom.class.getName() + ".contains");
+            createCache(cm, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            createCache(cm, de.intagau.repository.AuthorityRepository.AUTHORITIES_QUERY_CACHE);
+            createCache(cm, de.intagau.repository.ProductsRepository.PRODUCTS_BY_NAME_QUERY_CACHE);
+            createTimestampsCache(cm);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
+    /**
+     * Create the region of the last write time of each table, against which Hibernate checks the cached query
+     * results. It holds one small entry per table, and must neither expire nor evict them, or the cached results
+     * would be considered stale.
+     */
+    private void createTimestampsCache(javax.cache.CacheManager cm) {
+        String cacheName = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            cm.createCache(
+                cacheName,
+                Eh107Configuration.fromEhcacheCacheConfiguration(
+                    CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(1000))
+                        .withExpiry(ExpiryPolicyBuilder.noExpiration())
+                )
+            );
+        }
+    }
+
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            ApplicationProperties.Cache.Settings settings = cacheProperties.getCaches().get(cacheName);
+            cm.createCache(cacheName, settings == null ? jcacheConfiguration : jcacheConfiguration(settings));
+        }
+    }
+
+    /**
+     * Build the configuration of a cache, from its settings and the defaults of {@code jhipster.cache.ehcache}.
+     * The entries moved off the heap are serialized, which the entities and cache keys support.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(ApplicationProperties.Cache.Settings settings) {
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(
+            settings.getHeapEntries() == null ? ehcache.getMaxEntries() : settings.getHeapEntries()
+        );
+        if (settings.getOffHeap() != null) {
+            resourcePools = resourcePools.offheap(settings.getOffHeap().toMegabytes(), MemoryUnit.MB);
+        }
+        if (settings.getDisk() != null) {
+            resourcePools = resourcePools.disk(settings.getDisk().toMegabytes(), MemoryUnit.MB, false);
+        }
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+            .withExpiry(
+                settings.getTimeToIdle() != null
+                    ? ExpiryPolicyBuilder.timeToIdleExpiration(settings.getTimeToIdle())
+                    : ExpiryPolicyBuilder.timeToLiveExpiration(
+                        settings.getTimeToLive() != null ? settings.getTimeToLive() : Duration.ofSeconds(ehcache.getTimeToLiveSeconds())
+                    )
+            );
+        if (settings.getOffHeap() != null || settings.getDisk() != null) {
+            builder =
+                builder
+                    .withKeySerializer(new PlainJavaSerializer<>(getClass().getClassLoader()))
+                    .withValueSerializer(new PlainJavaSerializer<>(getClass().getClassLoader()));
         }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
     }
 
     @Autowired(required = false)
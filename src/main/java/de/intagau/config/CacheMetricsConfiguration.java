@@ -0,0 +1,92 @@
+package de.intagau.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.jcache.JCacheCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Metrics of the caches.
+ * <p>
+ * Spring Boot binds the hits, misses, puts, evictions and removals of every cache of the Spring cache managers,
+ * which include the Hibernate second level caches. The JCache caches also report the average latency of their
+ * operations, from the statistics enabled in {@link CacheConfiguration}.
+ */
+@Configuration
+public class CacheMetricsConfiguration {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public CacheMeterBinderProvider<JCacheCache> jCacheLatencyMeterBinderProvider() {
+        return (cache, tags) -> new JCacheLatencyMetrics<>(cache.getNativeCache(), tags);
+    }
+
+    /**
+     * The JCache metrics of Micrometer, with the average latencies of the gets, puts and removals.
+     */
+    static class JCacheLatencyMetrics<K, V, C extends Cache<K, V>> extends JCacheMetrics<K, V, C> {
+
+        private static final MBeanServer MBEAN_SERVER = ManagementFactory.getPlatformMBeanServer();
+
+        private final ObjectName statisticsName;
+
+        JCacheLatencyMetrics(C cache, Iterable<Tag> tags) {
+            super(cache, tags);
+            ObjectName name;
+            try {
+                // Named like the statistics bean the JCache metrics read
+                name =
+                    new ObjectName(
+                        "javax.cache:type=CacheStatistics,CacheManager=" +
+                        cache.getCacheManager().getURI().toString().replace(':', '.') +
+                        ",Cache=" +
+                        cache.getName()
+                    );
+            } catch (MalformedObjectNameException e) {
+                name = null;
+            }
+            this.statisticsName = name;
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            super.bindImplementationSpecificMetrics(registry);
+            if (statisticsName != null) {
+                bindLatency(registry, "get", "AverageGetTime");
+                bindLatency(registry, "put", "AveragePutTime");
+                bindLatency(registry, "remove", "AverageRemoveTime");
+            }
+        }
+
+        private void bindLatency(MeterRegistry registry, String operation, String attribute) {
+            TimeGauge
+                .builder("cache.latency", statisticsName, TimeUnit.MICROSECONDS, name -> averageTime(name, attribute))
+                .tags(getTagsWithCacheName())
+                .tag("operation", operation)
+                .description("Average duration of the " + operation + " operations since startup")
+                .register(registry);
+        }
+
+        private static double averageTime(ObjectName name, String attribute) {
+            try {
+                return ((Number) MBEAN_SERVER.getAttribute(name, attribute)).doubleValue();
+            } catch (JMException e) {
+                // The statistics are unregistered once the cache is closed
+                return Double.NaN;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package de.intagau.config;
+
+import de.intagau.service.CacheInvalidationEventListener;
+import de.intagau.service.ProductsChangeEventListener;
+import de.intagau.service.StockChangeEventListener;
+import de.intagau.service.SuggestionEventListener;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the application's Hibernate event listeners.
+ */
+@Configuration
+public class HibernateListenerConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(HibernateListenerConfiguration.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final StockChangeEventListener stockChangeEventListener;
+
+    private final ProductsChangeEventListener productsChangeEventListener;
+
+    private final SuggestionEventListener suggestionEventListener;
+
+    private final CacheInvalidationEventListener cacheInvalidationEventListener;
+
+    public HibernateListenerConfiguration(
+        EntityManagerFactory entityManagerFactory,
+        StockChangeEventListener stockChangeEventListener,
+        ProductsChangeEventListener productsChangeEventListener,
+        SuggestionEventListener suggestionEventListener,
+        CacheInvalidationEventListener cacheInvalidationEventListener
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.stockChangeEventListener = stockChangeEventListener;
+        this.productsChangeEventListener = productsChangeEventListener;
+        this.suggestionEventListener = suggestionEventListener;
+        this.cacheInvalidationEventListener = cacheInvalidationEventListener;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        log.debug("Registering Hibernate event listeners");
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImpl.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, stockChangeEventListener);
+        registry.appendListeners(EventType.POST_UPDATE, stockChangeEventListener);
+        registry.appendListeners(EventType.POST_DELETE, stockChangeEventListener);
+        registry.appendListeners(EventType.POST_INSERT, productsChangeEventListener);
+        registry.appendListeners(EventType.POST_UPDATE, productsChangeEventListener);
+        registry.appendListeners(EventType.POST_DELETE, productsChangeEventListener);
+        registry.appendListeners(EventType.POST_INSERT, suggestionEventListener);
+        registry.appendListeners(EventType.POST_UPDATE, suggestionEventListener);
+        registry.appendListeners(EventType.POST_DELETE, suggestionEventListener);
+        registry.appendListeners(EventType.POST_INSERT, cacheInvalidationEventListener);
+        registry.appendListeners(EventType.POST_UPDATE, cacheInvalidationEventListener);
+        registry.appendListeners(EventType.POST_DELETE, cacheInvalidationEventListener);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, cacheInvalidationEventListener);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, cacheInvalidationEventListener);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, cacheInvalidationEventListener);
+    }
+}
@@ -1,6 +1,5 @@
 package de.intagau.config;
 
-import java.time.Duration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
@@ -12,6 +11,12 @@ import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepo
 @Configuration
 public class OAuth2Configuration {
 
+    private final ApplicationProperties.TokenRefresh tokenRefreshProperties;
+
+    public OAuth2Configuration(ApplicationProperties applicationProperties) {
+        this.tokenRefreshProperties = applicationProperties.getTokenRefresh();
+    }
+
     @Bean
     public OAuth2AuthorizedClientManager authorizedClientManager(
         ClientRegistrationRepository clientRegistrationRepository,
@@ -26,7 +31,7 @@ public class OAuth2Configuration {
             OAuth2AuthorizedClientProviderBuilder
                 .builder()
                 .authorizationCode()
-                .refreshToken(builder -> builder.clockSkew(Duration.ofMinutes(1)))
+                .refreshToken(builder -> builder.clockSkew(tokenRefreshProperties.getSkew()))
                 .clientCredentials()
                 .password()
                 .build()
@@ -1,10 +1,17 @@
 package de.intagau.config;
 
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.proc.JWSAlgorithmFamilyJWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import de.intagau.security.*;
 import de.intagau.security.SecurityUtils;
 import de.intagau.security.oauth2.AudienceValidator;
+import de.intagau.security.oauth2.CachingJwtDecoder;
 import de.intagau.security.oauth2.CustomClaimConverter;
 import de.intagau.security.oauth2.JwtGrantedAuthorityConverter;
+import de.intagau.security.oauth2.RefreshingJwkSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -12,12 +19,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
@@ -46,10 +55,18 @@ public class SecurityConfiguration {
 
     private final SecurityProblemSupport problemSupport;
 
-    public SecurityConfiguration(CorsFilter corsFilter, JHipsterProperties jHipsterProperties, SecurityProblemSupport problemSupport) {
+    private final ApplicationProperties.Jwt jwtProperties;
+
+    public SecurityConfiguration(
+        CorsFilter corsFilter,
+        JHipsterProperties jHipsterProperties,
+        SecurityProblemSupport problemSupport,
+        ApplicationProperties applicationProperties
+    ) {
         this.corsFilter = corsFilter;
         this.problemSupport = problemSupport;
         this.jHipsterProperties = jHipsterProperties;
+        this.jwtProperties = applicationProperties.getJwt();
     }
 
     @Bean
@@ -134,18 +151,43 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    JwtDecoder jwtDecoder(ClientRegistrationRepository clientRegistrationRepository, RestTemplateBuilder restTemplateBuilder) {
-        NimbusJwtDecoder jwtDecoder = JwtDecoders.fromOidcIssuerLocation(issuerUri);
+    JwtDecoder jwtDecoder(
+        ClientRegistrationRepository clientRegistrationRepository,
+        RestTemplateBuilder restTemplateBuilder,
+        TaskScheduler taskScheduler,
+        MeterRegistry meterRegistry
+    ) {
+        ClientRegistration registration = clientRegistrationRepository.findByRegistrationId("oidc");
+        // Reloads the keys on the scheduler of the context, stopped with it
+        RefreshingJwkSource jwkSource = new RefreshingJwkSource(
+            registration.getProviderDetails().getJwkSetUri(),
+            restTemplateBuilder.build(),
+            taskScheduler,
+            jwtProperties.getJwksRefreshInterval(),
+            jwtProperties.getJwksMinRefreshInterval()
+        );
+        jwkSource.bindTo(meterRegistry);
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        try {
+            jwtProcessor.setJWSKeySelector(JWSAlgorithmFamilyJWSKeySelector.fromJWKSource(jwkSource));
+        } catch (KeySourceException e) {
+            throw new IllegalStateException("Could not load the signing keys of " + issuerUri, e);
+        }
+        // The claims are validated by the NimbusJwtDecoder
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
 
         OAuth2TokenValidator<Jwt> audienceValidator = new AudienceValidator(jHipsterProperties.getSecurity().getOauth2().getAudience());
         OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuerUri);
         OAuth2TokenValidator<Jwt> withAudience = new DelegatingOAuth2TokenValidator<>(withIssuer, audienceValidator);
 
         jwtDecoder.setJwtValidator(withAudience);
-        jwtDecoder.setClaimSetConverter(
-            new CustomClaimConverter(clientRegistrationRepository.findByRegistrationId("oidc"), restTemplateBuilder.build())
-        );
+        CustomClaimConverter claimConverter = new CustomClaimConverter(registration, restTemplateBuilder.build());
+        claimConverter.bindTo(meterRegistry);
+        jwtDecoder.setClaimSetConverter(claimConverter);
 
-        return jwtDecoder;
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder, jwtProperties.getCacheMaximumSize());
+        cachingJwtDecoder.bindTo(meterRegistry);
+        return cachingJwtDecoder;
     }
 }
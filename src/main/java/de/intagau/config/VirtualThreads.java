@@ -0,0 +1,52 @@
+package de.intagau.config;
+
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Access to the virtual threads of Java 21 and later, while the application still runs on Java 11: they are
+ * created through reflection.
+ */
+final class VirtualThreads {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {}
+
+    /**
+     * Get a factory of virtual threads if the {@link ApplicationProperties.Threads.Mode#VIRTUAL virtual} mode is
+     * enabled and the runtime supports it.
+     *
+     * @param properties the threads properties.
+     * @param prefix the prefix of the thread names, followed by a counter.
+     * @return the factory, or {@code null} to keep using platform threads.
+     */
+    static ThreadFactory factoryIfEnabled(ApplicationProperties.Threads properties, String prefix) {
+        if (properties.getMode() != ApplicationProperties.Threads.Mode.VIRTUAL) {
+            return null;
+        }
+        ThreadFactory factory = factory(prefix);
+        if (factory == null) {
+            log.warn("Virtual threads need Java 21 or later, running {} on platform threads", prefix);
+        } else {
+            log.info("Running {} on virtual threads", prefix);
+        }
+        return factory;
+    }
+
+    /**
+     * @return a factory of virtual threads, or {@code null} if the runtime has none.
+     */
+    static ThreadFactory factory(String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            // Before Java 21, or a preview feature not enabled
+            return null;
+        }
+    }
+}
@@ -5,9 +5,11 @@ import static java.net.URLDecoder.decode;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.concurrent.ThreadFactory;
 import javax.servlet.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
 import org.springframework.boot.web.server.*;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
@@ -35,9 +37,12 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
 
     private final JHipsterProperties jHipsterProperties;
 
-    public WebConfigurer(Environment env, JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public WebConfigurer(Environment env, JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.env = env;
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
@@ -53,12 +58,27 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
     }
 
     /**
-     * Customize the Servlet engine: Mime types, the document root, the cache.
+     * Customize the Servlet engine: Mime types, the document root, the cache, the threads running the requests.
      */
     @Override
     public void customize(WebServerFactory server) {
         // When running in an IDE or with ./mvnw spring-boot:run, set location of the static web assets.
         setLocationForStaticAssets(server);
+        setExecutorForRequests(server);
+    }
+
+    private void setExecutorForRequests(WebServerFactory server) {
+        if (server instanceof UndertowServletWebServerFactory) {
+            ThreadFactory virtualThreads = VirtualThreads.factoryIfEnabled(applicationProperties.getThreads(), "undertow-request-");
+            if (virtualThreads != null) {
+                // Dispatch the blocking servlet requests, and the asynchronous ones, off the Undertow worker threads
+                ((UndertowServletWebServerFactory) server).addDeploymentInfoCustomizers(deploymentInfo ->
+                        deploymentInfo
+                            .setExecutor(task -> virtualThreads.newThread(task).start())
+                            .setAsyncExecutor(task -> virtualThreads.newThread(task).start())
+                    );
+            }
+        }
     }
 
     private void setLocationForStaticAssets(WebServerFactory server) {
@@ -0,0 +1,76 @@
+package de.intagau.config.liquibase;
+
+import de.intagau.service.ProductTagService;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Fills the {@code product_tag} table from the tags of the existing products, with the tokenization of
+ * {@link ProductTagService#parseTags(String)}, which SQL cannot reproduce on every supported database.
+ */
+public class ProductTagBackfillChange implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private int tagCount;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (
+            Statement select = connection.createStatement();
+            PreparedStatement insert = connection.prepareStatement("insert into product_tag (tag, products_id) values (?, ?)")
+        ) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery("select id, tags from products where tags is not null")) {
+                int pending = 0;
+                while (rs.next()) {
+                    for (String tag : ProductTagService.parseTags(rs.getString(2))) {
+                        insert.setString(1, tag);
+                        insert.setLong(2, rs.getLong(1));
+                        insert.addBatch();
+                        tagCount++;
+                        if (++pending == BATCH_SIZE) {
+                            insert.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Could not index the tags of the products", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Indexed " + tagCount + " product tags";
+    }
+
+    @Override
+    public void setUp() {
+        // Nothing to set up
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // No resources needed
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
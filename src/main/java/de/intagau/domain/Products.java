@@ -1,6 +1,7 @@
 package de.intagau.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import de.intagau.domain.util.PooledSequenceGenerator;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
@@ -8,6 +9,7 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 
 /**
  * A Products.
@@ -22,7 +24,7 @@ public class Products implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GenericGenerator(name = "sequenceGenerator", strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "id")
     private Long id;
 
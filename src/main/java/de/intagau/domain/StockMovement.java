@@ -0,0 +1,158 @@
+package de.intagau.domain;
+
+import de.intagau.domain.enumeration.StockMovementType;
+import de.intagau.domain.util.PooledSequenceGenerator;
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * A StockMovement: an entry of the append-only ledger of the changes of {@link StockPosition} amounts.
+ * <p>
+ * Movements refer to the stock position by id only, as they outlive it.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_movement")
+public class StockMovement implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @GenericGenerator(name = "sequenceGenerator", strategy = PooledSequenceGenerator.STRATEGY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "stock_position_id", nullable = false)
+    private Long stockPositionId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private StockMovementType type;
+
+    @NotNull
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+
+    @NotNull
+    @Column(name = "moved_at", nullable = false)
+    private Instant movedAt;
+
+    @Size(max = 50)
+    @Column(name = "created_by", length = 50)
+    private String createdBy;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public StockMovement id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getStockPositionId() {
+        return this.stockPositionId;
+    }
+
+    public StockMovement stockPositionId(Long stockPositionId) {
+        this.setStockPositionId(stockPositionId);
+        return this;
+    }
+
+    public void setStockPositionId(Long stockPositionId) {
+        this.stockPositionId = stockPositionId;
+    }
+
+    public StockMovementType getType() {
+        return this.type;
+    }
+
+    public StockMovement type(StockMovementType type) {
+        this.setType(type);
+        return this;
+    }
+
+    public void setType(StockMovementType type) {
+        this.type = type;
+    }
+
+    public Integer getDelta() {
+        return this.delta;
+    }
+
+    public StockMovement delta(Integer delta) {
+        this.setDelta(delta);
+        return this;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    public Instant getMovedAt() {
+        return this.movedAt;
+    }
+
+    public StockMovement movedAt(Instant movedAt) {
+        this.setMovedAt(movedAt);
+        return this;
+    }
+
+    public void setMovedAt(Instant movedAt) {
+        this.movedAt = movedAt;
+    }
+
+    public String getCreatedBy() {
+        return this.createdBy;
+    }
+
+    public StockMovement createdBy(String createdBy) {
+        this.setCreatedBy(createdBy);
+        return this;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StockMovement)) {
+            return false;
+        }
+        return id != null && id.equals(((StockMovement) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockMovement{" +
+            "id=" + getId() +
+            ", stockPositionId=" + getStockPositionId() +
+            ", type='" + getType() + "'" +
+            ", delta=" + getDelta() +
+            ", movedAt='" + getMovedAt() + "'" +
+            ", createdBy='" + getCreatedBy() + "'" +
+            "}";
+    }
+}
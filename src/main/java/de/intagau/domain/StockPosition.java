@@ -1,11 +1,13 @@
 package de.intagau.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import de.intagau.domain.util.PooledSequenceGenerator;
 import java.io.Serializable;
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 
 /**
  * A StockPosition.
@@ -20,7 +22,7 @@ public class StockPosition implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GenericGenerator(name = "sequenceGenerator", strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "id")
     private Long id;
 
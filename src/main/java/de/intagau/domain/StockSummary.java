@@ -0,0 +1,75 @@
+package de.intagau.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * The stock totals of a storage room: the sum of the amounts and the number of the stock positions held in
+ * the storages of the room.
+ * <p>
+ * Rows are maintained by the application as stock changes, never written through JPA.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_summary")
+public class StockSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "storage_room_id")
+    private Long storageRoomId;
+
+    @Column(name = "products_id")
+    private Long productsId;
+
+    @Column(name = "total_amount", nullable = false)
+    private Long totalAmount;
+
+    @Column(name = "position_count", nullable = false)
+    private Long positionCount;
+
+    public Long getStorageRoomId() {
+        return this.storageRoomId;
+    }
+
+    public Long getProductsId() {
+        return this.productsId;
+    }
+
+    public Long getTotalAmount() {
+        return this.totalAmount;
+    }
+
+    public Long getPositionCount() {
+        return this.positionCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StockSummary)) {
+            return false;
+        }
+        return storageRoomId != null && storageRoomId.equals(((StockSummary) o).storageRoomId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockSummary{" +
+            "storageRoomId=" + getStorageRoomId() +
+            ", productsId=" + getProductsId() +
+            ", totalAmount=" + getTotalAmount() +
+            ", positionCount=" + getPositionCount() +
+            "}";
+    }
+}
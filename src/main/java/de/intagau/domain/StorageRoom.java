@@ -1,6 +1,8 @@
 package de.intagau.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import de.intagau.domain.util.PooledSequenceGenerator;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
@@ -8,6 +10,7 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 
 /**
  * A StorageRoom.
@@ -22,7 +25,7 @@ public class StorageRoom implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GenericGenerator(name = "sequenceGenerator", strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "id")
     private Long id;
 
@@ -44,6 +47,13 @@ public class StorageRoom implements Serializable {
     @JsonIgnoreProperties(value = { "storeds" }, allowSetters = true)
     private Products products;
 
+    /**
+     * Materialized path of the room in the storage tree, e.g. {@code /12/57/}, maintained by the StorageTreeService.
+     */
+    @JsonIgnore
+    @Column(name = "path", length = 1024)
+    private String path;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -129,6 +139,19 @@ public class StorageRoom implements Serializable {
         return this;
     }
 
+    public String getPath() {
+        return this.path;
+    }
+
+    public StorageRoom path(String path) {
+        this.setPath(path);
+        return this;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -0,0 +1,31 @@
+package de.intagau.domain.enumeration;
+
+/**
+ * The StockMovementType enumeration: what caused a change of the amount of a stock position.
+ */
+public enum StockMovementType {
+    /**
+     * The stock position was created, with its initial amount as delta.
+     */
+    CREATED,
+
+    /**
+     * The amount was overwritten by an update of the stock position.
+     */
+    UPDATED,
+
+    /**
+     * The amount was adjusted by a delta.
+     */
+    ADJUSTED,
+
+    /**
+     * The stock position was created by a bulk import.
+     */
+    IMPORTED,
+
+    /**
+     * The stock position was deleted, with the negated amount as delta.
+     */
+    DELETED,
+}
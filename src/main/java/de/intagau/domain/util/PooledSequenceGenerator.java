@@ -0,0 +1,43 @@
+package de.intagau.domain.util;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Identifier generator shared by the entities, backed by the {@code sequence_generator} sequence.
+ * <p>
+ * Ids are allocated in blocks with the {@code pooled-lo} optimizer: each {@code nextval} is the first id of a
+ * block, so inserts only hit the sequence once per block and can be sent as JDBC batches. The block size must
+ * equal the increment of the database sequence, which Liquibase sets from the same
+ * {@code application.sequence.increment-size} property.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "de.intagau.domain.util.PooledSequenceGenerator";
+
+    /**
+     * Hibernate setting holding the block size, passed through {@code spring.jpa.properties}.
+     */
+    public static final String INCREMENT_SIZE_SETTING = "application.sequence.increment_size";
+
+    public static final int DEFAULT_INCREMENT_SIZE = 100;
+
+    static final String SEQUENCE_NAME = "sequence_generator";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        String incrementSize = serviceRegistry
+            .getService(ConfigurationService.class)
+            .getSetting(INCREMENT_SIZE_SETTING, StandardConverters.STRING, String.valueOf(DEFAULT_INCREMENT_SIZE));
+        params.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        params.setProperty(INCREMENT_PARAM, incrementSize);
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -1,9 +1,26 @@
 package de.intagau.repository;
 
 import de.intagau.domain.Authority;
+import java.util.List;
+import javax.persistence.QueryHint;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 /**
  * Spring Data JPA repository for the {@link Authority} entity.
  */
-public interface AuthorityRepository extends JpaRepository<Authority, String> {}
+public interface AuthorityRepository extends JpaRepository<Authority, String> {
+    String AUTHORITIES_QUERY_CACHE = "query.authorities";
+
+    /**
+     * Find all the authorities, read on each login. The result is cached until an authority is written.
+     */
+    @Override
+    @org.springframework.data.jpa.repository.QueryHints(
+        {
+            @QueryHint(name = QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = QueryHints.HINT_CACHE_REGION, value = AUTHORITIES_QUERY_CACHE),
+        }
+    )
+    List<Authority> findAll();
+}
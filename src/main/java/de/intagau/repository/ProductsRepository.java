@@ -1,7 +1,16 @@
 package de.intagau.repository;
 
 import de.intagau.domain.Products;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.QueryHint;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +18,63 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ProductsRepository extends JpaRepository<Products, Long> {}
+public interface ProductsRepository extends JpaRepository<Products, Long>, JpaSpecificationExecutor<Products> {
+    String PRODUCTS_BY_EAN_CACHE = "productsByEan";
+
+    String PRODUCTS_BY_NAME_QUERY_CACHE = "query.productsByName";
+
+    /**
+     * Find the product with an EAN, the oldest one if several share it. Misses are cached too, as unknown codes
+     * get scanned again and again.
+     */
+    @Cacheable(cacheNames = PRODUCTS_BY_EAN_CACHE)
+    Optional<Products> findFirstByEanOrderByIdAsc(String ean);
+
+    List<Products> findAllByOrderByIdAsc(Pageable pageable);
+
+    @Query("select products from Products products where products.id > :id order by products.id asc")
+    List<Products> findAllAfterId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find the first page of the catalog sorted by name. Like {@link #findAllAfterName}, the result is cached until
+     * the {@code products} table is written, the writes to the other tables leave it in the cache.
+     */
+    @org.springframework.data.jpa.repository.QueryHints(
+        {
+            @QueryHint(name = QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = QueryHints.HINT_CACHE_REGION, value = PRODUCTS_BY_NAME_QUERY_CACHE),
+        }
+    )
+    List<Products> findAllByOrderByNameAscIdAsc(Pageable pageable);
+
+    @org.springframework.data.jpa.repository.QueryHints(
+        {
+            @QueryHint(name = QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = QueryHints.HINT_CACHE_REGION, value = PRODUCTS_BY_NAME_QUERY_CACHE),
+        }
+    )
+    @Query(
+        "select products from Products products " +
+        "where products.name > :name or (products.name = :name and products.id > :id) " +
+        "order by products.name asc, products.id asc"
+    )
+    List<Products> findAllAfterName(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @Query(
+        value = "select products.* from products products where products.id in " +
+        "(select product_tag.products_id from product_tag product_tag where product_tag.tag in (:tags) " +
+        "group by product_tag.products_id having count(*) = :tagCount)",
+        countQuery = "select count(*) from (select product_tag.products_id from product_tag product_tag where product_tag.tag in (:tags) " +
+        "group by product_tag.products_id having count(*) = :tagCount) matches",
+        nativeQuery = true
+    )
+    Page<Products> findAllWithAllTags(@Param("tags") Collection<String> tags, @Param("tagCount") long tagCount, Pageable pageable);
+
+    @Query(
+        value = "select products.* from products products where products.id in " +
+        "(select product_tag.products_id from product_tag product_tag where product_tag.tag in (:tags))",
+        countQuery = "select count(distinct product_tag.products_id) from product_tag product_tag where product_tag.tag in (:tags)",
+        nativeQuery = true
+    )
+    Page<Products> findAllWithAnyTag(@Param("tags") Collection<String> tags, Pageable pageable);
+}
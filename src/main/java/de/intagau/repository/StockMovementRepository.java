@@ -0,0 +1,15 @@
+package de.intagau.repository;
+
+import de.intagau.domain.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the StockMovement entity.
+ */
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+    Page<StockMovement> findAllByStockPositionId(Long stockPositionId, Pageable pageable);
+}
@@ -1,7 +1,10 @@
 package de.intagau.repository;
 
 import de.intagau.domain.StockPosition;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +12,21 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface StockPositionRepository extends JpaRepository<StockPosition, Long> {}
+public interface StockPositionRepository extends JpaRepository<StockPosition, Long>, JpaSpecificationExecutor<StockPosition> {
+    List<StockPosition> findAllByOrderByIdAsc(Pageable pageable);
+
+    @Query("select stockPosition from StockPosition stockPosition where stockPosition.id > :id order by stockPosition.id asc")
+    List<StockPosition> findAllAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query(
+        "select stockPosition from StockPosition stockPosition join fetch stockPosition.inherit storage " +
+        "join storage.storageRoom storageRoom where storageRoom.path like concat(:path, '%')"
+    )
+    List<StockPosition> findAllByStorageRoomPathStartingWith(@Param("path") String path);
+
+    List<StockPosition> findAllBySerialNoOrderByIdAsc(String serialNo);
+
+    boolean existsBySerialNo(String serialNo);
+
+    boolean existsBySerialNoAndIdNot(String serialNo, Long id);
+}
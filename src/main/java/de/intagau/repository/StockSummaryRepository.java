@@ -0,0 +1,37 @@
+package de.intagau.repository;
+
+import de.intagau.domain.StockSummary;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the StockSummary entity.
+ */
+@Repository
+public interface StockSummaryRepository extends JpaRepository<StockSummary, Long> {
+    /**
+     * The stock totals of a product, summed over the storage rooms assigned to it.
+     */
+    interface ProductStockTotal {
+        Long getProductsId();
+
+        Long getTotalAmount();
+
+        Long getPositionCount();
+
+        Long getStorageRoomCount();
+    }
+
+    String PRODUCT_STOCK_TOTAL_SELECT =
+        "select s.productsId as productsId, sum(s.totalAmount) as totalAmount, sum(s.positionCount) as positionCount," +
+        " count(s) as storageRoomCount from StockSummary s";
+
+    @Query(PRODUCT_STOCK_TOTAL_SELECT + " where s.productsId is not null group by s.productsId order by s.productsId")
+    List<ProductStockTotal> findAllProductStockTotals();
+
+    @Query(PRODUCT_STOCK_TOTAL_SELECT + " where s.productsId = :productsId group by s.productsId")
+    Optional<ProductStockTotal> findProductStockTotal(@Param("productsId") Long productsId);
+}
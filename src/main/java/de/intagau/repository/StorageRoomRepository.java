@@ -1,7 +1,10 @@
 package de.intagau.repository;
 
 import de.intagau.domain.StorageRoom;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +12,22 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface StorageRoomRepository extends JpaRepository<StorageRoom, Long> {}
+public interface StorageRoomRepository extends JpaRepository<StorageRoom, Long>, JpaSpecificationExecutor<StorageRoom> {
+    Optional<StorageRoom> findOneByInheritId(Long storageId);
+
+    @Query("select storageRoom.path from StorageRoom storageRoom where storageRoom.id = :id")
+    Optional<String> findPathById(@Param("id") Long id);
+
+    @Query(
+        "select distinct storageRoom from StorageRoom storageRoom join fetch storageRoom.inherit left join fetch storageRoom.contains " +
+        "left join fetch storageRoom.products where storageRoom.path like concat(:path, '%') order by storageRoom.path"
+    )
+    List<StorageRoom> findAllByPathStartingWith(@Param("path") String path);
+
+    @Modifying
+    @Query(
+        "update StorageRoom storageRoom set storageRoom.path = concat(:newPath, substring(storageRoom.path, length(:oldPath) + 1)) " +
+        "where storageRoom.path like concat(:oldPath, '%') and storageRoom.path <> :oldPath"
+    )
+    int movePathPrefix(@Param("oldPath") String oldPath, @Param("newPath") String newPath);
+}
@@ -0,0 +1,145 @@
+package de.intagau.security.oauth2;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * {@link JwtDecoder} keeping the tokens decoded by its delegate until they expire, so that the signature of a
+ * token, and its claims, are verified once instead of on every request. Tokens are cached by their SHA-256
+ * hash; rejected tokens and tokens without expiry are not cached.
+ * <p>
+ * Binding it to a {@link MeterRegistry} reports the statistics of its cache, as the {@code jwts} cache, the
+ * decoding time by result ({@code jwt.decode}), the CPU time of the decodings by the delegate
+ * ({@code jwt.decode.cpu}), and the CPU time saved by the cache hits ({@code jwt.decode.cpu.saved}), estimated
+ * with the average CPU time of the decodings.
+ */
+public class CachingJwtDecoder implements JwtDecoder, MeterBinder {
+
+    private static final String DECODE_DESCRIPTION = "Time spent decoding the access tokens";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final JwtDecoder delegate;
+
+    private final Clock clock;
+
+    private final Cache<String, Jwt> jwts;
+
+    private final LongAdder decodings = new LongAdder();
+
+    private final DoubleAdder decodingCpuNanos = new DoubleAdder();
+
+    private final DoubleAdder savedCpuNanos = new DoubleAdder();
+
+    private volatile MeterRegistry meterRegistry;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize) {
+        this(delegate, maximumSize, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Clock clock, Ticker ticker) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.jwts = Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new UntilExpiry()).ticker(ticker).recordStats().build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        String key = hash(token);
+        Jwt jwt = jwts.getIfPresent(key);
+        if (jwt != null && jwt.getExpiresAt().isAfter(clock.instant())) {
+            double averageCpuNanos = decodingCpuNanos.sum() / Math.max(1, decodings.sum());
+            savedCpuNanos.add(averageCpuNanos);
+            record(Timer.builder("jwt.decode").description(DECODE_DESCRIPTION).tag("result", "hit"), System.nanoTime() - start);
+            return jwt;
+        }
+        long cpuStart = cpuTime();
+        jwt = delegate.decode(token);
+        long cpuNanos = cpuTime() - cpuStart;
+        decodings.increment();
+        decodingCpuNanos.add(cpuNanos);
+        record(Timer.builder("jwt.decode.cpu").description("CPU time spent decoding the access tokens not cached"), cpuNanos);
+        if (jwt.getExpiresAt() != null) {
+            jwts.put(key, jwt);
+        }
+        record(Timer.builder("jwt.decode").description(DECODE_DESCRIPTION).tag("result", "miss"), System.nanoTime() - start);
+        return jwt;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, jwts, "jwts");
+        FunctionCounter
+            .builder("jwt.decode.cpu.saved", savedCpuNanos, saved -> saved.sum() / TimeUnit.SECONDS.toNanos(1))
+            .description("Estimated CPU time saved by the cached access tokens")
+            .baseUnit("seconds")
+            .register(registry);
+        this.meterRegistry = registry;
+    }
+
+    private void record(Timer.Builder timer, long nanos) {
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            timer.register(registry).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Keeps the tokens until they expire.
+     */
+    private final class UntilExpiry implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(@NonNull String key, @NonNull Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            return Math.max(0, Duration.between(clock.instant(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull String key, @NonNull Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull String key, @NonNull Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,25 +2,49 @@ package de.intagau.security.oauth2;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
 import de.intagau.security.SecurityUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
 import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -28,8 +52,34 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
  * Claim converter to add custom claims by retrieving the user from the userinfo endpoint.
+ * <p>
+ * The user info is cached by subject, and loaded once for concurrent requests of the same user. Entries are
+ * refreshed in the background, with the latest token of the user accepted by the IdP, once older than
+ * {@link #REFRESH_AFTER}, so that active users never wait for the IdP again. A failed lookup is cached for
+ * {@link #FAILURE_EXPIRY}, and a failed refresh keeps the previous user info. A token rejected by the IdP, such as
+ * an expired one, is not cached, as the converter runs before the token is validated: it must not fail the other
+ * tokens of the user. After {@link #FAILURE_THRESHOLD} consecutive IdP failures, the IdP is no longer called for
+ * {@link #OPEN_DURATION}, then a single trial request is let through.
+ * <p>
+ * Binding it to a {@link MeterRegistry} reports the statistics of its cache of users, as the {@code users} cache,
+ * the time spent waiting for the user info on the request threads ({@code oauth2.userinfo.wait}), and the calls
+ * to the IdP ({@code oauth2.userinfo.requests}).
  */
-public class CustomClaimConverter implements Converter<Map<String, Object>, Map<String, Object>> {
+public class CustomClaimConverter implements Converter<Map<String, Object>, Map<String, Object>>, MeterBinder {
+
+    static final Duration EXPIRY = Duration.ofHours(1);
+
+    static final Duration REFRESH_AFTER = Duration.ofMinutes(30);
+
+    static final Duration FAILURE_EXPIRY = Duration.ofSeconds(30);
+
+    static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    static final int FAILURE_THRESHOLD = 5;
+
+    static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final Logger log = LoggerFactory.getLogger(CustomClaimConverter.class);
 
     private final BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
 
@@ -39,18 +89,59 @@ public class CustomClaimConverter implements Converter<Map<String, Object>, Map<
 
     private final ClientRegistration registration;
 
+    private final ExecutorService executor = Executors.newCachedThreadPool(userInfoThreadFactory());
+
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * The latest token of each user accepted by the userinfo endpoint, used to refresh their user info.
+     */
+    private final Cache<String, String> tokens;
+
     // See https://github.com/jhipster/generator-jhipster/issues/18868
     // We don't use a distributed cache or the user selected cache implementation here on purpose
-    private final Cache<String, ObjectNode> users = Caffeine
-        .newBuilder()
-        .maximumSize(10_000)
-        .expireAfterWrite(Duration.ofHours(1))
-        .recordStats()
-        .build();
+    private final AsyncLoadingCache<String, UserInfo> users;
+
+    private volatile MeterRegistry meterRegistry;
 
     public CustomClaimConverter(ClientRegistration registration, RestTemplate restTemplate) {
+        this(registration, restTemplate, Ticker.systemTicker());
+    }
+
+    CustomClaimConverter(ClientRegistration registration, RestTemplate restTemplate, Ticker ticker) {
         this.registration = registration;
         this.restTemplate = restTemplate;
+        this.circuitBreaker = new CircuitBreaker(ticker);
+        this.tokens = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(EXPIRY).ticker(ticker).build();
+        this.users =
+            Caffeine
+                .newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(new UserInfoExpiry())
+                .refreshAfterWrite(REFRESH_AFTER)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .buildAsync(
+                    new AsyncCacheLoader<String, UserInfo>() {
+                        @Override
+                        public CompletableFuture<? extends UserInfo> asyncLoad(String sub, Executor executor) {
+                            return load(sub, tokens.getIfPresent(sub), executor);
+                        }
+
+                        @Override
+                        public CompletableFuture<? extends UserInfo> asyncReload(String sub, UserInfo previous, Executor executor) {
+                            // Keep serving the previous user info while the IdP fails
+                            return CompletableFuture.supplyAsync(
+                                () -> {
+                                    UserInfo reloaded = fetch(sub, tokens.getIfPresent(sub));
+                                    return reloaded.isAvailable() ? reloaded : previous;
+                                },
+                                executor
+                            );
+                        }
+                    }
+                );
     }
 
     public Map<String, Object> convert(Map<String, Object> claims) {
@@ -61,24 +152,12 @@ public class CustomClaimConverter implements Converter<Map<String, Object>, Map<
         }
         RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
         if (attributes instanceof ServletRequestAttributes) {
-            // Retrieve and set the token
-            String token = bearerTokenResolver.resolve(((ServletRequestAttributes) attributes).getRequest());
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", buildBearer(token));
+            // Retrieve the token, used to load the user info
+            String sub = claims.get("sub").toString();
+            String token = String.valueOf(bearerTokenResolver.resolve(((ServletRequestAttributes) attributes).getRequest()));
 
             // Retrieve user info from OAuth provider if not already loaded
-            ObjectNode user = users.get(
-                claims.get("sub").toString(),
-                s -> {
-                    ResponseEntity<ObjectNode> userInfo = restTemplate.exchange(
-                        registration.getProviderDetails().getUserInfoEndpoint().getUri(),
-                        HttpMethod.GET,
-                        new HttpEntity<String>(headers),
-                        ObjectNode.class
-                    );
-                    return userInfo.getBody();
-                }
-            );
+            ObjectNode user = userInfo(sub, token);
 
             // Add custom claims
             if (user != null) {
@@ -119,7 +198,207 @@ public class CustomClaimConverter implements Converter<Map<String, Object>, Map<
         return convertedClaims;
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+        Gauge
+            .builder("oauth2.userinfo.circuit.open", circuitBreaker, breaker -> breaker.isOpen() ? 1 : 0)
+            .description("Whether the calls to the IdP userinfo endpoint are suspended after failures")
+            .register(registry);
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * Get the user info of a subject, waiting for it to be loaded if not cached.
+     *
+     * @throws JwtException if the user info cannot be retrieved.
+     */
+    private ObjectNode userInfo(String sub, String token) {
+        long start = System.nanoTime();
+        CompletableFuture<UserInfo> future = users.get(sub, (key, executor) -> load(key, token, executor));
+        String result = future.isDone() ? "hit" : "miss";
+        try {
+            UserInfo userInfo = future.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (!userInfo.isAvailable()) {
+                throw new JwtException("The user info of " + sub + " is unavailable");
+            }
+            return userInfo.getUser();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JwtException("Interrupted while retrieving the user info of " + sub, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new JwtException("Could not retrieve the user info of " + sub, e);
+        } finally {
+            record("oauth2.userinfo.wait", "Time spent by the requests waiting for the user info", "result", result, start);
+        }
+    }
+
+    /**
+     * Load the user info of a subject with a token, failing without caching anything if the IdP rejects the token.
+     */
+    private CompletableFuture<UserInfo> load(String sub, String token, Executor executor) {
+        return CompletableFuture.supplyAsync(
+            () -> {
+                UserInfo userInfo = fetch(sub, token);
+                if (userInfo == UserInfo.REJECTED) {
+                    throw new JwtException("The IdP rejected the token of " + sub);
+                }
+                return userInfo;
+            },
+            executor
+        );
+    }
+
+    private UserInfo fetch(String sub, String token) {
+        if (!circuitBreaker.allowRequest()) {
+            log.debug("Not retrieving the user info of {}, the IdP is failing", sub);
+            return UserInfo.UNAVAILABLE;
+        }
+        long start = System.nanoTime();
+        String outcome = "server_error";
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("Authorization", buildBearer(token));
+            ResponseEntity<ObjectNode> userInfo = restTemplate.exchange(
+                registration.getProviderDetails().getUserInfoEndpoint().getUri(),
+                HttpMethod.GET,
+                new HttpEntity<String>(headers),
+                ObjectNode.class
+            );
+            circuitBreaker.recordSuccess();
+            outcome = "success";
+            tokens.put(sub, token);
+            return new UserInfo(userInfo.getBody());
+        } catch (HttpClientErrorException e) {
+            // A rejected token, the IdP itself works
+            circuitBreaker.recordSuccess();
+            outcome = "client_error";
+            log.debug("The IdP rejected the user info request of {}: {}", sub, e.getMessage());
+            return UserInfo.REJECTED;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            log.warn("Could not retrieve the user info of {}: {}", sub, e.getMessage());
+            return UserInfo.UNAVAILABLE;
+        } finally {
+            record("oauth2.userinfo.requests", "Calls to the IdP userinfo endpoint", "outcome", outcome, start);
+        }
+    }
+
+    private void record(String name, String description, String tagKey, String tagValue, long start) {
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            Timer
+                .builder(name)
+                .description(description)
+                .tag(tagKey, tagValue)
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
     private String buildBearer(String token) {
         return "Bearer " + token;
     }
+
+    private static CustomizableThreadFactory userInfoThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-info-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * The user info of a subject, or its absence when it could not be retrieved.
+     */
+    private static final class UserInfo {
+
+        static final UserInfo UNAVAILABLE = new UserInfo(null, false);
+
+        static final UserInfo REJECTED = new UserInfo(null, false);
+
+        private final ObjectNode user;
+
+        private final boolean available;
+
+        UserInfo(ObjectNode user) {
+            this(user, true);
+        }
+
+        private UserInfo(ObjectNode user, boolean available) {
+            this.user = user;
+            this.available = available;
+        }
+
+        ObjectNode getUser() {
+            return user;
+        }
+
+        boolean isAvailable() {
+            return available;
+        }
+    }
+
+    /**
+     * Keeps the user info for {@link #EXPIRY}, and the failures for {@link #FAILURE_EXPIRY} only.
+     */
+    private static final class UserInfoExpiry implements Expiry<String, UserInfo> {
+
+        @Override
+        public long expireAfterCreate(@NonNull String sub, @NonNull UserInfo userInfo, long currentTime) {
+            return (userInfo.isAvailable() ? EXPIRY : FAILURE_EXPIRY).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull String sub, @NonNull UserInfo userInfo, long currentTime, long currentDuration) {
+            return expireAfterCreate(sub, userInfo, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull String sub, @NonNull UserInfo userInfo, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Suspends the calls to the IdP after consecutive failures.
+     */
+    static final class CircuitBreaker {
+
+        private final Ticker ticker;
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        /**
+         * The time until which the calls are suspended, 0 while closed.
+         */
+        private final AtomicLong openUntil = new AtomicLong();
+
+        CircuitBreaker(Ticker ticker) {
+            this.ticker = ticker;
+        }
+
+        boolean allowRequest() {
+            long until = openUntil.get();
+            if (until == 0) {
+                return true;
+            }
+            long now = ticker.read();
+            // Once the open period is over, a single trial request goes through, the others wait for its result
+            return now >= until && openUntil.compareAndSet(until, now + OPEN_DURATION.toNanos());
+        }
+
+        void recordSuccess() {
+            failures.set(0);
+            openUntil.set(0);
+        }
+
+        void recordFailure() {
+            if (failures.incrementAndGet() >= FAILURE_THRESHOLD) {
+                openUntil.set(Math.max(1, ticker.read() + OPEN_DURATION.toNanos()));
+            }
+        }
+
+        boolean isOpen() {
+            return openUntil.get() != 0;
+        }
+    }
 }
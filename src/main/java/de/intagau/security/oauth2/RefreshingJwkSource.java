@@ -0,0 +1,146 @@
+package de.intagau.security.oauth2;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestOperations;
+
+/**
+ * Source of the signing keys of the IdP, loaded from its JWK set endpoint.
+ * <p>
+ * The keys are reloaded in the background at a fixed interval, on the given scheduler, so that the requests never
+ * wait for them once loaded; a failed reload keeps the previous keys. Closing the source stops the reloads. A token
+ * signed with an unknown key, after a key rotation, reloads the keys at once, but at most every
+ * {@code minRefreshInterval}.
+ * <p>
+ * Binding it to a {@link MeterRegistry} counts the loads ({@code jwt.jwks.loads}) by trigger and outcome.
+ */
+public class RefreshingJwkSource implements JWKSource<SecurityContext>, MeterBinder, AutoCloseable {
+
+    private final Logger log = LoggerFactory.getLogger(RefreshingJwkSource.class);
+
+    private final String jwkSetUri;
+
+    private final RestOperations restOperations;
+
+    private final long minRefreshNanos;
+
+    private final ScheduledFuture<?> refreshes;
+
+    /**
+     * Guards the loads.
+     */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile JWKSet jwkSet;
+
+    private volatile long loadedAt;
+
+    private volatile MeterRegistry meterRegistry;
+
+    public RefreshingJwkSource(
+        String jwkSetUri,
+        RestOperations restOperations,
+        TaskScheduler scheduler,
+        Duration refreshInterval,
+        Duration minRefreshInterval
+    ) {
+        this.jwkSetUri = jwkSetUri;
+        this.restOperations = restOperations;
+        this.minRefreshNanos = minRefreshInterval.toNanos();
+        this.refreshes = scheduler.scheduleWithFixedDelay(this::refresh, Instant.now().plus(refreshInterval), refreshInterval);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet keys = jwkSet;
+        if (keys == null) {
+            keys = load(null, "initial");
+        }
+        List<JWK> matches = jwkSelector.select(keys);
+        if (matches.isEmpty() && System.nanoTime() - loadedAt >= minRefreshNanos) {
+            matches = jwkSelector.select(load(keys, "unknown_key"));
+        }
+        return matches;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    @Override
+    public void close() {
+        refreshes.cancel(false);
+    }
+
+    private void refresh() {
+        try {
+            load(jwkSet, "scheduled");
+        } catch (KeySourceException e) {
+            log.warn("Keeping the previous signing keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Load the keys, unless another thread replaced the given ones while waiting.
+     */
+    private JWKSet load(JWKSet previous, String trigger) throws KeySourceException {
+        loadLock.lock();
+        try {
+            if (jwkSet != previous) {
+                return jwkSet;
+            }
+            return fetch(trigger);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private JWKSet fetch(String trigger) throws KeySourceException {
+        try {
+            String json = restOperations.getForObject(jwkSetUri, String.class);
+            if (json == null) {
+                throw new ParseException("Empty JWK set", 0);
+            }
+            JWKSet loaded = JWKSet.parse(json);
+            jwkSet = loaded;
+            loadedAt = System.nanoTime();
+            count(trigger, "success");
+            log.debug("Loaded {} signing keys from {}", loaded.getKeys().size(), jwkSetUri);
+            return loaded;
+        } catch (RestClientException | ParseException e) {
+            count(trigger, "failure");
+            throw new KeySourceException("Could not load the signing keys from " + jwkSetUri + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void count(String trigger, String outcome) {
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            Counter
+                .builder("jwt.jwks.loads")
+                .description("Loads of the signing keys of the IdP")
+                .tag("trigger", trigger)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.intagau.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel carrying the cache invalidations between the instances of the application.
+ */
+public interface CacheInvalidationBus {
+    /**
+     * Send a message to all the instances, this one included, without waiting for the delivery.
+     *
+     * @param message the message, at most {@link #maxMessageBytes()} bytes once encoded in UTF-8.
+     */
+    void send(String message);
+
+    /**
+     * @return the maximum size of a message, in UTF-8 bytes.
+     */
+    int maxMessageBytes();
+
+    /**
+     * Register the receiver of the messages.
+     *
+     * @param receiver called with each message, from the thread of the bus.
+     * @param onMessagesLost called when messages may have been missed, after a connection loss or a failed send.
+     */
+    void subscribe(Consumer<String> receiver, Runnable onMessagesLost);
+}
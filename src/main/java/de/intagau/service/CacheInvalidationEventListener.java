@@ -0,0 +1,142 @@
+package de.intagau.service;
+
+import de.intagau.service.CacheInvalidationService.Kind;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate listener collecting the second level cache entries and query spaces written through JPA, and
+ * publishing their invalidation to the other instances through the {@link CacheInvalidationService} once the
+ * transaction has committed. Does nothing unless the cluster mode is enabled.
+ */
+@Component
+public class CacheInvalidationEventListener
+    implements
+        PostInsertEventListener,
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CacheInvalidationService cacheInvalidationService;
+
+    private final transient PerTransactionState<PendingInvalidations> pendingInvalidations = new PerTransactionState<>(
+        PendingInvalidations::new
+    );
+
+    public CacheInvalidationEventListener(CacheInvalidationService cacheInvalidationService) {
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // Other instances cannot have cached a new entity, only queries on its tables
+        record(event.getSession(), event.getPersister(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        record(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        record(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        record(event);
+    }
+
+    private void record(EventSource session, EntityPersister persister, Serializable id) {
+        if (!cacheInvalidationService.isClustered()) {
+            return;
+        }
+        PendingInvalidations pending = pendingInvalidations.get(session);
+        if (id != null && persister.canWriteToCache()) {
+            pending.put(Kind.ENTITY, persister.getEntityName(), id);
+        }
+        if (session.getFactory().getSessionFactoryOptions().isQueryCacheEnabled()) {
+            for (Serializable space : persister.getQuerySpaces()) {
+                pending.put(Kind.QUERY_SPACE, null, space);
+            }
+        }
+    }
+
+    private void record(AbstractCollectionEvent event) {
+        if (!cacheInvalidationService.isClustered() || event.getAffectedOwnerIdOrNull() == null) {
+            return;
+        }
+        // The role of the collection wrapper is only set once flushed
+        CollectionEntry entry = event.getSession().getPersistenceContextInternal().getCollectionEntry(event.getCollection());
+        CollectionPersister persister = entry == null
+            ? null
+            : entry.getCurrentPersister() != null ? entry.getCurrentPersister() : entry.getLoadedPersister();
+        if (persister != null && persister.hasCache()) {
+            pendingInvalidations.get(event.getSession()).put(Kind.COLLECTION, persister.getRole(), event.getAffectedOwnerIdOrNull());
+        }
+    }
+
+    /**
+     * The cache entries written in a session since its transaction began, by kind and region.
+     */
+    private class PendingInvalidations implements AfterTransactionCompletionProcess {
+
+        private final Map<Kind, Map<String, Set<Object>>> keys = new LinkedHashMap<>();
+
+        void put(Kind kind, String name, Object key) {
+            keys.computeIfAbsent(kind, k -> new LinkedHashMap<>()).computeIfAbsent(name, n -> new LinkedHashSet<>()).add(key);
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            if (success) {
+                keys.forEach((kind, keysByName) ->
+                    keysByName.forEach((name, regionKeys) -> cacheInvalidationService.publish(kind, name, regionKeys))
+                );
+            }
+        }
+    }
+}
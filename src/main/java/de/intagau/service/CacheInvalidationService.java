@@ -0,0 +1,352 @@
+package de.intagau.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.intagau.config.ApplicationProperties;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service keeping the caches of the instances of the application consistent with each other.
+ * <p>
+ * Each instance keeps its own caches. When the cluster mode is enabled, the entries an instance evicts after a
+ * write, either from the second level caches or from the Spring caches, are published on the
+ * {@link CacheInvalidationBus}, and evicted in turn by the other instances. The invalidations are applied again
+ * after a short delay, dropping the entries another instance loaded from the database while the write was being
+ * committed. When messages may have been lost, all the caches are cleared.
+ * <p>
+ * Without a bus, publishing does nothing, and the caches are only evicted locally by their usual owners.
+ */
+@Service
+public class CacheInvalidationService {
+
+    /**
+     * The kinds of cached data invalidated, or completed for the serial numbers.
+     */
+    public enum Kind {
+        /**
+         * Second level cache entries of an entity, by id.
+         */
+        ENTITY,
+        /**
+         * Second level cache entries of a collection role, by owner id.
+         */
+        COLLECTION,
+        /**
+         * Spring cache entries, by key.
+         */
+        CACHE,
+        /**
+         * Cached query results reading tables, by table name.
+         */
+        QUERY_SPACE,
+        /**
+         * Serial numbers written, by value, added to the duplicate filter of the {@link SerialNumberService}.
+         */
+        SERIAL_NUMBER,
+    }
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Cache.Cluster properties;
+
+    private final CacheInvalidationBus bus;
+
+    private final ObjectProvider<SerialNumberService> serialNumberService;
+
+    private ScheduledExecutorService repeater;
+
+    public CacheInvalidationService(
+        EntityManagerFactory entityManagerFactory,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        ObjectProvider<CacheInvalidationBus> bus,
+        ObjectProvider<SerialNumberService> serialNumberService
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getCache().getCluster();
+        this.bus = bus.getIfAvailable();
+        this.serialNumberService = serialNumberService;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (bus != null) {
+            repeater = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("cache-invalidation-"));
+            bus.subscribe(this::receive, this::clearAll);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (repeater != null) {
+            repeater.shutdownNow();
+        }
+    }
+
+    /**
+     * @return whether the invalidations are sent to other instances.
+     */
+    public boolean isClustered() {
+        return bus != null;
+    }
+
+    /**
+     * Publish invalidations to the other instances, once the current transaction has committed if there is one.
+     * Nothing is published if the transaction rolls back.
+     *
+     * @param kind the kind of cached data.
+     * @param name the entity name, collection role or cache name; ignored for the query spaces and serial numbers.
+     * @param keys the ids, keys, table names or serial numbers, or {@code null} for the whole region or cache.
+     */
+    public void publishAfterCommit(Kind kind, String name, Collection<?> keys) {
+        if (bus == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<?> pendingKeys = keys == null ? null : new ArrayList<>(keys);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        publish(kind, name, pendingKeys);
+                    }
+                }
+            );
+        } else {
+            publish(kind, name, keys);
+        }
+    }
+
+    /**
+     * Publish invalidations to the other instances now, split into as many messages as the size limit of the bus needs.
+     *
+     * @param kind the kind of cached data.
+     * @param name the entity name, collection role or cache name; ignored for the query spaces and serial numbers.
+     * @param keys the ids, keys, table names or serial numbers, or {@code null} for the whole region or cache.
+     */
+    public void publish(Kind kind, String name, Collection<?> keys) {
+        if (bus == null || (keys != null && keys.isEmpty())) {
+            return;
+        }
+        if (keys == null) {
+            bus.send(encode(new Invalidation(node, kind, name, null)));
+            return;
+        }
+        int emptySize = size(encode(new Invalidation(node, kind, name, new ArrayList<>())));
+        List<Object> chunk = new ArrayList<>();
+        int size = emptySize;
+        for (Object key : keys) {
+            // The key and its separator
+            int keySize = size(encode(key)) + 1;
+            if (emptySize + keySize > bus.maxMessageBytes()) {
+                log.warn("Cannot publish the invalidation of {} {}, whose key is too long", name, key);
+                continue;
+            }
+            if (size + keySize > bus.maxMessageBytes()) {
+                bus.send(encode(new Invalidation(node, kind, name, chunk)));
+                chunk = new ArrayList<>();
+                size = emptySize;
+            }
+            chunk.add(key);
+            size += keySize;
+        }
+        if (!chunk.isEmpty()) {
+            bus.send(encode(new Invalidation(node, kind, name, chunk)));
+        }
+    }
+
+    /**
+     * Apply an invalidation received from the bus, unless this instance sent it.
+     *
+     * @param message the encoded invalidation.
+     */
+    void receive(String message) {
+        Invalidation invalidation;
+        try {
+            invalidation = objectMapper.readValue(message, Invalidation.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring the invalid cache invalidation {}: {}", message, e.getMessage());
+            return;
+        }
+        if (node.equals(invalidation.getNode())) {
+            return;
+        }
+        log.debug("Received cache invalidation {}", message);
+        apply(invalidation);
+        if (repeater != null && !properties.getRepeatAfter().isZero()) {
+            repeater.schedule(() -> apply(invalidation), properties.getRepeatAfter().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Clear all the caches of this instance, when invalidations may have been missed.
+     */
+    void clearAll() {
+        log.info("Clearing all the caches, as invalidations of other instances may have been missed");
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache().evictAllRegions();
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        serialNumberService.ifAvailable(SerialNumberService::invalidate);
+    }
+
+    private void apply(Invalidation invalidation) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        CacheImplementor cache = sessionFactory.getCache();
+        List<Object> keys = invalidation.getKeys();
+        switch (invalidation.getKind()) {
+            case ENTITY:
+                EntityPersister entityPersister = sessionFactory.getMetamodel().entityPersisters().get(invalidation.getName());
+                if (entityPersister == null) {
+                    log.warn("Ignoring the invalidation of the unknown entity {}", invalidation.getName());
+                } else if (keys == null) {
+                    cache.evictEntityData(invalidation.getName());
+                } else {
+                    Class<?> idType = entityPersister.getIdentifierType().getReturnedClass();
+                    keys.forEach(id -> cache.evictEntityData(invalidation.getName(), (Serializable) objectMapper.convertValue(id, idType)));
+                }
+                break;
+            case COLLECTION:
+                CollectionPersister collectionPersister = sessionFactory.getMetamodel().collectionPersisters().get(invalidation.getName());
+                if (collectionPersister == null) {
+                    log.warn("Ignoring the invalidation of the unknown collection {}", invalidation.getName());
+                } else if (keys == null) {
+                    cache.evictCollectionData(invalidation.getName());
+                } else {
+                    Class<?> idType = collectionPersister.getOwnerEntityPersister().getIdentifierType().getReturnedClass();
+                    keys.forEach(id ->
+                        cache.evictCollectionData(invalidation.getName(), (Serializable) objectMapper.convertValue(id, idType))
+                    );
+                }
+                break;
+            case CACHE:
+                org.springframework.cache.Cache springCache = cacheManager.getCache(invalidation.getName());
+                if (springCache == null) {
+                    log.warn("Ignoring the invalidation of the unknown cache {}", invalidation.getName());
+                } else if (keys == null) {
+                    springCache.clear();
+                } else {
+                    keys.forEach(springCache::evict);
+                }
+                break;
+            case QUERY_SPACE:
+                if (sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled() && keys != null) {
+                    String[] spaces = keys.stream().map(String::valueOf).toArray(String[]::new);
+                    try (Session session = sessionFactory.openSession()) {
+                        cache.getTimestampsCache().invalidate(spaces, (SharedSessionContractImplementor) session);
+                    }
+                }
+                break;
+            case SERIAL_NUMBER:
+                if (keys != null) {
+                    serialNumberService.ifAvailable(service -> service.receive(keys));
+                }
+                break;
+        }
+    }
+
+    private String encode(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot encode the cache invalidation " + value, e);
+        }
+    }
+
+    /**
+     * @return the size of an encoded value on the bus, in UTF-8 bytes.
+     */
+    private static int size(String encoded) {
+        return encoded.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * An invalidation sent between the instances.
+     */
+    public static class Invalidation {
+
+        private String node;
+
+        private Kind kind;
+
+        private String name;
+
+        private List<Object> keys;
+
+        public Invalidation() {}
+
+        Invalidation(String node, Kind kind, String name, List<Object> keys) {
+            this.node = node;
+            this.kind = kind;
+            this.name = name;
+            this.keys = keys;
+        }
+
+        public String getNode() {
+            return node;
+        }
+
+        public void setNode(String node) {
+            this.node = node;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public void setKind(Kind kind) {
+            this.kind = kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<Object> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(List<Object> keys) {
+            this.keys = keys;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package de.intagau.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.intagau.config.ApplicationProperties;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service filling the second level caches at startup, so that the first requests after a deployment do not all
+ * go to the database.
+ * <p>
+ * The warm-up runs with the application runners, which Spring Boot calls before the application reports ready
+ * to the readiness probe. Each configured region is reloaded either from the ids of its entries cached at the
+ * last shutdown, which the eviction of the caches restricts to the recently used ones, or entirely for small
+ * tables. The entities are loaded by batches of ids, several queries in parallel, and put in the caches by
+ * Hibernate as they are read.
+ */
+@Service
+public class CacheWarmUpService implements ApplicationRunner {
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Cache.WarmUp properties;
+
+    public CacheWarmUpService(
+        EntityManagerFactory entityManagerFactory,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getCache().getWarmUp();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.isEnabled()) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Load the configured regions into the second level caches, waiting at most for the configured timeout.
+     * Failures are logged, as the application works without the warm-up.
+     */
+    public void warmUp() {
+        List<Region> regions = cachedRegions();
+        if (regions.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, List<Object>> snapshot = readSnapshot();
+        AtomicLong loaded = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(
+            properties.getParallelism(),
+            new CustomizableThreadFactory("cache-warm-up-")
+        );
+        try {
+            for (Region region : regions) {
+                List<Object> ids = region.mode == ApplicationProperties.Cache.WarmUp.Mode.ALL
+                    ? allIds(region)
+                    : snapshotIds(region, snapshot.getOrDefault(region.name, Collections.emptyList()));
+                for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+                    List<Object> batch = ids.subList(from, Math.min(from + properties.getBatchSize(), ids.size()));
+                    executor.execute(() -> loaded.addAndGet(load(region, batch)));
+                }
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Cache warm-up not done after {}, going on without it", properties.getTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed: {}", e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Warmed up {} entries of {} cache regions in {} ms", loaded.get(), regions.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Save the ids of the entries cached in the regions warmed up from their recent entries.
+     */
+    @PreDestroy
+    public void saveSnapshot() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Map<String, List<Object>> snapshot = new LinkedHashMap<>();
+        for (Region region : cachedRegions()) {
+            Cache<Object, Object> cache = cacheManager.isClosed() ? null : cacheManager.getCache(region.regionName);
+            if (region.mode == ApplicationProperties.Cache.WarmUp.Mode.RECENT && cache != null) {
+                List<Object> ids = new ArrayList<>();
+                for (Cache.Entry<Object, Object> entry : cache) {
+                    if (ids.size() == properties.getMaxEntries()) {
+                        break;
+                    }
+                    ids.add(region.cacheKeyId.apply(entry.getKey()));
+                }
+                snapshot.put(region.name, ids);
+            }
+        }
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        File file = new File(properties.getSnapshotFile());
+        try {
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            objectMapper.writeValue(file, snapshot);
+            log.debug("Saved the cached ids of {} regions to {}", snapshot.size(), file);
+        } catch (IOException e) {
+            log.warn("Could not save the cached ids to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private List<Region> cachedRegions() {
+        MetamodelImplementor metamodel = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMetamodel();
+        List<Region> regions = new ArrayList<>();
+        properties
+            .getRegions()
+            .forEach((name, mode) -> {
+                EntityPersister entityPersister = metamodel.entityPersisters().get(name);
+                CollectionPersister collectionPersister = metamodel.collectionPersisters().get(name);
+                if (entityPersister != null) {
+                    if (entityPersister.hasCache()) {
+                        regions.add(
+                            new Region(
+                                name,
+                                mode,
+                                entityPersister,
+                                null,
+                                entityPersister.getCacheAccessStrategy().getRegion().getName(),
+                                entityPersister.getCacheAccessStrategy()::getCacheKeyId
+                            )
+                        );
+                    }
+                } else if (collectionPersister != null) {
+                    if (collectionPersister.hasCache()) {
+                        EntityPersister owner = collectionPersister.getOwnerEntityPersister();
+                        regions.add(
+                            new Region(
+                                name,
+                                mode,
+                                owner,
+                                name.substring(owner.getEntityName().length() + 1),
+                                collectionPersister.getCacheAccessStrategy().getRegion().getName(),
+                                collectionPersister.getCacheAccessStrategy()::getCacheKeyId
+                            )
+                        );
+                    }
+                } else {
+                    log.warn("Cannot warm up {}, which is neither an entity nor a collection", name);
+                }
+            });
+        return regions;
+    }
+
+    private Map<String, List<Object>> readSnapshot() {
+        File file = new File(properties.getSnapshotFile());
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(file, new TypeReference<Map<String, List<Object>>>() {});
+        } catch (IOException e) {
+            log.warn("Could not read the cached ids from {}: {}", file, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private List<Object> snapshotIds(Region region, List<Object> ids) {
+        return ids
+            .stream()
+            .limit(properties.getMaxEntries())
+            .map(id -> objectMapper.convertValue(id, region.idType))
+            .collect(Collectors.toList());
+    }
+
+    private List<Object> allIds(Region region) {
+        return transactionTemplate.execute(status ->
+            entityManager
+                .createQuery("select e." + region.idName + " from " + region.entityName + " e order by e." + region.idName, Object.class)
+                .setMaxResults(properties.getMaxEntries())
+                .getResultList()
+        );
+    }
+
+    private int load(Region region, List<Object> ids) {
+        try {
+            List<?> entities = transactionTemplate.execute(status ->
+                entityManager
+                    .createQuery(
+                        "select distinct e from " +
+                        region.entityName +
+                        " e" +
+                        (region.collection == null ? "" : " left join fetch e." + region.collection) +
+                        " where e." +
+                        region.idName +
+                        " in (:ids)"
+                    )
+                    .setParameter("ids", ids)
+                    .getResultList()
+            );
+            return entities == null ? 0 : entities.size();
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up {}: {}", region.name, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * A cache region to warm up, loaded through its entity, or the owner of its collection.
+     */
+    private static final class Region {
+
+        private final String name;
+
+        private final ApplicationProperties.Cache.WarmUp.Mode mode;
+
+        private final String entityName;
+
+        private final String idName;
+
+        private final Class<?> idType;
+
+        private final String collection;
+
+        private final String regionName;
+
+        private final Function<Object, Object> cacheKeyId;
+
+        private Region(
+            String name,
+            ApplicationProperties.Cache.WarmUp.Mode mode,
+            EntityPersister entityPersister,
+            String collection,
+            String regionName,
+            Function<Object, Object> cacheKeyId
+        ) {
+            this.name = name;
+            this.mode = mode;
+            this.entityName = entityPersister.getEntityName();
+            this.idName = entityPersister.getIdentifierPropertyName();
+            this.idType = entityPersister.getIdentifierType().getReturnedClass();
+            this.collection = collection;
+            this.regionName = regionName;
+            this.cacheKeyId = cacheKeyId;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package de.intagau.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service exporting whole tables as NDJSON or CSV.
+ * <p>
+ * Rows are read through a forward-only JDBC cursor and written to the output as they arrive, bypassing the
+ * persistence context, so the heap use does not depend on the size of the table. The read-only transaction
+ * is required for PostgreSQL to honour the fetch size instead of loading the whole result set.
+ */
+@Service
+public class InventoryExportService {
+
+    /**
+     * Number of rows fetched from the database per round trip, and written between two flushes of the output.
+     */
+    static final int FETCH_SIZE = 500;
+
+    /**
+     * The supported output formats.
+     */
+    public enum Format {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Optional<Format> fromExtension(String extension) {
+            return Arrays.stream(values()).filter(format -> format.extension.equalsIgnoreCase(extension)).findFirst();
+        }
+    }
+
+    /**
+     * The exportable entities, named after their REST resources.
+     */
+    public enum ExportedEntity {
+        PRODUCTS("products", "products", "id", "name", "url", "ean", "tags"),
+        STOCK_POSITIONS("stock-positions", "stock_position", "id", "amount", "serial_no", "inherit_id"),
+        STORAGES("storages", "storage", "id", "\"key\"", "storage_room_id"),
+        STORAGE_ROOMS("storage-rooms", "storage_room", "id", "name", "inherit_id", "products_id");
+
+        private final String resourceName;
+
+        private final String tableName;
+
+        private final String[] columns;
+
+        ExportedEntity(String resourceName, String tableName, String... columns) {
+            this.resourceName = resourceName;
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        public String getResourceName() {
+            return resourceName;
+        }
+
+        public static Optional<ExportedEntity> fromResourceName(String resourceName) {
+            return Arrays.stream(values()).filter(entity -> entity.resourceName.equals(resourceName)).findFirst();
+        }
+
+        String[] getFieldNames() {
+            return Arrays.stream(columns).map(ExportedEntity::toFieldName).toArray(String[]::new);
+        }
+
+        String getSelectStatement() {
+            return "select " + String.join(", ", columns) + " from " + tableName + " order by id";
+        }
+
+        /**
+         * @return the camel-cased field name of a column, which may be quoted when a reserved word.
+         */
+        private static String toFieldName(String column) {
+            StringBuilder fieldName = new StringBuilder(column.length());
+            boolean upper = false;
+            for (char c : column.toCharArray()) {
+                if (c == '_') {
+                    upper = true;
+                } else if (c != '"') {
+                    fieldName.append(upper ? Character.toUpperCase(c) : c);
+                    upper = false;
+                }
+            }
+            return fieldName.toString();
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(InventoryExportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    public InventoryExportService(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write all the rows of an entity to the given stream. The stream is flushed but not closed.
+     *
+     * @param entity the entity to export.
+     * @param format the output format.
+     * @param out the stream to write to.
+     * @return the number of exported rows.
+     * @throws IOException if the output could not be written.
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportedEntity entity, Format format, OutputStream out) throws IOException {
+        log.debug("Request to export {} as {}", entity, format);
+        String[] fieldNames = entity.getFieldNames();
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(out, fieldNames) : new NdjsonRowWriter(out, fieldNames);
+        try {
+            jdbcTemplate.query(entity.getSelectStatement(), rowWriter);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.flush();
+        log.debug("Exported {} rows of {}", rowWriter.count, entity);
+        return rowWriter.count;
+    }
+
+    private abstract static class RowWriter implements RowCallbackHandler {
+
+        final String[] fieldNames;
+
+        long count;
+
+        RowWriter(String[] fieldNames) {
+            this.fieldNames = fieldNames;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                write(rs);
+                if (++count % FETCH_SIZE == 0) {
+                    flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        abstract void flush() throws IOException;
+    }
+
+    private class NdjsonRowWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out, String[] fieldNames) throws IOException {
+            super(fieldNames);
+            this.generator = objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < fieldNames.length; i++) {
+                generator.writeObjectField(fieldNames[i], rs.getObject(i + 1));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out, String[] fieldNames) throws IOException {
+            super(fieldNames);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", fieldNames));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < fieldNames.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i + 1);
+                if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,573 @@
+package de.intagau.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.intagau.domain.Products;
+import de.intagau.domain.StockMovement;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.enumeration.StockMovementType;
+import de.intagau.repository.ProductsRepository;
+import de.intagau.service.StockSummaryService.StockDelta;
+import de.intagau.service.dto.ImportReportDTO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing large volumes of entities from CSV or NDJSON uploads.
+ * <p>
+ * CSV files use the layout of the Liquibase fake data: a header row with the column names and {@code ;} as separator.
+ * NDJSON files contain one object per line with the field names of the REST API. Any {@code id} is ignored:
+ * identifiers are allocated by the Hibernate generator of the entity, so they stay consistent with the ids
+ * handed out by JPA.
+ * <p>
+ * The input is read as a stream and written with JDBC batches of {@link #BATCH_SIZE} rows, each in its own
+ * transaction. A batch rejected by the database is replayed row by row so that only the faulty rows are lost.
+ */
+@Service
+public class InventoryImportService {
+
+    static final int BATCH_SIZE = 1000;
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final char CSV_SEPARATOR = ';';
+
+    /**
+     * The supported input formats.
+     */
+    public enum Format {
+        CSV,
+        NDJSON,
+    }
+
+    private enum ColumnType {
+        STRING,
+        INTEGER,
+        LONG,
+    }
+
+    private static final class Column {
+
+        private final String name;
+
+        private final String fieldName;
+
+        private final ColumnType type;
+
+        private final boolean required;
+
+        private Column(String name, String fieldName, ColumnType type, boolean required) {
+            this.name = name;
+            this.fieldName = fieldName;
+            this.type = type;
+            this.required = required;
+        }
+    }
+
+    /**
+     * The importable entities, named after their REST resources.
+     */
+    public enum ImportedEntity {
+        PRODUCTS(
+            "products",
+            Products.class,
+            "products",
+            new Column("name", "name", ColumnType.STRING, true),
+            new Column("url", "url", ColumnType.STRING, false),
+            new Column("ean", "ean", ColumnType.STRING, false),
+            new Column("tags", "tags", ColumnType.STRING, false)
+        ),
+        STOCK_POSITIONS(
+            "stock-positions",
+            StockPosition.class,
+            "stock_position",
+            new Column("amount", "amount", ColumnType.INTEGER, false),
+            new Column("serial_no", "serialNo", ColumnType.STRING, false),
+            new Column("inherit_id", "inheritId", ColumnType.LONG, true)
+        );
+
+        private final String resourceName;
+
+        private final Class<?> entityClass;
+
+        private final String tableName;
+
+        private final Column[] columns;
+
+        ImportedEntity(String resourceName, Class<?> entityClass, String tableName, Column... columns) {
+            this.resourceName = resourceName;
+            this.entityClass = entityClass;
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        public String getResourceName() {
+            return resourceName;
+        }
+
+        public static Optional<ImportedEntity> fromResourceName(String resourceName) {
+            return Arrays.stream(values()).filter(entity -> entity.resourceName.equals(resourceName)).findFirst();
+        }
+
+        private String getInsertStatement() {
+            StringBuilder sql = new StringBuilder("insert into ").append(tableName).append(" (id");
+            for (Column column : columns) {
+                sql.append(", ").append(column.name);
+            }
+            sql.append(") values (?");
+            sql.append(", ?".repeat(columns.length));
+            return sql.append(')').toString();
+        }
+
+        private Optional<Column> findColumn(String name) {
+            return Arrays.stream(columns).filter(column -> column.name.equals(name) || column.fieldName.equals(name)).findFirst();
+        }
+
+        /**
+         * @return the index of a column in the values of a row, which start with the id.
+         */
+        private int valueIndex(String name) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].name.equals(name)) {
+                    return i + 1;
+                }
+            }
+            throw new IllegalStateException("No column " + name + " in " + resourceName);
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(InventoryImportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final StockSummaryService stockSummaryService;
+
+    private final StockLedgerService stockLedgerService;
+
+    private final ProductTagService productTagService;
+
+    private final CacheManager cacheManager;
+
+    private final SuggestionService suggestionService;
+
+    private final SerialNumberService serialNumberService;
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    public InventoryImportService(
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager,
+        EntityManager entityManager,
+        ObjectMapper objectMapper,
+        StockSummaryService stockSummaryService,
+        StockLedgerService stockLedgerService,
+        ProductTagService productTagService,
+        CacheManager cacheManager,
+        SuggestionService suggestionService,
+        SerialNumberService serialNumberService,
+        CacheInvalidationService cacheInvalidationService
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.stockSummaryService = stockSummaryService;
+        this.stockLedgerService = stockLedgerService;
+        this.productTagService = productTagService;
+        this.cacheManager = cacheManager;
+        this.suggestionService = suggestionService;
+        this.serialNumberService = serialNumberService;
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    /**
+     * Import all the rows of the given stream. Rows are committed by batches, so a failure halfway keeps the
+     * batches already written.
+     *
+     * @param entity the entity to import.
+     * @param format the input format.
+     * @param in the uploaded content, read until its end but not closed.
+     * @return the import report.
+     * @throws IOException if the input could not be read.
+     * @throws IllegalArgumentException if the CSV header names an unknown column.
+     */
+    public ImportReportDTO importRows(ImportedEntity entity, Format format, InputStream in) throws IOException {
+        log.debug("Request to import {} from {}", entity, format);
+        long start = System.currentTimeMillis();
+        ImportReportDTO report = new ImportReportDTO(entity.getResourceName());
+        RowReader reader = format == Format.CSV ? new CsvRowReader(entity, in) : new NdjsonRowReader(in);
+        Batch batch = new Batch(entity, report);
+        try {
+            Map<String, Object> row;
+            while ((row = reader.next(report)) != null) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                Object[] values = toValues(entity, row, reader.line(), report);
+                if (values != null) {
+                    batch.add(reader.line(), values);
+                    if (batch.size() == BATCH_SIZE) {
+                        batch.flush();
+                        log.info(
+                            "Importing {}: {} rows read, {} imported",
+                            entity.getResourceName(),
+                            report.getRowsRead(),
+                            report.getRowsImported()
+                        );
+                    }
+                }
+            }
+            batch.flush();
+        } finally {
+            entityManager.getEntityManagerFactory().getCache().evict(entity.entityClass);
+            transactionTemplate.executeWithoutResult(status -> invalidateCachedQueries(entity));
+            cacheInvalidationService.publish(CacheInvalidationService.Kind.ENTITY, entity.entityClass.getName(), null);
+            cacheInvalidationService.publish(CacheInvalidationService.Kind.QUERY_SPACE, null, List.of(entity.tableName));
+            if (entity == ImportedEntity.PRODUCTS) {
+                // Unknown EANs are cached too, and may just have been imported
+                Objects.requireNonNull(cacheManager.getCache(ProductsRepository.PRODUCTS_BY_EAN_CACHE)).clear();
+                cacheInvalidationService.publish(CacheInvalidationService.Kind.CACHE, ProductsRepository.PRODUCTS_BY_EAN_CACHE, null);
+                suggestionService.invalidate(SuggestionService.SuggestedEntity.PRODUCTS);
+            }
+        }
+        report.setDurationMillis(System.currentTimeMillis() - start);
+        log.info("Imported {}: {}", entity.getResourceName(), report);
+        return report;
+    }
+
+    /**
+     * Invalidate the cached query results read from the table of the entity, as Hibernate does for the tables it
+     * writes itself: the queries on the other tables stay cached.
+     */
+    private void invalidateCachedQueries(ImportedEntity entity) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        if (session.getFactory().getSessionFactoryOptions().isQueryCacheEnabled()) {
+            session.getFactory().getCache().getTimestampsCache().invalidate(new String[] { entity.tableName }, session);
+        }
+    }
+
+    private Object[] toValues(ImportedEntity entity, Map<String, Object> row, long line, ImportReportDTO report) {
+        Object[] values = new Object[entity.columns.length + 1];
+        for (Map.Entry<String, Object> field : row.entrySet()) {
+            if (!"id".equals(field.getKey()) && entity.findColumn(field.getKey()).isEmpty()) {
+                reject(report, line, "Unknown field '" + field.getKey() + "'");
+                return null;
+            }
+        }
+        for (int i = 0; i < entity.columns.length; i++) {
+            Column column = entity.columns[i];
+            Object raw = row.containsKey(column.name) ? row.get(column.name) : row.get(column.fieldName);
+            String text = raw == null ? null : raw.toString().trim();
+            if (text == null || text.isEmpty()) {
+                if (column.required) {
+                    reject(report, line, "Missing required field '" + column.fieldName + "'");
+                    return null;
+                }
+                continue;
+            }
+            try {
+                switch (column.type) {
+                    case INTEGER:
+                        values[i + 1] = Integer.valueOf(text);
+                        break;
+                    case LONG:
+                        values[i + 1] = Long.valueOf(text);
+                        break;
+                    default:
+                        values[i + 1] = text;
+                }
+            } catch (NumberFormatException e) {
+                reject(report, line, "Invalid number '" + text + "' for field '" + column.fieldName + "'");
+                return null;
+            }
+        }
+        return values;
+    }
+
+    private static void reject(ImportReportDTO report, long line, String message) {
+        report.setRowsRejected(report.getRowsRejected() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ImportReportDTO.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    /**
+     * Rows waiting to be written, with the line they were read from.
+     */
+    private class Batch {
+
+        private final ImportedEntity entity;
+
+        private final ImportReportDTO report;
+
+        private final String insertStatement;
+
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        private final List<Long> lines = new ArrayList<>(BATCH_SIZE);
+
+        Batch(ImportedEntity entity, ImportReportDTO report) {
+            this.entity = entity;
+            this.report = report;
+            this.insertStatement = entity.getInsertStatement();
+        }
+
+        void add(long line, Object[] values) {
+            rows.add(values);
+            lines.add(line);
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(rows));
+                report.setRowsImported(report.getRowsImported() + rows.size());
+            } catch (DataAccessException batchFailure) {
+                log.debug("Batch of {} rejected, retrying row by row: {}", entity.getResourceName(), batchFailure.getMessage());
+                for (int i = 0; i < rows.size(); i++) {
+                    List<Object[]> single = Collections.singletonList(rows.get(i));
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> insert(single));
+                        report.setRowsImported(report.getRowsImported() + 1);
+                    } catch (DataAccessException rowFailure) {
+                        reject(report, lines.get(i), rowFailure.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            rows.clear();
+            lines.clear();
+        }
+
+        private void insert(List<Object[]> batch) {
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entity.entityClass);
+            for (Object[] values : batch) {
+                Serializable id = persister.getIdentifierGenerator().generate(session, null);
+                values[0] = id;
+            }
+            jdbcTemplate.batchUpdate(insertStatement, batch);
+            if (entity == ImportedEntity.STOCK_POSITIONS) {
+                // The rows bypass Hibernate, so its listener does not see them
+                stockLedgerService.append(stockMovements(batch));
+                stockSummaryService.addToStorages(stockDeltas(batch));
+                serialNumberService.record(serialNumbers(batch));
+            } else if (entity == ImportedEntity.PRODUCTS) {
+                productTagService.reindex(productTags(batch));
+            }
+        }
+
+        private Map<Long, String> productTags(List<Object[]> batch) {
+            int tagsIndex = entity.valueIndex("tags");
+            Map<Long, String> tags = new HashMap<>();
+            for (Object[] values : batch) {
+                if (values[tagsIndex] != null) {
+                    tags.put((Long) values[0], (String) values[tagsIndex]);
+                }
+            }
+            return tags;
+        }
+
+        private List<String> serialNumbers(List<Object[]> batch) {
+            int serialNoIndex = entity.valueIndex("serial_no");
+            List<String> serialNumbers = new ArrayList<>(batch.size());
+            for (Object[] values : batch) {
+                serialNumbers.add((String) values[serialNoIndex]);
+            }
+            return serialNumbers;
+        }
+
+        private List<StockMovement> stockMovements(List<Object[]> batch) {
+            int amountIndex = entity.valueIndex("amount");
+            List<StockMovement> movements = new ArrayList<>(batch.size());
+            for (Object[] values : batch) {
+                Integer amount = (Integer) values[amountIndex];
+                movements.add(
+                    new StockMovement()
+                        .stockPositionId((Long) values[0])
+                        .type(StockMovementType.IMPORTED)
+                        .delta(amount == null ? 0 : amount)
+                );
+            }
+            return movements;
+        }
+
+        private Map<Long, StockDelta> stockDeltas(List<Object[]> batch) {
+            int amountIndex = entity.valueIndex("amount");
+            int storageIndex = entity.valueIndex("inherit_id");
+            Map<Long, StockDelta> deltas = new HashMap<>();
+            for (Object[] values : batch) {
+                Integer amount = (Integer) values[amountIndex];
+                deltas.computeIfAbsent((Long) values[storageIndex], id -> new StockDelta()).add(amount == null ? 0 : amount, 1);
+            }
+            return deltas;
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * @return the next row keyed by field or column name, or {@code null} at the end of the input.
+         */
+        Map<String, Object> next(ImportReportDTO report) throws IOException;
+
+        /**
+         * @return the line the last returned row starts on.
+         */
+        long line();
+    }
+
+    /**
+     * Reads {@code ;} separated values, with {@code "} quoting as written by Liquibase and spreadsheets.
+     */
+    private static class CsvRowReader implements RowReader {
+
+        private final Reader reader;
+
+        private final String[] header;
+
+        private long nextLine = 1;
+
+        private long line;
+
+        CsvRowReader(ImportedEntity entity, InputStream in) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            List<String> fields = readRecord();
+            this.header = fields == null ? new String[0] : fields.stream().map(String::trim).toArray(String[]::new);
+            for (String name : header) {
+                if (!"id".equals(name) && entity.findColumn(name).isEmpty()) {
+                    throw new IllegalArgumentException("Unknown column '" + name + "'");
+                }
+            }
+        }
+
+        @Override
+        public Map<String, Object> next(ImportReportDTO report) throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            Map<String, Object> row = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(i < header.length ? header[i] : "#" + (i + 1), fields.get(i));
+            }
+            return row;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        private List<String> readRecord() throws IOException {
+            line = nextLine;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            for (; c != -1; c = reader.read()) {
+                if (c == '\n') {
+                    nextLine++;
+                }
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == CSV_SEPARATOR) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * Reads one JSON object per line. A malformed line ends the import, since the parser cannot resynchronize.
+     */
+    private class NdjsonRowReader implements RowReader {
+
+        private final MappingIterator<Map<String, Object>> iterator;
+
+        private long line;
+
+        NdjsonRowReader(InputStream in) throws IOException {
+            this.iterator = objectMapper.readerFor(Map.class).readValues(in);
+        }
+
+        @Override
+        public Map<String, Object> next(ImportReportDTO report) {
+            try {
+                if (!iterator.hasNextValue()) {
+                    return null;
+                }
+                line = iterator.getCurrentLocation().getLineNr();
+                return iterator.nextValue();
+            } catch (IOException e) {
+                reject(report, iterator.getCurrentLocation().getLineNr(), "Malformed JSON, import stopped: " + e.getMessage());
+                return null;
+            }
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+}
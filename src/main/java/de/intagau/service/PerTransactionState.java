@@ -0,0 +1,59 @@
+package de.intagau.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+
+/**
+ * The state a Hibernate listener collects in a session until its transaction completes.
+ * <p>
+ * The state is created on first use in a transaction, and dropped once the transaction completes. A state
+ * implementing {@link BeforeTransactionCompletionProcess} or {@link AfterTransactionCompletionProcess} is
+ * called when the transaction completes, after being dropped, so that a new transaction of the session starts
+ * afresh.
+ *
+ * @param <T> the type of the state.
+ */
+final class PerTransactionState<T> {
+
+    private final Map<SessionImplementor, T> states = new ConcurrentHashMap<>();
+
+    private final Supplier<T> factory;
+
+    PerTransactionState(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Get the state of the current transaction of a session, creating it if needed.
+     *
+     * @param session the session.
+     * @return the state.
+     */
+    T get(EventSource session) {
+        return states.computeIfAbsent(
+            session,
+            key -> {
+                T state = factory.get();
+                if (state instanceof BeforeTransactionCompletionProcess) {
+                    session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) state);
+                }
+                session
+                    .getActionQueue()
+                    .registerProcess(
+                        (AfterTransactionCompletionProcess) (success, completed) -> {
+                            states.remove(key);
+                            if (state instanceof AfterTransactionCompletionProcess) {
+                                ((AfterTransactionCompletionProcess) state).doAfterTransactionCompletion(success, completed);
+                            }
+                        }
+                    );
+                return state;
+            }
+        );
+    }
+}
@@ -0,0 +1,274 @@
+package de.intagau.service;
+
+import de.intagau.config.ApplicationProperties;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link CacheInvalidationBus} over a PostgreSQL notification channel, shared by all the instances using the
+ * same database.
+ * <p>
+ * Messages are sent with {@code pg_notify} by a sender thread, so that the request threads never wait for it,
+ * each in its own transaction, so that a failing message does not take the others with it. After a failed send,
+ * a marker is sent until it gets through, telling the other instances that messages may have been missed. A
+ * listener thread keeps its own connection, outside of the pool, listening to the channel. PostgreSQL only
+ * delivers the notifications to the connected listeners: after a connection loss, the receivers are also told that
+ * messages may have been missed.
+ * <p>
+ * The PostgreSQL driver is only on the classpath of the {@code prod} profile, so its notification API is called
+ * through reflection.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.cache.cluster", name = "enabled", havingValue = "true")
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus {
+
+    /**
+     * PostgreSQL rejects payloads of 8000 bytes and more.
+     */
+    private static final int MAX_MESSAGE_BYTES = 7999;
+
+    private static final int MAX_MESSAGES_PER_CONNECTION = 100;
+
+    /**
+     * Prefix of the markers telling that messages were lost, which cannot be mistaken for the JSON messages.
+     */
+    private static final String LOST_MESSAGES_PREFIX = "lost-messages:";
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+
+    private final DataSource dataSource;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final ApplicationProperties.Cache.Cluster properties;
+
+    private final BlockingQueue<String> outbox = new LinkedBlockingQueue<>();
+
+    private final List<Consumer<String>> receivers = new ArrayList<>();
+
+    private final List<Runnable> lostMessagesHandlers = new ArrayList<>();
+
+    /**
+     * The marker sent by this instance, which it ignores as its own caches are up to date.
+     */
+    private final String lostMessagesMarker = LOST_MESSAGES_PREFIX + UUID.randomUUID();
+
+    private volatile boolean running;
+
+    private Thread sender;
+
+    private Thread listener;
+
+    public PostgresCacheInvalidationBus(
+        DataSource dataSource,
+        DataSourceProperties dataSourceProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.dataSource = dataSource;
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = applicationProperties.getCache().getCluster();
+        if (!CHANNEL_NAME.matcher(properties.getChannel()).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel name: " + properties.getChannel());
+        }
+    }
+
+    @Override
+    public void send(String message) {
+        int size = message.getBytes(StandardCharsets.UTF_8).length;
+        if (size > MAX_MESSAGE_BYTES) {
+            throw new IllegalArgumentException("Cache invalidation message too long: " + size + " bytes");
+        }
+        outbox.add(message);
+    }
+
+    @Override
+    public int maxMessageBytes() {
+        return MAX_MESSAGE_BYTES;
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<String> receiver, Runnable onMessagesLost) {
+        receivers.add(receiver);
+        lostMessagesHandlers.add(onMessagesLost);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        sender = new Thread(this::sendLoop, "cache-invalidation-sender");
+        sender.setDaemon(true);
+        sender.start();
+        listener = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("Sharing the cache invalidations on channel {}", properties.getChannel());
+    }
+
+    /**
+     * Stop listening, after sending the queued messages.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        listener.interrupt();
+        sender.join(properties.getPollTimeout().toMillis() * 2);
+        listener.join(properties.getPollTimeout().toMillis() * 2);
+    }
+
+    private void sendLoop() {
+        boolean lost = false;
+        while (running || !outbox.isEmpty()) {
+            List<String> messages = new ArrayList<>();
+            if (lost) {
+                messages.add(lostMessagesMarker);
+            }
+            try {
+                String first = outbox.poll(properties.getPollTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    messages.add(first);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!messages.isEmpty()) {
+                outbox.drainTo(messages, MAX_MESSAGES_PER_CONNECTION - messages.size());
+                lost = !sendAll(messages);
+            }
+        }
+    }
+
+    /**
+     * Send messages, each in its own transaction.
+     *
+     * @return whether all the messages were sent.
+     */
+    private boolean sendAll(List<String> messages) {
+        int failed = 0;
+        try (
+            Connection connection = dataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement("select pg_notify(?, ?)")
+        ) {
+            for (String message : messages) {
+                try {
+                    statement.setString(1, properties.getChannel());
+                    statement.setString(2, message);
+                    statement.execute();
+                    // Notifications are only delivered once committed
+                    if (!connection.getAutoCommit()) {
+                        connection.commit();
+                    }
+                } catch (SQLException e) {
+                    failed++;
+                    log.warn("Could not send a cache invalidation, other instances will clear their caches: {}", e.getMessage());
+                    if (!connection.getAutoCommit()) {
+                        connection.rollback();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn(
+                "Could not send {} cache invalidations, other instances will clear their caches: {}",
+                messages.size() - failed,
+                e.getMessage()
+            );
+            return false;
+        }
+        return failed == 0;
+    }
+
+    private void listenLoop() {
+        boolean reconnecting = false;
+        while (running) {
+            try (
+                Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword()
+                )
+            ) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                if (reconnecting) {
+                    log.info("Listening again to the cache invalidations");
+                    notifyMessagesLost();
+                }
+                listen(connection);
+            } catch (SQLException | ReflectiveOperationException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the cache invalidation channel, reconnecting in {}: {}", properties.getReconnectDelay(), e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(properties.getReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException, ReflectiveOperationException {
+        Class<?> pgConnectionClass = Class.forName("org.postgresql.PGConnection");
+        Object pgConnection = connection.unwrap(pgConnectionClass);
+        Method getNotifications = pgConnectionClass.getMethod("getNotifications", int.class);
+        Method getParameter = Class.forName("org.postgresql.PGNotification").getMethod("getParameter");
+        int timeout = Math.toIntExact(properties.getPollTimeout().toMillis());
+        while (running) {
+            Object[] notifications = (Object[]) getNotifications.invoke(pgConnection, timeout);
+            if (notifications != null) {
+                for (Object notification : notifications) {
+                    receive((String) getParameter.invoke(notification));
+                }
+            }
+        }
+    }
+
+    private synchronized void receive(String message) {
+        if (message.startsWith(LOST_MESSAGES_PREFIX)) {
+            if (!message.equals(lostMessagesMarker)) {
+                log.info("Another instance could not send cache invalidations");
+                notifyMessagesLost();
+            }
+            return;
+        }
+        for (Consumer<String> receiver : receivers) {
+            try {
+                receiver.accept(message);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply the cache invalidation {}: {}", message, e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void notifyMessagesLost() {
+        lostMessagesHandlers.forEach(Runnable::run);
+    }
+}
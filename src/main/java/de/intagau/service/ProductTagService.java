@@ -0,0 +1,153 @@
+package de.intagau.service;
+
+import de.intagau.domain.Products;
+import de.intagau.repository.ProductsRepository;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining and searching the tags of the {@link Products}, split out of their free-form tags column
+ * into the {@code product_tag} table.
+ * <p>
+ * The tags are separated by whitespace or commas and compared case-insensitively. The table is keyed by tag, so a
+ * search reads one index range per requested tag instead of scanning the products.
+ */
+@Service
+public class ProductTagService {
+
+    private static final Pattern TAG_SEPARATOR = Pattern.compile("[\\s,]+");
+
+    /**
+     * The longest indexed tag; longer words are left out of the index.
+     */
+    public static final int MAX_TAG_LENGTH = 255;
+
+    /**
+     * Maximum number of tags in a search.
+     */
+    public static final int MAX_SEARCH_TAGS = 32;
+
+    private static final String DELETE_TAGS = "delete from product_tag where products_id = ?";
+
+    private static final String INSERT_TAG = "insert into product_tag (tag, products_id) values (?, ?)";
+
+    /**
+     * How the tags of a search combine.
+     */
+    public enum MatchMode {
+        /**
+         * The products having every tag.
+         */
+        ALL,
+        /**
+         * The products having at least one of the tags.
+         */
+        ANY;
+
+        /**
+         * @param mode the mode, case-insensitive.
+         * @return the matching mode.
+         * @throws IllegalArgumentException if there is none.
+         */
+        public static MatchMode fromParameter(String mode) {
+            return Arrays
+                .stream(values())
+                .filter(value -> value.name().equalsIgnoreCase(mode))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown tag match mode '" + mode + "'"));
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(ProductTagService.class);
+
+    private final ProductsRepository productsRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductTagService(ProductsRepository productsRepository, DataSource dataSource) {
+        this.productsRepository = productsRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Split free-form tags into the normalized tags of the index.
+     *
+     * @param tags the tags, may be {@code null}.
+     * @return the distinct lower-case tags, sorted.
+     */
+    public static SortedSet<String> parseTags(String tags) {
+        SortedSet<String> parsed = new TreeSet<>();
+        if (tags != null) {
+            for (String tag : TAG_SEPARATOR.split(tags.toLowerCase(Locale.ROOT))) {
+                if (!tag.isEmpty() && tag.length() <= MAX_TAG_LENGTH) {
+                    parsed.add(tag);
+                }
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Replace the indexed tags of products, in the current transaction. The products are handled in ascending id
+     * order, so that concurrent writers cannot deadlock.
+     *
+     * @param tagsByProduct the free-form tags, by products id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reindex(Map<Long, String> tagsByProduct) {
+        if (tagsByProduct.isEmpty()) {
+            return;
+        }
+        log.debug("Request to index the tags of {} Products", tagsByProduct.size());
+        SortedMap<Long, String> sorted = new TreeMap<>(tagsByProduct);
+        jdbcTemplate.batchUpdate(DELETE_TAGS, sorted.keySet().stream().map(id -> new Object[] { id }).collect(Collectors.toList()));
+        List<Object[]> args = sorted
+            .entrySet()
+            .stream()
+            .flatMap(tags -> parseTags(tags.getValue()).stream().map(tag -> new Object[] { tag, tags.getKey() }))
+            .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_TAG, args);
+    }
+
+    /**
+     * Get the products having the given tags.
+     *
+     * @param tags the tags, normalized like the indexed ones.
+     * @param mode how the tags combine.
+     * @param pageable the pagination information.
+     * @return the matching products.
+     * @throws IllegalArgumentException if there is no tag, or more than {@link #MAX_SEARCH_TAGS}.
+     */
+    @Transactional(readOnly = true)
+    public Page<Products> findAllByTags(Collection<String> tags, MatchMode mode, Pageable pageable) {
+        log.debug("Request to get the Products with {} of the tags {}", mode, tags);
+        SortedSet<String> parsed = parseTags(String.join(",", tags));
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("At least one tag is required");
+        }
+        if (parsed.size() > MAX_SEARCH_TAGS) {
+            throw new IllegalArgumentException("At most " + MAX_SEARCH_TAGS + " tags can be searched at once");
+        }
+        return mode == MatchMode.ALL
+            ? productsRepository.findAllWithAllTags(parsed, parsed.size(), pageable)
+            : productsRepository.findAllWithAnyTag(parsed, pageable);
+    }
+}
@@ -0,0 +1,149 @@
+package de.intagau.service;
+
+import de.intagau.domain.Products;
+import de.intagau.repository.ProductsRepository;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate listener following the changes of {@link Products} made through JPA.
+ * <p>
+ * The products whose tags changed are handed to the {@link ProductTagService} once the session is flushed, just
+ * before the transaction commits; the tags of a deleted product are removed by the database, through the cascading
+ * foreign key.
+ * <p>
+ * The EANs of the changed products, old and new, are evicted from the {@link ProductsRepository#PRODUCTS_BY_EAN_CACHE}
+ * as the changes are flushed, and once more after the transaction completes so that a concurrent reader cannot
+ * cache the old state.
+ */
+@Component
+public class ProductsChangeEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ProductTagService productTagService;
+
+    private final transient CacheManager cacheManager;
+
+    private final transient CacheInvalidationService cacheInvalidationService;
+
+    private final transient PerTransactionState<PendingChanges> pendingChanges = new PerTransactionState<>(PendingChanges::new);
+
+    public ProductsChangeEventListener(
+        ProductTagService productTagService,
+        CacheManager cacheManager,
+        CacheInvalidationService cacheInvalidationService
+    ) {
+        this.productTagService = productTagService;
+        this.cacheManager = cacheManager;
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Products) {
+            Products products = (Products) event.getEntity();
+            PendingChanges pending = pendingChanges.get(event.getSession());
+            pending.tagsByProduct.put((Long) event.getId(), products.getTags());
+            pending.evict(products.getEan());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Products) {
+            Products products = (Products) event.getEntity();
+            Object[] oldState = event.getOldState();
+            PendingChanges pending = pendingChanges.get(event.getSession());
+            if (oldState == null || !Objects.equals(oldState[propertyIndex(event.getPersister(), "tags")], products.getTags())) {
+                pending.tagsByProduct.put((Long) event.getId(), products.getTags());
+            }
+            if (oldState != null) {
+                pending.evict((String) oldState[propertyIndex(event.getPersister(), "ean")]);
+            } else {
+                // Updated without a snapshot, the old EAN is unknown
+                pending.evictAll = true;
+            }
+            pending.evict(products.getEan());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Products) {
+            PendingChanges pending = pendingChanges.get(event.getSession());
+            pending.tagsByProduct.remove((Long) event.getId());
+            pending.evict((String) event.getDeletedState()[propertyIndex(event.getPersister(), "ean")]);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static int propertyIndex(EntityPersister persister, String propertyName) {
+        return persister.getEntityMetamodel().getPropertyIndex(propertyName);
+    }
+
+    /**
+     * The changes of products made in a session since its transaction began.
+     */
+    private class PendingChanges implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final Map<Long, String> tagsByProduct = new HashMap<>();
+
+        private final Set<String> eans = new HashSet<>();
+
+        private boolean evictAll;
+
+        void evict(String ean) {
+            if (ean != null && eans.add(ean)) {
+                productsByEanCache().evict(ean);
+            }
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            productTagService.reindex(tagsByProduct);
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            Cache cache = productsByEanCache();
+            if (evictAll) {
+                cache.clear();
+            } else {
+                eans.forEach(cache::evict);
+            }
+            if (success) {
+                cacheInvalidationService.publish(
+                    CacheInvalidationService.Kind.CACHE,
+                    ProductsRepository.PRODUCTS_BY_EAN_CACHE,
+                    evictAll ? null : eans
+                );
+            }
+        }
+
+        private Cache productsByEanCache() {
+            return Objects.requireNonNull(cacheManager.getCache(ProductsRepository.PRODUCTS_BY_EAN_CACHE));
+        }
+    }
+}
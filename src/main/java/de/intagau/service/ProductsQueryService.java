@@ -0,0 +1,158 @@
+package de.intagau.service;
+
+import de.intagau.domain.Products;
+import de.intagau.domain.Products_;
+import de.intagau.domain.StorageRoom_;
+import de.intagau.repository.ProductsRepository;
+import de.intagau.service.criteria.ProductsCriteria;
+import de.intagau.service.dto.KeysetCursor;
+import java.util.List;
+import javax.persistence.criteria.JoinType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Service for executing complex queries for {@link Products} entities in the database.
+ * The main input is a {@link ProductsCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link Products} or a {@link Page} of {@link Products} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductsQueryService extends QueryService<Products> {
+
+    /**
+     * Sort properties supported by {@link #findAllAfter(KeysetCursor, int)}; the id is always used as tie-breaker.
+     */
+    public static final String SORT_BY_ID = "id";
+
+    public static final String SORT_BY_NAME = "name";
+
+    private final Logger log = LoggerFactory.getLogger(ProductsQueryService.class);
+
+    private final ProductsRepository productsRepository;
+
+    public ProductsQueryService(ProductsRepository productsRepository) {
+        this.productsRepository = productsRepository;
+    }
+
+    /**
+     * Return a {@link List} of {@link Products} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<Products> findByCriteria(ProductsCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Products> specification = createSpecification(criteria);
+        return productsRepository.findAll(specification);
+    }
+
+    /**
+     * Return a {@link Page} of {@link Products} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Products> findByCriteria(ProductsCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<Products> specification = createSpecification(criteria);
+        return productsRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(ProductsCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Products> specification = createSpecification(criteria);
+        return productsRepository.count(specification);
+    }
+
+    /**
+     * Return the {@link Products} following the given cursor in keyset order.
+     * Unlike {@link #findByCriteria(ProductsCriteria, Pageable)} this neither skips rows with an offset nor counts
+     * the table, so every page costs the same whatever its position.
+     * @param cursor The position after which the entities should start.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Products> findAllAfter(KeysetCursor cursor, int size) {
+        log.debug("find after cursor : {}, size: {}", cursor, size);
+        // fetch one extra row to know whether there is a next slice
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Products> content;
+        if (SORT_BY_NAME.equals(cursor.getProperty())) {
+            content = cursor.isStart()
+                ? productsRepository.findAllByOrderByNameAscIdAsc(limit)
+                : productsRepository.findAllAfterName(cursor.getKey(), cursor.getId(), limit);
+        } else {
+            content = cursor.isStart()
+                ? productsRepository.findAllByOrderByIdAsc(limit)
+                : productsRepository.findAllAfterId(cursor.getId(), limit);
+        }
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Return the cursor pointing after the given entity, to continue a listing started with {@code cursor}.
+     * @param cursor The cursor the listing was started with.
+     * @param last The last entity of the current slice.
+     * @return the cursor for the next slice.
+     */
+    public KeysetCursor cursorAfter(KeysetCursor cursor, Products last) {
+        return new KeysetCursor(cursor.getProperty(), SORT_BY_NAME.equals(cursor.getProperty()) ? last.getName() : null, last.getId());
+    }
+
+    /**
+     * Function to convert {@link ProductsCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Products> createSpecification(ProductsCriteria criteria) {
+        Specification<Products> specification = Specification.where(null);
+        if (criteria != null) {
+            // This has to be called first, because the distinct method returns null
+            if (criteria.getDistinct() != null) {
+                specification = specification.and(distinct(criteria.getDistinct()));
+            }
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Products_.id));
+            }
+            if (criteria.getName() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getName(), Products_.name));
+            }
+            if (criteria.getUrl() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getUrl(), Products_.url));
+            }
+            if (criteria.getEan() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getEan(), Products_.ean));
+            }
+            if (criteria.getTags() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getTags(), Products_.tags));
+            }
+            if (criteria.getStoredId() != null) {
+                specification =
+                    specification.and(
+                        buildSpecification(criteria.getStoredId(), root -> root.join(Products_.storeds, JoinType.LEFT).get(StorageRoom_.id))
+                    );
+            }
+        }
+        return specification;
+    }
+}
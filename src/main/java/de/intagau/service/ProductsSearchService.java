@@ -0,0 +1,148 @@
+package de.intagau.service;
+
+import de.intagau.domain.Products;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the ranked full-text search of {@link Products} by name, tags and url.
+ * <p>
+ * On PostgreSQL the search reads the weighted {@code search_vector} of the products, matching the words of the
+ * query as prefixes, and the trigram index of the names, which tolerates typos; the results are ranked on both.
+ * Other databases, such as H2 in development, fall back to matching every word as a substring of one of the
+ * fields, ranking the names starting with the query first.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductsSearchService {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Maximum number of words of a query taken into account.
+     */
+    public static final int MAX_QUERY_WORDS = 10;
+
+    private static final String POSTGRESQL_WHERE =
+        " from products p where p.search_vector @@ to_tsquery('simple', :tsquery) or lower(p.name) % :text";
+
+    private static final String POSTGRESQL_ORDER =
+        " order by ts_rank(p.search_vector, to_tsquery('simple', :tsquery)) + similarity(lower(p.name), :text) desc, p.id";
+
+    private static final String SUBSTRING_MATCH = "(lower(p.name) like :w%1$d or lower(p.tags) like :w%1$d or lower(p.url) like :w%1$d)";
+
+    private static final String SUBSTRING_ORDER =
+        " order by case when lower(p.name) like :prefix then 0 when lower(p.name) like :contains then 1 else 2 end, p.name, p.id";
+
+    private final Logger log = LoggerFactory.getLogger(ProductsSearchService.class);
+
+    private final EntityManager entityManager;
+
+    private final boolean postgresql;
+
+    public ProductsSearchService(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManager;
+        this.postgresql =
+            entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+    }
+
+    /**
+     * Search the products matching a free-text query, best matches first.
+     *
+     * @param query the words to search, in any order.
+     * @param pageable the pagination information; the sort is ignored in favor of the ranking.
+     * @return the matching products, empty if the query has no word.
+     */
+    public Page<Products> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Products for query {}", query);
+        List<String> words = WORD_SEPARATOR
+            .splitAsStream(query.toLowerCase(Locale.ROOT))
+            .filter(word -> !word.isEmpty())
+            .limit(MAX_QUERY_WORDS)
+            .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        SearchQuery search = postgresql ? postgresqlSearch(words) : substringSearch(words);
+        Query select = search.bind(entityManager.createNativeQuery("select p.*" + search.where + search.order, Products.class));
+        select.setFirstResult((int) pageable.getOffset());
+        select.setMaxResults(pageable.getPageSize());
+        @SuppressWarnings("unchecked")
+        List<Products> content = select.getResultList();
+        return PageableExecutionUtils.getPage(
+            content,
+            pageable,
+            () -> ((Number) search.bind(entityManager.createNativeQuery("select count(*)" + search.where)).getSingleResult()).longValue()
+        );
+    }
+
+    private static SearchQuery postgresqlSearch(List<String> words) {
+        SearchQuery search = new SearchQuery(POSTGRESQL_WHERE, POSTGRESQL_ORDER);
+        search.parameters.put("tsquery", words.stream().map(word -> word + ":*").collect(Collectors.joining(" & ")));
+        search.parameters.put("text", String.join(" ", words));
+        return search;
+    }
+
+    private static SearchQuery substringSearch(List<String> words) {
+        List<String> matches = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            matches.add(String.format(SUBSTRING_MATCH, i));
+        }
+        SearchQuery search = new SearchQuery(" from products p where " + String.join(" and ", matches), SUBSTRING_ORDER);
+        for (int i = 0; i < words.size(); i++) {
+            search.parameters.put("w" + i, "%" + words.get(i) + "%");
+        }
+        String text = String.join(" ", words);
+        search.parameters.put("prefix", text + "%");
+        search.parameters.put("contains", "%" + text + "%");
+        return search;
+    }
+
+    /**
+     * The clauses of a search and the values of their named parameters. The words only hold letters and digits,
+     * so they cannot alter the syntax of the patterns they are bound into.
+     */
+    private static final class SearchQuery {
+
+        private final String where;
+
+        private final String order;
+
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        private SearchQuery(String where, String order) {
+            this.where = where;
+            this.order = order;
+        }
+
+        private Query bind(Query query) {
+            Set<String> names = query.getParameters().stream().map(Parameter::getName).collect(Collectors.toSet());
+            // The count query has no order clause, and thus fewer parameters
+            parameters.forEach((name, value) -> {
+                if (names.contains(name)) {
+                    query.setParameter(name, value);
+                }
+            });
+            return query;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package de.intagau.service;
+
+import de.intagau.config.ApplicationProperties;
+import de.intagau.domain.StockPosition;
+import de.intagau.repository.StockPositionRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service tracing the serial numbers of the {@link StockPosition}s.
+ * <p>
+ * Duplicates are detected through a Bloom filter of the known serial numbers, so that the common case of a new
+ * serial number is answered from memory; only the serial numbers the filter may know are checked in the database.
+ * The filter is loaded on first use and fed with the serial numbers written through JPA and the bulk import as they
+ * are flushed, and again once committed, as a load running meanwhile cannot see the uncommitted rows; so it never
+ * misses a committed serial number of this instance. In cluster mode, the committed serial numbers
+ * are also published on the {@link CacheInvalidationBus}, and fed to the filters of the other instances; the filter
+ * is loaded again when messages may have been lost. Rolled back and deleted serial numbers only cost a database
+ * check, until the filter is periodically rebuilt, sized for the current number of serial numbers; without the
+ * cluster mode, the rebuild is also what picks up the serial numbers written by other instances.
+ * <p>
+ * The check is not atomic with the write: two stock positions saved at the same time with the same serial number
+ * may both pass it.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SerialNumberService {
+
+    private static final String SELECT_SERIAL_NUMBERS = "select serial_no from stock_position where serial_no is not null";
+
+    private final Logger log = LoggerFactory.getLogger(SerialNumberService.class);
+
+    private final StockPositionRepository stockPositionRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    /**
+     * Guards the loads.
+     */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile BloomFilter filter;
+
+    private volatile BloomFilter loadingFilter;
+
+    public SerialNumberService(
+        StockPositionRepository stockPositionRepository,
+        DataSource dataSource,
+        ApplicationProperties applicationProperties,
+        CacheInvalidationService cacheInvalidationService
+    ) {
+        this.stockPositionRepository = stockPositionRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.applicationProperties = applicationProperties;
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    /**
+     * Check whether a serial number is already used by a stock position.
+     *
+     * @param serialNo the serial number.
+     * @return whether a stock position has this serial number.
+     */
+    public boolean exists(String serialNo) {
+        return exists(serialNo, null);
+    }
+
+    /**
+     * Check whether a serial number is already used by another stock position than the given one.
+     *
+     * @param serialNo the serial number.
+     * @param id the id of the stock position to ignore, {@code null} for none.
+     * @return whether another stock position has this serial number.
+     */
+    public boolean exists(String serialNo, Long id) {
+        if (!filter().mightContain(serialNo)) {
+            return false;
+        }
+        log.debug("Serial number {} may be known, checking the database", serialNo);
+        return id == null
+            ? stockPositionRepository.existsBySerialNo(serialNo)
+            : stockPositionRepository.existsBySerialNoAndIdNot(serialNo, id);
+    }
+
+    /**
+     * Get the stock positions with a serial number.
+     *
+     * @param serialNo the serial number.
+     * @return the stock positions, usually one.
+     */
+    public List<StockPosition> findAllBySerialNo(String serialNo) {
+        log.debug("Request to get the StockPositions with serial number : {}", serialNo);
+        return stockPositionRepository.findAllBySerialNoOrderByIdAsc(serialNo);
+    }
+
+    /**
+     * Record serial numbers written to the database, again once committed, and publish them to the other instances.
+     *
+     * @param serialNos the serial numbers, {@code null} ones are ignored.
+     */
+    public void record(Collection<String> serialNos) {
+        List<String> written = serialNos.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        put(written);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        put(written);
+                    }
+                }
+            );
+        }
+        cacheInvalidationService.publishAfterCommit(CacheInvalidationService.Kind.SERIAL_NUMBER, null, written);
+    }
+
+    /**
+     * Record serial numbers written by another instance.
+     *
+     * @param serialNos the serial numbers.
+     */
+    void receive(Collection<?> serialNos) {
+        put(serialNos.stream().map(String::valueOf).collect(Collectors.toList()));
+    }
+
+    /**
+     * Drop the filter, when serial numbers written by other instances may have been missed; it is loaded again on
+     * next use.
+     */
+    void invalidate() {
+        loadLock.lock();
+        try {
+            filter = null;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuild the filter from the database, dropping the serial numbers that are no longer used.
+     */
+    @Scheduled(cron = "${application.serial-number.rebuild-cron:0 30 3 * * ?}")
+    public void rebuild() {
+        loadLock.lock();
+        try {
+            if (filter != null) {
+                load();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void put(Collection<String> serialNos) {
+        BloomFilter loading = loadingFilter;
+        BloomFilter current = filter;
+        for (String serialNo : serialNos) {
+            if (loading != null) {
+                loading.put(serialNo);
+            }
+            if (current != null) {
+                current.put(serialNo);
+            }
+        }
+    }
+
+    private BloomFilter filter() {
+        BloomFilter current = filter;
+        if (current == null || current.isOverfilled()) {
+            loadLock.lock();
+            try {
+                current = filter;
+                if (current == null || current.isOverfilled()) {
+                    current = load();
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Load the filter and make it the current one.
+     */
+    private BloomFilter load() {
+        long start = System.currentTimeMillis();
+        ApplicationProperties.SerialNumber properties = applicationProperties.getSerialNumber();
+        Long count = jdbcTemplate.queryForObject("select count(*) from stock_position where serial_no is not null", Long.class);
+        BloomFilter loading = new BloomFilter(
+            Math.max(properties.getExpectedInsertions(), 2 * (count == null ? 0 : count)),
+            properties.getFalsePositiveProbability()
+        );
+        // Receives the serial numbers written while loading, which the query may or may not see
+        loadingFilter = loading;
+        try {
+            jdbcTemplate.query(SELECT_SERIAL_NUMBERS, (RowCallbackHandler) rs -> loading.put(rs.getString(1)));
+            // Published before it stops receiving the written serial numbers, so that none falls in between
+            filter = loading;
+        } finally {
+            loadingFilter = null;
+        }
+        log.info("Loaded {} serial numbers in {} ms", loading.size(), System.currentTimeMillis() - start);
+        return loading;
+    }
+
+    /**
+     * A thread-safe Bloom filter of strings, using double hashing of a 64-bit hash.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        private final long capacity;
+
+        private final AtomicLong size = new AtomicLong();
+
+        BloomFilter(long capacity, double falsePositiveProbability) {
+            this.capacity = Math.max(1, capacity);
+            long optimalBits = (long) Math.ceil(-this.capacity * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray(Math.toIntExact(Math.max(1, (optimalBits + 63) / 64)));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * Math.log(2)));
+        }
+
+        /**
+         * Add a value, counted unless the filter already knew it, such as a serial number received twice.
+         */
+        void put(String value) {
+            long hash = hash(value);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            boolean added = false;
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(first + i * second);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = bits.get(word);
+                while ((current & mask) == 0) {
+                    if (bits.compareAndSet(word, current, current | mask)) {
+                        added = true;
+                        break;
+                    }
+                    current = bits.get(word);
+                }
+            }
+            if (added) {
+                size.incrementAndGet();
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(first + i * second);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long size() {
+            return size.get();
+        }
+
+        /**
+         * @return whether more values were put than the filter was sized for, raising its false positive rate.
+         */
+        boolean isOverfilled() {
+            return size.get() > capacity;
+        }
+
+        private long index(int combinedHash) {
+            return (combinedHash & 0x7fffffffL) % bitCount;
+        }
+
+        /**
+         * @return the FNV-1a hash of the UTF-8 bytes, with the MurmurHash3 finalizer to spread it over 64 bits.
+         */
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package de.intagau.service;
+
+import de.intagau.domain.StockMovement;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.enumeration.StockMovementType;
+import de.intagau.service.StockSummaryService.StockDelta;
+import de.intagau.service.dto.StockAdjustmentDTO;
+import de.intagau.service.dto.StockAdjustmentResultDTO;
+import de.intagau.service.dto.StockAdjustmentResultDTO.Status;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service adjusting the amount of stock positions by a delta, without reading them first.
+ * <p>
+ * Each adjustment is a single conditional update, so the database serializes concurrent adjustments of the same
+ * position on its row lock: no update is lost, no version conflict has to be retried, and the amount never drops
+ * below zero. The entity is neither loaded nor cached by the adjustment; its second-level cache entry is evicted
+ * instead, once more after the transaction completes so that a concurrent reader cannot cache the old amount.
+ */
+@Service
+@Transactional
+public class StockAdjustmentService {
+
+    private static final String ADJUST_AMOUNT =
+        "update stock_position set amount = coalesce(amount, 0) + ? where id = ? and coalesce(amount, 0) + ? >= 0";
+
+    private static final String SELECT_AMOUNTS = "select id, amount, inherit_id from stock_position where id in (:ids)";
+
+    private static final int SELECT_CHUNK_SIZE = 1000;
+
+    /**
+     * Maximum number of adjustments applied in one call, bounding the duration of the transaction.
+     */
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(StockAdjustmentService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final StockSummaryService stockSummaryService;
+
+    private final StockLedgerService stockLedgerService;
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    public StockAdjustmentService(
+        DataSource dataSource,
+        EntityManagerFactory entityManagerFactory,
+        StockSummaryService stockSummaryService,
+        StockLedgerService stockLedgerService,
+        CacheInvalidationService cacheInvalidationService
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.entityManagerFactory = entityManagerFactory;
+        this.stockSummaryService = stockSummaryService;
+        this.stockLedgerService = stockLedgerService;
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    /**
+     * Add a delta to the amount of a stock position, unless the amount would become negative.
+     *
+     * @param id the id of the stockPosition.
+     * @param delta the amount to add, negative to remove stock.
+     * @return the outcome, with the resulting amount.
+     */
+    public StockAdjustmentResultDTO adjust(Long id, int delta) {
+        log.debug("Request to adjust StockPosition : {} by {}", id, delta);
+        return adjustAll(Collections.singletonList(new StockAdjustmentDTO(id, delta))).get(0);
+    }
+
+    /**
+     * Apply many adjustments in one transaction.
+     * <p>
+     * The deltas of each stock position are summed and applied together, so a position either gets all of its
+     * adjustments or none of them. The updates are sent as a JDBC batch in ascending id order, so that concurrent
+     * batches lock the rows in the same order and cannot deadlock.
+     *
+     * @param adjustments the adjustments, in any order.
+     * @return the outcome of each adjustment, in the order of the request.
+     * @throws IllegalArgumentException if there are more than {@link #MAX_BATCH_SIZE} adjustments, an adjustment is
+     * null or has no id or no delta, or the deltas of a position overflow.
+     */
+    public List<StockAdjustmentResultDTO> adjustAll(List<StockAdjustmentDTO> adjustments) {
+        log.debug("Request to apply {} StockPosition adjustments", adjustments.size());
+        if (adjustments.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " adjustments can be applied at once");
+        }
+        SortedMap<Long, Integer> netDeltas = new TreeMap<>();
+        for (StockAdjustmentDTO adjustment : adjustments) {
+            if (adjustment == null || adjustment.getStockPositionId() == null || adjustment.getDelta() == null) {
+                throw new IllegalArgumentException("An adjustment needs a stockPositionId and a delta");
+            }
+            try {
+                netDeltas.merge(adjustment.getStockPositionId(), adjustment.getDelta(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("The deltas of StockPosition " + adjustment.getStockPositionId() + " overflow", e);
+            }
+        }
+        if (netDeltas.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> ids = new ArrayList<>(netDeltas.keySet());
+        List<Object[]> args = netDeltas
+            .entrySet()
+            .stream()
+            .map(netDelta -> new Object[] { netDelta.getValue(), netDelta.getKey(), netDelta.getValue() })
+            .collect(Collectors.toList());
+        int[] counts = jdbcTemplate.batchUpdate(ADJUST_AMOUNT, args);
+        // The updated rows are locked, so this reads the amounts the batch wrote
+        Map<Long, StockPositionRow> rows = findRows(ids);
+
+        Map<Long, Status> statuses = new HashMap<>();
+        Map<Long, StockDelta> summaryDeltas = new HashMap<>();
+        List<Long> applied = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            StockPositionRow row = rows.get(id);
+            if (row == null) {
+                statuses.put(id, Status.NOT_FOUND);
+            } else if (counts[i] == 0) {
+                statuses.put(id, Status.INSUFFICIENT_STOCK);
+            } else {
+                statuses.put(id, Status.APPLIED);
+                summaryDeltas.computeIfAbsent(row.storageId, storageId -> new StockDelta()).add(netDeltas.get(id), 0);
+                applied.add(id);
+            }
+        }
+        stockLedgerService.append(
+            adjustments
+                .stream()
+                .filter(adjustment -> statuses.get(adjustment.getStockPositionId()) == Status.APPLIED)
+                .map(adjustment ->
+                    new StockMovement()
+                        .stockPositionId(adjustment.getStockPositionId())
+                        .type(StockMovementType.ADJUSTED)
+                        .delta(adjustment.getDelta())
+                )
+                .collect(Collectors.toList())
+        );
+        stockSummaryService.addToStorages(summaryDeltas);
+        evictFromCache(applied);
+        log.debug("Applied adjustments to {} of {} StockPositions", applied.size(), ids.size());
+
+        return adjustments
+            .stream()
+            .map(adjustment -> {
+                StockPositionRow row = rows.get(adjustment.getStockPositionId());
+                return new StockAdjustmentResultDTO(
+                    adjustment.getStockPositionId(),
+                    adjustment.getDelta(),
+                    statuses.get(adjustment.getStockPositionId()),
+                    row == null ? null : row.amount
+                );
+            })
+            .collect(Collectors.toList());
+    }
+
+    private Map<Long, StockPositionRow> findRows(List<Long> ids) {
+        Map<Long, StockPositionRow> rows = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += SELECT_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + SELECT_CHUNK_SIZE, ids.size()));
+            namedParameterJdbcTemplate.query(
+                SELECT_AMOUNTS,
+                Collections.singletonMap("ids", chunk),
+                (RowCallbackHandler) rs ->
+                    rows.put(rs.getLong(1), new StockPositionRow(rs.getObject(2, Integer.class), rs.getObject(3, Long.class)))
+            );
+        }
+        return rows;
+    }
+
+    private void evictFromCache(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(StockPosition.class, id));
+        cacheInvalidationService.publishAfterCommit(CacheInvalidationService.Kind.ENTITY, StockPosition.class.getName(), ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        ids.forEach(id -> cache.evict(StockPosition.class, id));
+                    }
+                }
+            );
+        }
+    }
+
+    private static final class StockPositionRow {
+
+        private final Integer amount;
+
+        private final Long storageId;
+
+        private StockPositionRow(Integer amount, Long storageId) {
+            this.amount = amount;
+            this.storageId = storageId;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package de.intagau.service;
+
+import de.intagau.domain.Products;
+import de.intagau.domain.StockMovement;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom;
+import de.intagau.domain.enumeration.StockMovementType;
+import de.intagau.service.StockSummaryService.StockDelta;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate listener collecting the changes of stock made through JPA and handing them to the
+ * {@link StockLedgerService} and the {@link StockSummaryService} once the session is flushed, just before the
+ * transaction commits.
+ * <p>
+ * The changes are collected per session instead of being written as the entities are flushed: by then every
+ * insert has reached the database, so the rooms of the storages can be resolved, and the summary rows are
+ * locked for the shortest possible time.
+ * <p>
+ * The serial numbers of the stock positions are handed to the {@link SerialNumberService} as soon as they are
+ * flushed, so that a concurrent creation can see them before the transaction commits.
+ */
+@Component
+public class StockChangeEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Logger log = LoggerFactory.getLogger(StockChangeEventListener.class);
+
+    private final transient StockSummaryService stockSummaryService;
+
+    private final transient StockLedgerService stockLedgerService;
+
+    private final transient SerialNumberService serialNumberService;
+
+    private final transient PerTransactionState<PendingChanges> pendingChanges = new PerTransactionState<>(PendingChanges::new);
+
+    public StockChangeEventListener(
+        StockSummaryService stockSummaryService,
+        StockLedgerService stockLedgerService,
+        SerialNumberService serialNumberService
+    ) {
+        this.stockSummaryService = stockSummaryService;
+        this.stockLedgerService = stockLedgerService;
+        this.serialNumberService = serialNumberService;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof StockPosition) {
+            StockPosition stockPosition = (StockPosition) entity;
+            PendingChanges pending = pendingChanges.get(event.getSession());
+            pending.add(idOf(stockPosition.getInherit()), amountOf(stockPosition.getAmount()), 1);
+            pending.move((Long) event.getId(), StockMovementType.CREATED, amountOf(stockPosition.getAmount()));
+            serialNumberService.record(Collections.singleton(stockPosition.getSerialNo()));
+        } else if (entity instanceof StorageRoom) {
+            pendingChanges.get(event.getSession()).storageRoomsToRefresh.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        Object[] oldState = event.getOldState();
+        if (entity instanceof StockPosition) {
+            StockPosition stockPosition = (StockPosition) entity;
+            Long storageId = idOf(stockPosition.getInherit());
+            PendingChanges pending = pendingChanges.get(event.getSession());
+            serialNumberService.record(Collections.singleton(stockPosition.getSerialNo()));
+            if (oldState == null) {
+                // Updated without a snapshot, such as a detached entity reattached with update()
+                pending.storagesToRefresh.add(storageId);
+                log.warn("Cannot record the movement of StockPosition {}, updated without a snapshot", event.getId());
+                return;
+            }
+            Integer oldAmount = (Integer) oldState[propertyIndex(event.getPersister(), "amount")];
+            Long oldStorageId = idOf((Storage) oldState[propertyIndex(event.getPersister(), "inherit")]);
+            long delta = amountOf(stockPosition.getAmount()) - amountOf(oldAmount);
+            if (Objects.equals(oldStorageId, storageId)) {
+                pending.add(storageId, delta, 0);
+            } else {
+                pending.add(oldStorageId, -amountOf(oldAmount), -1);
+                pending.add(storageId, amountOf(stockPosition.getAmount()), 1);
+            }
+            pending.move((Long) event.getId(), StockMovementType.UPDATED, delta);
+        } else if (entity instanceof Storage) {
+            Long storageRoomId = idOf(((Storage) entity).getStorageRoom());
+            Long oldStorageRoomId = oldState == null
+                ? null
+                : idOf((StorageRoom) oldState[propertyIndex(event.getPersister(), "storageRoom")]);
+            if (oldState == null || !Objects.equals(oldStorageRoomId, storageRoomId)) {
+                PendingChanges pending = pendingChanges.get(event.getSession());
+                addIfNotNull(pending.storageRoomsToRefresh, oldStorageRoomId);
+                addIfNotNull(pending.storageRoomsToRefresh, storageRoomId);
+            }
+        } else if (entity instanceof StorageRoom) {
+            Long productsId = idOf(((StorageRoom) entity).getProducts());
+            Long oldProductsId = oldState == null ? null : idOf((Products) oldState[propertyIndex(event.getPersister(), "products")]);
+            if (oldState == null || !Objects.equals(oldProductsId, productsId)) {
+                pendingChanges.get(event.getSession()).storageRoomsToRefresh.add((Long) event.getId());
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof StockPosition) {
+            Object[] deletedState = event.getDeletedState();
+            Integer amount = (Integer) deletedState[propertyIndex(event.getPersister(), "amount")];
+            Long storageId = idOf((Storage) deletedState[propertyIndex(event.getPersister(), "inherit")]);
+            PendingChanges pending = pendingChanges.get(event.getSession());
+            pending.add(storageId, -amountOf(amount), -1);
+            pending.move((Long) event.getId(), StockMovementType.DELETED, -amountOf(amount));
+        } else if (entity instanceof Storage) {
+            // Its stock positions were deleted first, and their room can no longer be resolved from the storage
+            Object[] deletedState = event.getDeletedState();
+            Long storageRoomId = idOf((StorageRoom) deletedState[propertyIndex(event.getPersister(), "storageRoom")]);
+            addIfNotNull(pendingChanges.get(event.getSession()).storageRoomsToRefresh, storageRoomId);
+        } else if (entity instanceof StorageRoom) {
+            pendingChanges.get(event.getSession()).storageRoomsDeleted.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static int propertyIndex(EntityPersister persister, String propertyName) {
+        return persister.getEntityMetamodel().getPropertyIndex(propertyName);
+    }
+
+    private static long amountOf(Integer amount) {
+        return amount == null ? 0 : amount;
+    }
+
+    private static Long idOf(Storage storage) {
+        return storage == null ? null : storage.getId();
+    }
+
+    private static Long idOf(StorageRoom storageRoom) {
+        return storageRoom == null ? null : storageRoom.getId();
+    }
+
+    private static Long idOf(Products products) {
+        return products == null ? null : products.getId();
+    }
+
+    private static void addIfNotNull(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    /**
+     * The changes of stock made in a session since its transaction began.
+     */
+    private class PendingChanges implements BeforeTransactionCompletionProcess {
+
+        private final List<StockMovement> movements = new ArrayList<>();
+
+        private final Map<Long, StockDelta> deltasByStorage = new HashMap<>();
+
+        private final Set<Long> storagesToRefresh = new HashSet<>();
+
+        private final Set<Long> storageRoomsToRefresh = new HashSet<>();
+
+        private final Set<Long> storageRoomsDeleted = new HashSet<>();
+
+        void add(Long storageId, long amount, long positions) {
+            if (storageId != null) {
+                deltasByStorage.computeIfAbsent(storageId, id -> new StockDelta()).add(amount, positions);
+            }
+        }
+
+        void move(Long stockPositionId, StockMovementType type, long delta) {
+            if (delta != 0 || type != StockMovementType.UPDATED) {
+                movements.add(new StockMovement().stockPositionId(stockPositionId).type(type).delta(Math.toIntExact(delta)));
+            }
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            stockLedgerService.append(movements);
+            // Deltas first, as recomputing a room overwrites them
+            stockSummaryService.addToStorages(deltasByStorage);
+            stockSummaryService.refreshStorageRoomsOfStorages(storagesToRefresh);
+            storageRoomsToRefresh.removeAll(storageRoomsDeleted);
+            stockSummaryService.refreshStorageRooms(storageRoomsToRefresh);
+            stockSummaryService.deleteStorageRooms(storageRoomsDeleted);
+        }
+    }
+}
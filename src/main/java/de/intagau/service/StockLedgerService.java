@@ -0,0 +1,210 @@
+package de.intagau.service;
+
+import de.intagau.config.ApplicationProperties;
+import de.intagau.config.Constants;
+import de.intagau.domain.StockMovement;
+import de.intagau.repository.StockMovementRepository;
+import de.intagau.security.SecurityUtils;
+import de.intagau.service.dto.StockLevelDTO;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service writing the ledger of {@link StockMovement}s and rebuilding past amounts from it.
+ * <p>
+ * Movements are only ever inserted, with ids from the pooled sequence, so writers never wait on each other.
+ * A scheduled job periodically snapshots the amount of each stock position that moved since its last snapshot,
+ * from that snapshot and the movements after it; the amount at a point in time is then the latest snapshot before
+ * it plus the few movements in between. A snapshot only covers movements older than a configurable lag, so that it
+ * cannot miss a movement whose transaction was still in flight.
+ * <p>
+ * Timestamps are written in UTC, as Hibernate does with {@code hibernate.jdbc.time_zone}.
+ */
+@Service
+@Transactional
+public class StockLedgerService {
+
+    private static final String INSERT_MOVEMENT =
+        "insert into stock_movement (id, stock_position_id, type, delta, moved_at, created_by) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String TAKE_SNAPSHOTS =
+        "insert into stock_snapshot (stock_position_id, taken_at, amount)" +
+        " select m.stock_position_id, cast(? as timestamp), coalesce(max(s.amount), 0) + sum(m.delta) from stock_movement m" +
+        " left join stock_snapshot s on s.stock_position_id = m.stock_position_id and s.taken_at =" +
+        " (select max(l.taken_at) from stock_snapshot l where l.stock_position_id = m.stock_position_id)" +
+        " where m.moved_at <= ? and (s.taken_at is null or m.moved_at > s.taken_at)" +
+        " group by m.stock_position_id";
+
+    private static final String SELECT_LATEST_SNAPSHOT =
+        "select taken_at, amount from stock_snapshot where stock_position_id = ? and taken_at <= ?" +
+        " order by taken_at desc fetch first 1 rows only";
+
+    private static final String SUM_MOVEMENTS =
+        "select coalesce(sum(delta), 0), count(*) from stock_movement where stock_position_id = ? and moved_at <= ?";
+
+    private static final String SUM_MOVEMENTS_SINCE = SUM_MOVEMENTS + " and moved_at > ?";
+
+    private final Logger log = LoggerFactory.getLogger(StockLedgerService.class);
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockLedgerService(
+        StockMovementRepository stockMovementRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties,
+        DataSource dataSource
+    ) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Append movements to the ledger, in the current transaction. The missing ids, dates and authors are filled in.
+     *
+     * @param movements the movements to write.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        log.debug("Request to append {} StockMovements", movements.size());
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(StockMovement.class);
+        Instant now = Instant.now();
+        String login = SecurityUtils.getCurrentUserLogin().orElse(Constants.SYSTEM);
+        List<Object[]> args = movements
+            .stream()
+            .map(movement -> {
+                if (movement.getId() == null) {
+                    movement.setId((Long) persister.getIdentifierGenerator().generate(session, movement));
+                }
+                if (movement.getMovedAt() == null) {
+                    movement.setMovedAt(now);
+                }
+                if (movement.getCreatedBy() == null) {
+                    movement.setCreatedBy(login);
+                }
+                return new Object[] {
+                    movement.getId(),
+                    movement.getStockPositionId(),
+                    movement.getType().name(),
+                    movement.getDelta(),
+                    toTimestamp(movement.getMovedAt()),
+                    movement.getCreatedBy(),
+                };
+            })
+            .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT, args);
+    }
+
+    /**
+     * Snapshot the stock positions that moved since their last snapshot, up to the configured lag.
+     */
+    @Scheduled(cron = "${application.stock-ledger.snapshot-cron:0 0 * * * ?}")
+    public void takeSnapshots() {
+        takeSnapshots(Instant.now().minus(applicationProperties.getStockLedger().getSnapshotLag()));
+    }
+
+    /**
+     * Snapshot the stock positions that moved since their last snapshot, up to a point in time.
+     * <p>
+     * Every movement dated up to {@code cutoff} must have been committed, or it will be ignored by the amounts
+     * rebuilt from this snapshot.
+     *
+     * @param cutoff the date of the snapshot.
+     * @return the number of stock positions snapshotted.
+     */
+    public int takeSnapshots(Instant cutoff) {
+        Timestamp takenAt = toTimestamp(cutoff);
+        int count = jdbcTemplate.update(TAKE_SNAPSHOTS, takenAt, takenAt);
+        log.info("Snapshotted {} StockPositions at {}", count, cutoff);
+        return count;
+    }
+
+    /**
+     * Rebuild the amount of a stock position at a point in time.
+     *
+     * @param stockPositionId the id of the stockPosition.
+     * @param at the point in time.
+     * @return the amount, or empty if the ledger has no trace of the stockPosition until then.
+     */
+    @Transactional(readOnly = true)
+    public Optional<StockLevelDTO> findAmountAt(Long stockPositionId, Instant at) {
+        log.debug("Request to get the amount of StockPosition : {} at {}", stockPositionId, at);
+        Timestamp until = toTimestamp(at);
+        List<Object[]> snapshots = jdbcTemplate.query(
+            SELECT_LATEST_SNAPSHOT,
+            (rs, rowNum) -> new Object[] { toInstant(rs.getTimestamp(1)), rs.getLong(2) },
+            stockPositionId,
+            until
+        );
+        Instant snapshotAt = snapshots.isEmpty() ? null : (Instant) snapshots.get(0)[0];
+        long snapshotAmount = snapshots.isEmpty() ? 0 : (Long) snapshots.get(0)[1];
+        long[] replay = snapshotAt == null
+            ? jdbcTemplate.queryForObject(
+                SUM_MOVEMENTS,
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) },
+                stockPositionId,
+                until
+            )
+            : jdbcTemplate.queryForObject(
+                SUM_MOVEMENTS_SINCE,
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) },
+                stockPositionId,
+                until,
+                toTimestamp(snapshotAt)
+            );
+        if (snapshotAt == null && replay[1] == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new StockLevelDTO(stockPositionId, at, snapshotAmount + replay[0], snapshotAt, replay[1]));
+    }
+
+    /**
+     * Get the movements of a stock position.
+     *
+     * @param stockPositionId the id of the stockPosition.
+     * @param pageable the pagination information.
+     * @return the list of movements.
+     */
+    @Transactional(readOnly = true)
+    public Page<StockMovement> findMovements(Long stockPositionId, Pageable pageable) {
+        log.debug("Request to get the StockMovements of StockPosition : {}", stockPositionId);
+        return stockMovementRepository.findAllByStockPositionId(stockPositionId, pageable);
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(instant, ZoneOffset.UTC));
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp.toLocalDateTime().toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,143 @@
+package de.intagau.service;
+
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.StockPosition_;
+import de.intagau.domain.Storage_;
+import de.intagau.repository.StockPositionRepository;
+import de.intagau.service.criteria.StockPositionCriteria;
+import de.intagau.service.dto.KeysetCursor;
+import java.util.List;
+import javax.persistence.criteria.JoinType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Service for executing complex queries for {@link StockPosition} entities in the database.
+ * The main input is a {@link StockPositionCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link StockPosition} or a {@link Page} of {@link StockPosition} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StockPositionQueryService extends QueryService<StockPosition> {
+
+    /**
+     * Sort property supported by {@link #findAllAfter(KeysetCursor, int)}.
+     */
+    public static final String SORT_BY_ID = "id";
+
+    private final Logger log = LoggerFactory.getLogger(StockPositionQueryService.class);
+
+    private final StockPositionRepository stockPositionRepository;
+
+    public StockPositionQueryService(StockPositionRepository stockPositionRepository) {
+        this.stockPositionRepository = stockPositionRepository;
+    }
+
+    /**
+     * Return a {@link List} of {@link StockPosition} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<StockPosition> findByCriteria(StockPositionCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<StockPosition> specification = createSpecification(criteria);
+        return stockPositionRepository.findAll(specification);
+    }
+
+    /**
+     * Return a {@link Page} of {@link StockPosition} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<StockPosition> findByCriteria(StockPositionCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<StockPosition> specification = createSpecification(criteria);
+        return stockPositionRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(StockPositionCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<StockPosition> specification = createSpecification(criteria);
+        return stockPositionRepository.count(specification);
+    }
+
+    /**
+     * Return the {@link StockPosition} following the given cursor in keyset order.
+     * Unlike {@link #findByCriteria(StockPositionCriteria, Pageable)} this neither skips rows with an offset nor counts
+     * the table, so every page costs the same whatever its position.
+     * @param cursor The position after which the entities should start.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<StockPosition> findAllAfter(KeysetCursor cursor, int size) {
+        log.debug("find after cursor : {}, size: {}", cursor, size);
+        // fetch one extra row to know whether there is a next slice
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<StockPosition> content = cursor.isStart()
+            ? stockPositionRepository.findAllByOrderByIdAsc(limit)
+            : stockPositionRepository.findAllAfterId(cursor.getId(), limit);
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Return the cursor pointing after the given entity, to continue a listing started with {@code cursor}.
+     * @param cursor The cursor the listing was started with.
+     * @param last The last entity of the current slice.
+     * @return the cursor for the next slice.
+     */
+    public KeysetCursor cursorAfter(KeysetCursor cursor, StockPosition last) {
+        return new KeysetCursor(cursor.getProperty(), null, last.getId());
+    }
+
+    /**
+     * Function to convert {@link StockPositionCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<StockPosition> createSpecification(StockPositionCriteria criteria) {
+        Specification<StockPosition> specification = Specification.where(null);
+        if (criteria != null) {
+            // This has to be called first, because the distinct method returns null
+            if (criteria.getDistinct() != null) {
+                specification = specification.and(distinct(criteria.getDistinct()));
+            }
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), StockPosition_.id));
+            }
+            if (criteria.getAmount() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getAmount(), StockPosition_.amount));
+            }
+            if (criteria.getSerialNo() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getSerialNo(), StockPosition_.serialNo));
+            }
+            if (criteria.getInheritId() != null) {
+                specification =
+                    specification.and(
+                        buildSpecification(criteria.getInheritId(), root -> root.join(StockPosition_.inherit, JoinType.LEFT).get(Storage_.id))
+                    );
+            }
+        }
+        return specification;
+    }
+}
@@ -0,0 +1,247 @@
+package de.intagau.service;
+
+import de.intagau.domain.StockSummary;
+import de.intagau.repository.StockSummaryRepository;
+import de.intagau.repository.StockSummaryRepository.ProductStockTotal;
+import de.intagau.service.dto.ProductStockSummaryDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining and reading the stock totals of the storage rooms, stored in {@link StockSummary}.
+ * <p>
+ * A change of stock is applied as a delta to the row of the room holding the stock position, so writes cost a
+ * single indexed update and reads are proportional to the number of rooms. The totals of a product are summed
+ * over the rooms assigned to it. Structural changes, such as a storage moving to another room, recompute the
+ * affected rooms from the stock positions instead. A recomputation updates the row of the room in place, and
+ * only inserts it under a lock of the room, so that concurrent recomputations never insert it twice.
+ * <p>
+ * The maintenance methods run in the transaction that changed the stock, so the totals commit or roll back with it.
+ */
+@Service
+public class StockSummaryService {
+
+    private static final String ADD_TO_STORAGE_ROOM_OF_STORAGE =
+        "update stock_summary set total_amount = total_amount + ?, position_count = position_count + ?" +
+        " where storage_room_id = (select storage_room_id from storage where id = ?)";
+
+    private static final String SELECT_STORAGE_ROOM_OF_STORAGE = "select storage_room_id from storage where id = ?";
+
+    private static final String DELETE_STORAGE_ROOM = "delete from stock_summary where storage_room_id = ?";
+
+    private static final String LOCK_STORAGE_ROOM = "select id from storage_room where id = ? for update";
+
+    private static final String UPDATE_STORAGE_ROOM =
+        "update stock_summary set products_id = (select products_id from storage_room where id = stock_summary.storage_room_id)," +
+        " total_amount = (select coalesce(sum(p.amount), 0) from storage s join stock_position p on p.inherit_id = s.id" +
+        " where s.storage_room_id = stock_summary.storage_room_id)," +
+        " position_count = (select count(p.id) from storage s join stock_position p on p.inherit_id = s.id" +
+        " where s.storage_room_id = stock_summary.storage_room_id)" +
+        " where storage_room_id = ?";
+
+    private static final String INSERT_STORAGE_ROOM =
+        "insert into stock_summary (storage_room_id, products_id, total_amount, position_count)" +
+        " select r.id, r.products_id, coalesce(sum(p.amount), 0), count(p.id) from storage_room r" +
+        " left join storage s on s.storage_room_id = r.id left join stock_position p on p.inherit_id = s.id" +
+        " where r.id = ? group by r.id, r.products_id";
+
+    /**
+     * A change of the stock held in a storage: the amount added and the number of stock positions added,
+     * both negative for removals.
+     */
+    public static final class StockDelta {
+
+        private long amount;
+
+        private long positions;
+
+        public StockDelta add(long amount, long positions) {
+            this.amount += amount;
+            this.positions += positions;
+            return this;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+
+        public long getPositions() {
+            return positions;
+        }
+
+        boolean isEmpty() {
+            return amount == 0 && positions == 0;
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(StockSummaryService.class);
+
+    private final StockSummaryRepository stockSummaryRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockSummaryService(StockSummaryRepository stockSummaryRepository, DataSource dataSource) {
+        this.stockSummaryRepository = stockSummaryRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Add stock changes to the totals of the rooms holding the given storages. Storages outside of any room are
+     * ignored. The rows are updated in ascending storage id order, so that concurrent writers cannot deadlock.
+     *
+     * @param deltas the changes, by storage id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addToStorages(Map<Long, StockDelta> deltas) {
+        SortedMap<Long, StockDelta> sorted = new TreeMap<>(deltas);
+        sorted.values().removeIf(StockDelta::isEmpty);
+        if (sorted.isEmpty()) {
+            return;
+        }
+        log.debug("Request to add stock changes to the summary of {} storages", sorted.size());
+        List<Long> storageIds = new ArrayList<>(sorted.keySet());
+        List<Object[]> args = sorted
+            .entrySet()
+            .stream()
+            .map(delta -> new Object[] { delta.getValue().amount, delta.getValue().positions, delta.getKey() })
+            .collect(Collectors.toList());
+        int[] counts = jdbcTemplate.batchUpdate(ADD_TO_STORAGE_ROOM_OF_STORAGE, args);
+        List<Long> missingStorageRooms = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                // The room has no summary yet, or the storage is not in a room
+                jdbcTemplate
+                    .queryForList(SELECT_STORAGE_ROOM_OF_STORAGE, Long.class, storageIds.get(i))
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .forEach(missingStorageRooms::add);
+            }
+        }
+        refreshStorageRooms(missingStorageRooms);
+    }
+
+    /**
+     * Recompute the totals of storage rooms from their stock positions, creating the missing rows.
+     * <p>
+     * A missing row is inserted after locking the room and checking again, so that a concurrent recomputation
+     * waits for the insert to commit and updates the row instead.
+     *
+     * @param storageRoomIds the ids of the storageRooms.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshStorageRooms(Collection<Long> storageRoomIds) {
+        for (Long storageRoomId : new TreeSet<>(storageRoomIds)) {
+            log.debug("Request to recompute the stock summary of StorageRoom : {}", storageRoomId);
+            if (jdbcTemplate.update(UPDATE_STORAGE_ROOM, storageRoomId) == 0) {
+                jdbcTemplate.queryForList(LOCK_STORAGE_ROOM, Long.class, storageRoomId);
+                if (jdbcTemplate.update(UPDATE_STORAGE_ROOM, storageRoomId) == 0) {
+                    jdbcTemplate.update(INSERT_STORAGE_ROOM, storageRoomId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recompute the totals of the rooms holding the given storages.
+     *
+     * @param storageIds the ids of the storages.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshStorageRoomsOfStorages(Collection<Long> storageIds) {
+        List<Long> storageRoomIds = new ArrayList<>();
+        for (Long storageId : storageIds) {
+            jdbcTemplate
+                .queryForList(SELECT_STORAGE_ROOM_OF_STORAGE, Long.class, storageId)
+                .stream()
+                .filter(Objects::nonNull)
+                .forEach(storageRoomIds::add);
+        }
+        refreshStorageRooms(storageRoomIds);
+    }
+
+    /**
+     * Remove the totals of deleted storage rooms.
+     *
+     * @param storageRoomIds the ids of the storageRooms.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteStorageRooms(Collection<Long> storageRoomIds) {
+        for (Long storageRoomId : new TreeSet<>(storageRoomIds)) {
+            log.debug("Request to delete the stock summary of StorageRoom : {}", storageRoomId);
+            jdbcTemplate.update(DELETE_STORAGE_ROOM, storageRoomId);
+        }
+    }
+
+    /**
+     * Get the totals of all the storage rooms.
+     *
+     * @param pageable the pagination information.
+     * @return the list of totals.
+     */
+    @Transactional(readOnly = true)
+    public Page<StockSummary> findAllByStorageRoom(Pageable pageable) {
+        log.debug("Request to get the stock summary of all StorageRooms");
+        return stockSummaryRepository.findAll(pageable);
+    }
+
+    /**
+     * Get the totals of a storage room.
+     *
+     * @param storageRoomId the id of the storageRoom.
+     * @return the totals, or empty if the storageRoom does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<StockSummary> findOneByStorageRoom(Long storageRoomId) {
+        log.debug("Request to get the stock summary of StorageRoom : {}", storageRoomId);
+        return stockSummaryRepository.findById(storageRoomId);
+    }
+
+    /**
+     * Get the totals of all the products assigned to at least one storage room.
+     *
+     * @return the list of totals, by ascending product id.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductStockSummaryDTO> findAllByProduct() {
+        log.debug("Request to get the stock summary of all Products");
+        return stockSummaryRepository.findAllProductStockTotals().stream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the totals of a product.
+     *
+     * @param productsId the id of the products.
+     * @return the totals, or empty if no storage room is assigned to the product.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductStockSummaryDTO> findOneByProduct(Long productsId) {
+        log.debug("Request to get the stock summary of Products : {}", productsId);
+        return stockSummaryRepository.findProductStockTotal(productsId).map(this::toDto);
+    }
+
+    private ProductStockSummaryDTO toDto(ProductStockTotal total) {
+        return new ProductStockSummaryDTO(
+            total.getProductsId(),
+            total.getTotalAmount(),
+            total.getPositionCount(),
+            total.getStorageRoomCount()
+        );
+    }
+}
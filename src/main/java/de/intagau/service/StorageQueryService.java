@@ -0,0 +1,101 @@
+package de.intagau.service;
+
+import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom_;
+import de.intagau.domain.Storage_;
+import de.intagau.repository.StorageRepository;
+import de.intagau.service.criteria.StorageCriteria;
+import java.util.List;
+import javax.persistence.criteria.JoinType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Service for executing complex queries for {@link Storage} entities in the database.
+ * The main input is a {@link StorageCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link Storage} or a {@link Page} of {@link Storage} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StorageQueryService extends QueryService<Storage> {
+
+    private final Logger log = LoggerFactory.getLogger(StorageQueryService.class);
+
+    private final StorageRepository storageRepository;
+
+    public StorageQueryService(StorageRepository storageRepository) {
+        this.storageRepository = storageRepository;
+    }
+
+    /**
+     * Return a {@link List} of {@link Storage} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<Storage> findByCriteria(StorageCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Storage> specification = createSpecification(criteria);
+        return storageRepository.findAll(specification);
+    }
+
+    /**
+     * Return a {@link Page} of {@link Storage} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Storage> findByCriteria(StorageCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<Storage> specification = createSpecification(criteria);
+        return storageRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(StorageCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Storage> specification = createSpecification(criteria);
+        return storageRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link StorageCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Storage> createSpecification(StorageCriteria criteria) {
+        Specification<Storage> specification = Specification.where(null);
+        if (criteria != null) {
+            // This has to be called first, because the distinct method returns null
+            if (criteria.getDistinct() != null) {
+                specification = specification.and(distinct(criteria.getDistinct()));
+            }
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Storage_.id));
+            }
+            if (criteria.getKey() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getKey(), Storage_.key));
+            }
+            if (criteria.getStorageRoomId() != null) {
+                specification =
+                    specification.and(
+                        buildSpecification(criteria.getStorageRoomId(), root -> root.join(Storage_.storageRoom, JoinType.LEFT).get(StorageRoom_.id))
+                    );
+            }
+        }
+        return specification;
+    }
+}
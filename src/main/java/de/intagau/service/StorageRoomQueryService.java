@@ -0,0 +1,114 @@
+package de.intagau.service;
+
+import de.intagau.domain.Products_;
+import de.intagau.domain.StorageRoom;
+import de.intagau.domain.StorageRoom_;
+import de.intagau.domain.Storage_;
+import de.intagau.repository.StorageRoomRepository;
+import de.intagau.service.criteria.StorageRoomCriteria;
+import java.util.List;
+import javax.persistence.criteria.JoinType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Service for executing complex queries for {@link StorageRoom} entities in the database.
+ * The main input is a {@link StorageRoomCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link StorageRoom} or a {@link Page} of {@link StorageRoom} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StorageRoomQueryService extends QueryService<StorageRoom> {
+
+    private final Logger log = LoggerFactory.getLogger(StorageRoomQueryService.class);
+
+    private final StorageRoomRepository storageRoomRepository;
+
+    public StorageRoomQueryService(StorageRoomRepository storageRoomRepository) {
+        this.storageRoomRepository = storageRoomRepository;
+    }
+
+    /**
+     * Return a {@link List} of {@link StorageRoom} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<StorageRoom> findByCriteria(StorageRoomCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<StorageRoom> specification = createSpecification(criteria);
+        return storageRoomRepository.findAll(specification);
+    }
+
+    /**
+     * Return a {@link Page} of {@link StorageRoom} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<StorageRoom> findByCriteria(StorageRoomCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<StorageRoom> specification = createSpecification(criteria);
+        return storageRoomRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(StorageRoomCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<StorageRoom> specification = createSpecification(criteria);
+        return storageRoomRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link StorageRoomCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<StorageRoom> createSpecification(StorageRoomCriteria criteria) {
+        Specification<StorageRoom> specification = Specification.where(null);
+        if (criteria != null) {
+            // This has to be called first, because the distinct method returns null
+            if (criteria.getDistinct() != null) {
+                specification = specification.and(distinct(criteria.getDistinct()));
+            }
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), StorageRoom_.id));
+            }
+            if (criteria.getName() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getName(), StorageRoom_.name));
+            }
+            if (criteria.getInheritId() != null) {
+                specification =
+                    specification.and(
+                        buildSpecification(criteria.getInheritId(), root -> root.join(StorageRoom_.inherit, JoinType.LEFT).get(Storage_.id))
+                    );
+            }
+            if (criteria.getContainsId() != null) {
+                specification =
+                    specification.and(
+                        buildSpecification(criteria.getContainsId(), root -> root.join(StorageRoom_.contains, JoinType.LEFT).get(Storage_.id))
+                    );
+            }
+            if (criteria.getProductsId() != null) {
+                specification =
+                    specification.and(
+                        buildSpecification(criteria.getProductsId(), root -> root.join(StorageRoom_.products, JoinType.LEFT).get(Products_.id))
+                    );
+            }
+        }
+        return specification;
+    }
+}
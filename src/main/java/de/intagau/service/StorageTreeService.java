@@ -0,0 +1,141 @@
+package de.intagau.service;
+
+import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom;
+import de.intagau.repository.StockPositionRepository;
+import de.intagau.repository.StorageRepository;
+import de.intagau.repository.StorageRoomRepository;
+import de.intagau.service.dto.StorageSubtreeDTO;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the storage tree index and answering subtree queries from it.
+ * <p>
+ * A room sits in the storage it {@code inherit}s, which itself belongs to a room, and so on. Each room stores the
+ * ids of its ancestors and its own id as a materialized path, e.g. {@code /1/7/12/}, so the whole subtree of a
+ * room is a prefix match on an indexed column. Paths are recomputed when a room or a storage is saved, and a move
+ * rewrites the paths of all the descendants with a single update.
+ */
+@Service
+@Transactional
+public class StorageTreeService {
+
+    private static final String SEPARATOR = "/";
+
+    private final Logger log = LoggerFactory.getLogger(StorageTreeService.class);
+
+    private final StorageRoomRepository storageRoomRepository;
+
+    private final StorageRepository storageRepository;
+
+    private final StockPositionRepository stockPositionRepository;
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    public StorageTreeService(
+        StorageRoomRepository storageRoomRepository,
+        StorageRepository storageRepository,
+        StockPositionRepository stockPositionRepository,
+        CacheInvalidationService cacheInvalidationService
+    ) {
+        this.storageRoomRepository = storageRoomRepository;
+        this.storageRepository = storageRepository;
+        this.stockPositionRepository = stockPositionRepository;
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    /**
+     * Save a storageRoom and update the tree index.
+     *
+     * @param storageRoom the entity to save.
+     * @return the persisted entity.
+     * @throws IllegalArgumentException if the room would end up inside its own subtree.
+     */
+    public StorageRoom save(StorageRoom storageRoom) {
+        log.debug("Request to save StorageRoom in the tree : {}", storageRoom);
+        String oldPath = storageRoom.getId() == null ? null : storageRoomRepository.findPathById(storageRoom.getId()).orElse(null);
+        StorageRoom result = storageRoomRepository.save(storageRoom);
+        reindex(result, oldPath);
+        return result;
+    }
+
+    /**
+     * Save a storage and update the tree index, as moving a storage to another room moves the room stored in it.
+     *
+     * @param storage the entity to save.
+     * @return the persisted entity.
+     * @throws IllegalArgumentException if a room would end up inside its own subtree.
+     */
+    public Storage save(Storage storage) {
+        log.debug("Request to save Storage in the tree : {}", storage);
+        Storage result = storageRepository.save(storage);
+        if (result.getId() != null) {
+            storageRoomRepository.findOneByInheritId(result.getId()).ifPresent(storageRoom -> reindex(storageRoom, storageRoom.getPath()));
+        }
+        return result;
+    }
+
+    /**
+     * Get a storageRoom with all the rooms, storages and stock positions it contains, whatever the depth.
+     *
+     * @param id the id of the storageRoom.
+     * @return the subtree, or empty if the storageRoom does not exist.
+     */
+    public Optional<StorageSubtreeDTO> findSubtree(Long id) {
+        log.debug("Request to get the subtree of StorageRoom : {}", id);
+        return storageRoomRepository
+            .findById(id)
+            .map(storageRoom -> {
+                if (storageRoom.getPath() == null) {
+                    reindex(storageRoom, null);
+                }
+                String path = storageRoom.getPath();
+                return new StorageSubtreeDTO(
+                    id,
+                    storageRoomRepository.findAllByPathStartingWith(path),
+                    stockPositionRepository.findAllByStorageRoomPathStartingWith(path)
+                );
+            });
+    }
+
+    private void reindex(StorageRoom storageRoom, String oldPath) {
+        String newPath = computePath(storageRoom);
+        // Also restores the path of an unchanged room, which an update merges as null
+        storageRoom.setPath(newPath);
+        if (newPath.equals(oldPath)) {
+            return;
+        }
+        if (oldPath != null) {
+            int moved = storageRoomRepository.movePathPrefix(oldPath, newPath);
+            // The bulk update evicted the whole region here, and goes unnoticed by the listeners
+            cacheInvalidationService.publishAfterCommit(CacheInvalidationService.Kind.ENTITY, StorageRoom.class.getName(), null);
+            cacheInvalidationService.publishAfterCommit(CacheInvalidationService.Kind.QUERY_SPACE, null, List.of("storage_room"));
+            log.debug("Moved StorageRoom {} from {} to {} with {} descendants", storageRoom.getId(), oldPath, newPath, moved);
+        }
+    }
+
+    private String computePath(StorageRoom storageRoom) {
+        Deque<Long> ids = new ArrayDeque<>();
+        Set<Long> visited = new HashSet<>();
+        StorageRoom current = storageRoom;
+        while (current != null) {
+            if (!visited.add(current.getId())) {
+                throw new IllegalArgumentException("StorageRoom " + storageRoom.getId() + " cannot be stored inside itself");
+            }
+            ids.addFirst(current.getId());
+            Storage parent = current.getInherit();
+            current = parent == null ? null : parent.getStorageRoom();
+        }
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(SEPARATOR, SEPARATOR, SEPARATOR));
+    }
+}
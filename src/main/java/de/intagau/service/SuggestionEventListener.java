@@ -0,0 +1,92 @@
+package de.intagau.service;
+
+import de.intagau.domain.Products;
+import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom;
+import de.intagau.service.SuggestionService.SuggestedEntity;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate listener collecting the labels of the products, storages and storage rooms changed through JPA and
+ * handing them to the {@link SuggestionService} once the transaction has committed, so that rolled back changes are
+ * never suggested.
+ */
+@Component
+public class SuggestionEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient SuggestionService suggestionService;
+
+    private final transient PerTransactionState<PendingSuggestions> pendingSuggestions = new PerTransactionState<>(PendingSuggestions::new);
+
+    public SuggestionEventListener(SuggestionService suggestionService) {
+        this.suggestionService = suggestionService;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), false);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), false);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), true);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(EventSource session, Object entity, Object id, boolean deleted) {
+        if (entity instanceof Products) {
+            pendingSuggestions.get(session).put(SuggestedEntity.PRODUCTS, (Long) id, deleted ? null : ((Products) entity).getName());
+        } else if (entity instanceof Storage) {
+            pendingSuggestions.get(session).put(SuggestedEntity.STORAGES, (Long) id, deleted ? null : ((Storage) entity).getKey());
+        } else if (entity instanceof StorageRoom) {
+            pendingSuggestions.get(session).put(SuggestedEntity.STORAGE_ROOMS, (Long) id, deleted ? null : label((StorageRoom) entity));
+        }
+    }
+
+    private static String label(StorageRoom storageRoom) {
+        return storageRoom.getName() != null ? storageRoom.getName() : String.valueOf(storageRoom.getId());
+    }
+
+    /**
+     * The latest labels of the entities changed in a session since its transaction began, {@code null} once deleted.
+     */
+    private class PendingSuggestions implements AfterTransactionCompletionProcess {
+
+        private final Map<SuggestedEntity, Map<Long, String>> labels = new EnumMap<>(SuggestedEntity.class);
+
+        void put(SuggestedEntity entity, Long id, String label) {
+            labels.computeIfAbsent(entity, key -> new LinkedHashMap<>()).put(id, label);
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            if (success) {
+                labels.forEach((entity, labelsById) -> labelsById.forEach((id, label) -> suggestionService.put(entity, id, label)));
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package de.intagau.service;
+
+import de.intagau.config.ApplicationProperties;
+import de.intagau.service.dto.SuggestionDTO;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service completing typed prefixes into product names, storage keys and storage room names, from in-memory indexes.
+ * A storage room without a name is suggested by its id.
+ * <p>
+ * Each index is a sorted map from the lower-cased label to the suggestion, so the completions of a prefix are the
+ * head of the range starting at that prefix, found in logarithmic time whatever the size of the catalog. An index
+ * is loaded from the database on first use, then kept up to date with the committed changes by the
+ * {@link SuggestionEventListener}, and periodically rebuilt to catch up with the writes it cannot see, such as
+ * those of other instances.
+ */
+@Service
+public class SuggestionService {
+
+    /**
+     * The entities with suggestions, named after their REST resources.
+     */
+    public enum SuggestedEntity {
+        PRODUCTS("products", "select id, name from products"),
+        STORAGES("storages", "select id, \"key\" from storage"),
+        STORAGE_ROOMS("storage-rooms", "select id, coalesce(name, cast(id as varchar(20))) from storage_room");
+
+        private final String resourceName;
+
+        private final String loadQuery;
+
+        SuggestedEntity(String resourceName, String loadQuery) {
+            this.resourceName = resourceName;
+            this.loadQuery = loadQuery;
+        }
+
+        public String getResourceName() {
+            return resourceName;
+        }
+
+        public static Optional<SuggestedEntity> fromResourceName(String resourceName) {
+            return Arrays.stream(values()).filter(entity -> entity.resourceName.equals(resourceName)).findFirst();
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(SuggestionService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Map<SuggestedEntity, PrefixIndex> indexes = new ConcurrentHashMap<>();
+
+    private final Map<SuggestedEntity, PrefixIndex> loadingIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Guards the loads.
+     */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    public SuggestionService(DataSource dataSource, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Complete a prefix.
+     *
+     * @param entity the entity to suggest.
+     * @param prefix the typed prefix, case-insensitive; empty for the first labels.
+     * @param limit the maximum number of suggestions, capped by the configured maximum.
+     * @return the suggestions, sorted by label.
+     */
+    public List<SuggestionDTO> suggest(SuggestedEntity entity, String prefix, int limit) {
+        log.debug("Request to suggest {} for prefix {}", entity.getResourceName(), prefix);
+        int cappedLimit = Math.max(0, Math.min(limit, applicationProperties.getSuggestion().getMaxLimit()));
+        return index(entity).suggest(normalize(prefix), cappedLimit);
+    }
+
+    /**
+     * Record the committed label of an entity.
+     *
+     * @param entity the entity type.
+     * @param id the id of the entity.
+     * @param label its label, {@code null} to remove it.
+     */
+    public void put(SuggestedEntity entity, Long id, String label) {
+        PrefixIndex loading = loadingIndexes.get(entity);
+        if (loading != null) {
+            loading.put(id, label);
+        }
+        PrefixIndex index = indexes.get(entity);
+        if (index != null && index != loading) {
+            index.put(id, label);
+        }
+    }
+
+    /**
+     * Remove a deleted entity.
+     *
+     * @param entity the entity type.
+     * @param id the id of the entity.
+     */
+    public void remove(SuggestedEntity entity, Long id) {
+        put(entity, id, null);
+    }
+
+    /**
+     * Drop an index after bulk changes; it is loaded again on next use.
+     *
+     * @param entity the entity type.
+     */
+    public void invalidate(SuggestedEntity entity) {
+        log.debug("Request to invalidate the suggestions of {}", entity.getResourceName());
+        indexes.remove(entity);
+    }
+
+    /**
+     * Rebuild the indexes in use from the database.
+     */
+    @Scheduled(cron = "${application.suggestion.rebuild-cron:0 */15 * * * ?}")
+    public void rebuild() {
+        for (SuggestedEntity entity : new HashSet<>(indexes.keySet())) {
+            loadLock.lock();
+            try {
+                load(entity);
+            } finally {
+                loadLock.unlock();
+            }
+        }
+    }
+
+    private PrefixIndex index(SuggestedEntity entity) {
+        PrefixIndex index = indexes.get(entity);
+        if (index == null) {
+            loadLock.lock();
+            try {
+                index = indexes.get(entity);
+                if (index == null) {
+                    index = load(entity);
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return index;
+    }
+
+    private PrefixIndex load(SuggestedEntity entity) {
+        long start = System.currentTimeMillis();
+        PrefixIndex index = new PrefixIndex();
+        // Receives the changes committed while loading, which the query may or may not see
+        loadingIndexes.put(entity, index);
+        try {
+            jdbcTemplate.query(entity.loadQuery, (RowCallbackHandler) rs -> index.load(rs.getLong(1), rs.getString(2)));
+            index.loaded();
+            indexes.put(entity, index);
+        } finally {
+            loadingIndexes.remove(entity, index);
+        }
+        log.info("Loaded {} suggestions of {} in {} ms", index.size(), entity.getResourceName(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private static String normalize(String label) {
+        return label.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The labels of the entities of one type, sorted for prefix lookups.
+     */
+    private static final class PrefixIndex {
+
+        private final ConcurrentSkipListMap<String, SuggestionDTO> byKey = new ConcurrentSkipListMap<>();
+
+        private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+
+        /**
+         * The ids changed while loading, whose loaded rows may be outdated.
+         */
+        private Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+
+        List<SuggestionDTO> suggest(String prefix, int limit) {
+            return byKey
+                .tailMap(prefix)
+                .entrySet()
+                .stream()
+                .takeWhile(entry -> entry.getKey().startsWith(prefix))
+                .limit(limit)
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        }
+
+        synchronized void put(Long id, String label) {
+            Set<Long> changed = changedWhileLoading;
+            if (changed != null) {
+                changed.add(id);
+            }
+            String oldKey = label == null ? keysById.remove(id) : keysById.put(id, key(id, label));
+            if (oldKey != null) {
+                byKey.remove(oldKey);
+            }
+            if (label != null) {
+                byKey.put(key(id, label), new SuggestionDTO(id, label));
+            }
+        }
+
+        synchronized void load(Long id, String label) {
+            if (!changedWhileLoading.contains(id)) {
+                keysById.put(id, key(id, label));
+                byKey.put(key(id, label), new SuggestionDTO(id, label));
+            }
+        }
+
+        synchronized void loaded() {
+            changedWhileLoading = null;
+        }
+
+        int size() {
+            return keysById.size();
+        }
+
+        /**
+         * @return the sort key of a label, unique thanks to the id appended after a separator sorting first.
+         */
+        private static String key(Long id, String label) {
+            return normalize(label) + '\u0000' + id;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package de.intagau.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import de.intagau.config.Constants;
 import de.intagau.domain.Authority;
 import de.intagau.domain.User;
@@ -8,8 +10,14 @@ import de.intagau.repository.UserRepository;
 import de.intagau.security.SecurityUtils;
 import de.intagau.service.dto.AdminUserDTO;
 import de.intagau.service.dto.UserDTO;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +30,8 @@ import org.springframework.security.oauth2.client.authentication.OAuth2Authentic
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service class for managing users.
@@ -38,10 +48,34 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
-    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository, CacheManager cacheManager) {
+    private final CacheInvalidationService cacheInvalidationService;
+
+    /**
+     * The users whose local copy matches their identity claims, by subject and hash of the synchronized claims, so
+     * that the requests of a signed in user do not touch the database. Concurrent requests with the same claims
+     * wait for a single sync.
+     */
+    private final AsyncCache<String, Boolean> syncedUsers = Caffeine
+        .newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofMinutes(30))
+        .buildAsync();
+
+    /**
+     * The names of the authorities saved in the database, loaded on first use.
+     */
+    private volatile Set<String> knownAuthorities;
+
+    public UserService(
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        CacheManager cacheManager,
+        CacheInvalidationService cacheInvalidationService
+    ) {
         this.userRepository = userRepository;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.cacheInvalidationService = cacheInvalidationService;
     }
 
     /**
@@ -94,17 +128,50 @@ public class UserService {
         return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
     }
 
+    /**
+     * Sync the user with the IdP, unless done for the same claims. Concurrent calls with the same claims wait for
+     * the first one; a sync rolled back is forgotten.
+     */
+    private void syncUserOnce(Map<String, Object> details, User user) {
+        String key = details.get("sub") + ":" + claimsHash(details, user);
+        CompletableFuture<Boolean> sync = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = syncedUsers.asMap().putIfAbsent(key, sync);
+        if (existing != null) {
+            try {
+                existing.join();
+                return;
+            } catch (CompletionException e) {
+                log.debug("Concurrent sync of user '{}' failed, syncing again", user.getLogin());
+                syncUserWithIdP(details, user);
+                return;
+            }
+        }
+        try {
+            syncUserWithIdP(details, user);
+            sync.complete(Boolean.TRUE);
+        } catch (RuntimeException e) {
+            sync.completeExceptionally(e);
+            throw e;
+        }
+        afterRollback(() -> syncedUsers.asMap().remove(key, sync));
+    }
+
     private User syncUserWithIdP(Map<String, Object> details, User user) {
         // save authorities in to sync user roles/groups between IdP and JHipster's local database
-        Collection<String> dbAuthorities = getAuthorities();
-        Collection<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toList());
-        for (String authority : userAuthorities) {
-            if (!dbAuthorities.contains(authority)) {
-                log.debug("Saving authority '{}' in local database", authority);
-                Authority authorityToSave = new Authority();
-                authorityToSave.setName(authority);
-                authorityRepository.save(authorityToSave);
+        Set<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
+        if (!knownAuthorities().containsAll(userAuthorities)) {
+            // other instances may have saved them since
+            Set<String> dbAuthorities = new HashSet<>(getAuthorities());
+            for (String authority : userAuthorities) {
+                if (!dbAuthorities.contains(authority)) {
+                    log.debug("Saving authority '{}' in local database", authority);
+                    Authority authorityToSave = new Authority();
+                    authorityToSave.setName(authority);
+                    authorityRepository.save(authorityToSave);
+                }
             }
+            dbAuthorities.addAll(userAuthorities);
+            afterCommit(() -> knownAuthorities = Collections.unmodifiableSet(dbAuthorities));
         }
         // save account in to sync users between IdP and JHipster's local database
         Optional<User> existingUser = userRepository.findOneByLogin(user.getLogin());
@@ -118,12 +185,12 @@ public class UserService {
                 } else {
                     idpModifiedDate = Instant.ofEpochSecond((Integer) details.get("updated_at"));
                 }
-                if (idpModifiedDate.isAfter(dbModifiedDate)) {
+                if (idpModifiedDate.isAfter(dbModifiedDate) && isChanged(existingUser.get(), user)) {
                     log.debug("Updating user '{}' in local database", user.getLogin());
                     updateUser(user.getFirstName(), user.getLastName(), user.getEmail(), user.getLangKey(), user.getImageUrl());
                 }
-                // no last updated info, blindly update
-            } else {
+                // no last updated info, update when the claims differ
+            } else if (isChanged(existingUser.get(), user)) {
                 log.debug("Updating user '{}' in local database", user.getLogin());
                 updateUser(user.getFirstName(), user.getLastName(), user.getEmail(), user.getLangKey(), user.getImageUrl());
             }
@@ -135,6 +202,80 @@ public class UserService {
         return user;
     }
 
+    private Set<String> knownAuthorities() {
+        Set<String> authorities = knownAuthorities;
+        if (authorities == null) {
+            authorities = Set.copyOf(getAuthorities());
+            knownAuthorities = authorities;
+        }
+        return authorities;
+    }
+
+    private static boolean isChanged(User existingUser, User user) {
+        return (
+            !Objects.equals(existingUser.getFirstName(), user.getFirstName()) ||
+            !Objects.equals(existingUser.getLastName(), user.getLastName()) ||
+            !Objects.equals(existingUser.getEmail(), user.getEmail()) ||
+            !Objects.equals(existingUser.getLangKey(), user.getLangKey()) ||
+            !Objects.equals(existingUser.getImageUrl(), user.getImageUrl())
+        );
+    }
+
+    /**
+     * Hash the claims synchronized to the database, leaving out those changing with each token.
+     */
+    private static String claimsHash(Map<String, Object> details, User user) {
+        String claims = String.join(
+            "\n",
+            user.getId(),
+            user.getLogin(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getEmail(),
+            user.getLangKey(),
+            user.getImageUrl(),
+            String.valueOf(user.isActivated()),
+            String.valueOf(details.get("updated_at")),
+            user.getAuthorities().stream().map(Authority::getName).sorted().collect(Collectors.joining(","))
+        );
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(claims.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            action.run();
+                        }
+                    }
+                }
+            );
+        }
+    }
+
     /**
      * Returns the user from an OAuth 2.0 login or resource server with JWT.
      * Synchronizes the user in the local repository.
@@ -166,7 +307,8 @@ public class UserService {
                 .collect(Collectors.toSet())
         );
 
-        return new AdminUserDTO(syncUserWithIdP(attributes, user));
+        syncUserOnce(attributes, user);
+        return new AdminUserDTO(user);
     }
 
     private static User getUser(Map<String, Object> details) {
@@ -232,8 +374,18 @@ public class UserService {
 
     private void clearUserCaches(User user) {
         Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        cacheInvalidationService.publishAfterCommit(
+            CacheInvalidationService.Kind.CACHE,
+            UserRepository.USERS_BY_LOGIN_CACHE,
+            List.of(user.getLogin())
+        );
         if (user.getEmail() != null) {
             Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            cacheInvalidationService.publishAfterCommit(
+                CacheInvalidationService.Kind.CACHE,
+                UserRepository.USERS_BY_EMAIL_CACHE,
+                List.of(user.getEmail())
+            );
         }
     }
 }
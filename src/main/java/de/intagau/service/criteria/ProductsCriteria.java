@@ -0,0 +1,191 @@
+package de.intagau.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.*;
+
+/**
+ * Criteria class for the {@link de.intagau.domain.Products} entity. This class is used
+ * in {@link de.intagau.web.rest.ProductsResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /products?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ProductsCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter name;
+
+    private StringFilter url;
+
+    private StringFilter ean;
+
+    private StringFilter tags;
+
+    private LongFilter storedId;
+
+    private Boolean distinct;
+
+    public ProductsCriteria() {}
+
+    public ProductsCriteria(ProductsCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.name = other.name == null ? null : other.name.copy();
+        this.url = other.url == null ? null : other.url.copy();
+        this.ean = other.ean == null ? null : other.ean.copy();
+        this.tags = other.tags == null ? null : other.tags.copy();
+        this.storedId = other.storedId == null ? null : other.storedId.copy();
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public ProductsCriteria copy() {
+        return new ProductsCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            id = new LongFilter();
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getName() {
+        return name;
+    }
+
+    public StringFilter name() {
+        if (name == null) {
+            name = new StringFilter();
+        }
+        return name;
+    }
+
+    public void setName(StringFilter name) {
+        this.name = name;
+    }
+
+    public StringFilter getUrl() {
+        return url;
+    }
+
+    public StringFilter url() {
+        if (url == null) {
+            url = new StringFilter();
+        }
+        return url;
+    }
+
+    public void setUrl(StringFilter url) {
+        this.url = url;
+    }
+
+    public StringFilter getEan() {
+        return ean;
+    }
+
+    public StringFilter ean() {
+        if (ean == null) {
+            ean = new StringFilter();
+        }
+        return ean;
+    }
+
+    public void setEan(StringFilter ean) {
+        this.ean = ean;
+    }
+
+    public StringFilter getTags() {
+        return tags;
+    }
+
+    public StringFilter tags() {
+        if (tags == null) {
+            tags = new StringFilter();
+        }
+        return tags;
+    }
+
+    public void setTags(StringFilter tags) {
+        this.tags = tags;
+    }
+
+    public LongFilter getStoredId() {
+        return storedId;
+    }
+
+    public LongFilter storedId() {
+        if (storedId == null) {
+            storedId = new LongFilter();
+        }
+        return storedId;
+    }
+
+    public void setStoredId(LongFilter storedId) {
+        this.storedId = storedId;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ProductsCriteria that = (ProductsCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(name, that.name) &&
+            Objects.equals(url, that.url) &&
+            Objects.equals(ean, that.ean) &&
+            Objects.equals(tags, that.tags) &&
+            Objects.equals(storedId, that.storedId) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, url, ean, tags, storedId, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductsCriteria{" +
+            (id != null ? "id=" + id + ", " : "") +
+            (name != null ? "name=" + name + ", " : "") +
+            (url != null ? "url=" + url + ", " : "") +
+            (ean != null ? "ean=" + ean + ", " : "") +
+            (tags != null ? "tags=" + tags + ", " : "") +
+            (storedId != null ? "storedId=" + storedId + ", " : "") +
+            (distinct != null ? "distinct=" + distinct + ", " : "") +
+            "}";
+    }
+}
@@ -0,0 +1,151 @@
+package de.intagau.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.*;
+
+/**
+ * Criteria class for the {@link de.intagau.domain.StockPosition} entity. This class is used
+ * in {@link de.intagau.web.rest.StockPositionResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /stock-positions?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class StockPositionCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private IntegerFilter amount;
+
+    private StringFilter serialNo;
+
+    private LongFilter inheritId;
+
+    private Boolean distinct;
+
+    public StockPositionCriteria() {}
+
+    public StockPositionCriteria(StockPositionCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.amount = other.amount == null ? null : other.amount.copy();
+        this.serialNo = other.serialNo == null ? null : other.serialNo.copy();
+        this.inheritId = other.inheritId == null ? null : other.inheritId.copy();
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public StockPositionCriteria copy() {
+        return new StockPositionCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            id = new LongFilter();
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public IntegerFilter getAmount() {
+        return amount;
+    }
+
+    public IntegerFilter amount() {
+        if (amount == null) {
+            amount = new IntegerFilter();
+        }
+        return amount;
+    }
+
+    public void setAmount(IntegerFilter amount) {
+        this.amount = amount;
+    }
+
+    public StringFilter getSerialNo() {
+        return serialNo;
+    }
+
+    public StringFilter serialNo() {
+        if (serialNo == null) {
+            serialNo = new StringFilter();
+        }
+        return serialNo;
+    }
+
+    public void setSerialNo(StringFilter serialNo) {
+        this.serialNo = serialNo;
+    }
+
+    public LongFilter getInheritId() {
+        return inheritId;
+    }
+
+    public LongFilter inheritId() {
+        if (inheritId == null) {
+            inheritId = new LongFilter();
+        }
+        return inheritId;
+    }
+
+    public void setInheritId(LongFilter inheritId) {
+        this.inheritId = inheritId;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final StockPositionCriteria that = (StockPositionCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(amount, that.amount) &&
+            Objects.equals(serialNo, that.serialNo) &&
+            Objects.equals(inheritId, that.inheritId) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, amount, serialNo, inheritId, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockPositionCriteria{" +
+            (id != null ? "id=" + id + ", " : "") +
+            (amount != null ? "amount=" + amount + ", " : "") +
+            (serialNo != null ? "serialNo=" + serialNo + ", " : "") +
+            (inheritId != null ? "inheritId=" + inheritId + ", " : "") +
+            (distinct != null ? "distinct=" + distinct + ", " : "") +
+            "}";
+    }
+}
@@ -0,0 +1,131 @@
+package de.intagau.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.*;
+
+/**
+ * Criteria class for the {@link de.intagau.domain.Storage} entity. This class is used
+ * in {@link de.intagau.web.rest.StorageResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /storages?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class StorageCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter key;
+
+    private LongFilter storageRoomId;
+
+    private Boolean distinct;
+
+    public StorageCriteria() {}
+
+    public StorageCriteria(StorageCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.key = other.key == null ? null : other.key.copy();
+        this.storageRoomId = other.storageRoomId == null ? null : other.storageRoomId.copy();
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public StorageCriteria copy() {
+        return new StorageCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            id = new LongFilter();
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getKey() {
+        return key;
+    }
+
+    public StringFilter key() {
+        if (key == null) {
+            key = new StringFilter();
+        }
+        return key;
+    }
+
+    public void setKey(StringFilter key) {
+        this.key = key;
+    }
+
+    public LongFilter getStorageRoomId() {
+        return storageRoomId;
+    }
+
+    public LongFilter storageRoomId() {
+        if (storageRoomId == null) {
+            storageRoomId = new LongFilter();
+        }
+        return storageRoomId;
+    }
+
+    public void setStorageRoomId(LongFilter storageRoomId) {
+        this.storageRoomId = storageRoomId;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final StorageCriteria that = (StorageCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(key, that.key) &&
+            Objects.equals(storageRoomId, that.storageRoomId) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, key, storageRoomId, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StorageCriteria{" +
+            (id != null ? "id=" + id + ", " : "") +
+            (key != null ? "key=" + key + ", " : "") +
+            (storageRoomId != null ? "storageRoomId=" + storageRoomId + ", " : "") +
+            (distinct != null ? "distinct=" + distinct + ", " : "") +
+            "}";
+    }
+}
@@ -0,0 +1,171 @@
+package de.intagau.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.*;
+
+/**
+ * Criteria class for the {@link de.intagau.domain.StorageRoom} entity. This class is used
+ * in {@link de.intagau.web.rest.StorageRoomResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /storage-rooms?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class StorageRoomCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter name;
+
+    private LongFilter inheritId;
+
+    private LongFilter containsId;
+
+    private LongFilter productsId;
+
+    private Boolean distinct;
+
+    public StorageRoomCriteria() {}
+
+    public StorageRoomCriteria(StorageRoomCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.name = other.name == null ? null : other.name.copy();
+        this.inheritId = other.inheritId == null ? null : other.inheritId.copy();
+        this.containsId = other.containsId == null ? null : other.containsId.copy();
+        this.productsId = other.productsId == null ? null : other.productsId.copy();
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public StorageRoomCriteria copy() {
+        return new StorageRoomCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            id = new LongFilter();
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getName() {
+        return name;
+    }
+
+    public StringFilter name() {
+        if (name == null) {
+            name = new StringFilter();
+        }
+        return name;
+    }
+
+    public void setName(StringFilter name) {
+        this.name = name;
+    }
+
+    public LongFilter getInheritId() {
+        return inheritId;
+    }
+
+    public LongFilter inheritId() {
+        if (inheritId == null) {
+            inheritId = new LongFilter();
+        }
+        return inheritId;
+    }
+
+    public void setInheritId(LongFilter inheritId) {
+        this.inheritId = inheritId;
+    }
+
+    public LongFilter getContainsId() {
+        return containsId;
+    }
+
+    public LongFilter containsId() {
+        if (containsId == null) {
+            containsId = new LongFilter();
+        }
+        return containsId;
+    }
+
+    public void setContainsId(LongFilter containsId) {
+        this.containsId = containsId;
+    }
+
+    public LongFilter getProductsId() {
+        return productsId;
+    }
+
+    public LongFilter productsId() {
+        if (productsId == null) {
+            productsId = new LongFilter();
+        }
+        return productsId;
+    }
+
+    public void setProductsId(LongFilter productsId) {
+        this.productsId = productsId;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final StorageRoomCriteria that = (StorageRoomCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(name, that.name) &&
+            Objects.equals(inheritId, that.inheritId) &&
+            Objects.equals(containsId, that.containsId) &&
+            Objects.equals(productsId, that.productsId) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, inheritId, containsId, productsId, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StorageRoomCriteria{" +
+            (id != null ? "id=" + id + ", " : "") +
+            (name != null ? "name=" + name + ", " : "") +
+            (inheritId != null ? "inheritId=" + inheritId + ", " : "") +
+            (containsId != null ? "containsId=" + containsId + ", " : "") +
+            (productsId != null ? "productsId=" + productsId + ", " : "") +
+            (distinct != null ? "distinct=" + distinct + ", " : "") +
+            "}";
+    }
+}
@@ -0,0 +1,150 @@
+package de.intagau.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO summarizing a bulk import: how many rows were read and imported, and why the others were rejected.
+ */
+public class ImportReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String entity;
+
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long rowsRejected;
+
+    private long durationMillis;
+
+    private boolean errorsTruncated;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    public ImportReportDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ImportReportDTO(String entity) {
+        this.entity = entity;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportReportDTO{" +
+            "entity='" + entity + '\'' +
+            ", rowsRead=" + rowsRead +
+            ", rowsImported=" + rowsImported +
+            ", rowsRejected=" + rowsRejected +
+            ", durationMillis=" + durationMillis +
+            ", errorsTruncated=" + errorsTruncated +
+            "}";
+    }
+
+    /**
+     * A rejected row, identified by the line it starts on in the uploaded file.
+     */
+    public static class RowError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long line;
+
+        private String message;
+
+        public RowError() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "RowError{" +
+                "line=" + line +
+                ", message='" + message + '\'' +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package de.intagau.service.dto;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position in a keyset (seek) paginated listing: the sort property together with the sort key and the id
+ * of the last row of the previous page.
+ * <p>
+ * Clients only see the opaque token produced by {@link #encode()}, so the format can change without breaking them.
+ */
+public final class KeysetCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SEPARATOR = "\n";
+
+    private final String property;
+
+    private final String key;
+
+    private final Long id;
+
+    public KeysetCursor(String property, String key, Long id) {
+        this.property = Objects.requireNonNull(property);
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Create a cursor pointing before the first row of a listing sorted by {@code property}.
+     *
+     * @param property the sort property.
+     * @return the start cursor.
+     */
+    public static KeysetCursor start(String property) {
+        return new KeysetCursor(property, null, null);
+    }
+
+    /**
+     * Decode a token previously returned by {@link #encode()}. An empty token designates the start of the listing.
+     *
+     * @param token the opaque token sent by the client.
+     * @param property the sort property the client asked for.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed or was issued for another sort property.
+     */
+    public static KeysetCursor decode(String token, String property) {
+        if (token == null || token.isBlank()) {
+            return start(property);
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (parts.length < 2 || !parts[0].equals(property)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        try {
+            return new KeysetCursor(parts[0], parts.length == 3 ? parts[2] : null, Long.valueOf(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Encode this cursor as an opaque, URL safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        String raw = property + SEPARATOR + id + (key != null ? SEPARATOR + key : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isStart() {
+        return id == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor that = (KeysetCursor) o;
+        return property.equals(that.property) && Objects.equals(key, that.key) && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, key, id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + property + "'" +
+            ", key='" + key + "'" +
+            ", id=" + id +
+            "}";
+    }
+}
@@ -0,0 +1,73 @@
+package de.intagau.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the stock totals of a product, over all the storage rooms assigned to it.
+ */
+public class ProductStockSummaryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long productsId;
+
+    private long totalAmount;
+
+    private long positionCount;
+
+    private long storageRoomCount;
+
+    public ProductStockSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ProductStockSummaryDTO(Long productsId, long totalAmount, long positionCount, long storageRoomCount) {
+        this.productsId = productsId;
+        this.totalAmount = totalAmount;
+        this.positionCount = positionCount;
+        this.storageRoomCount = storageRoomCount;
+    }
+
+    public Long getProductsId() {
+        return productsId;
+    }
+
+    public void setProductsId(Long productsId) {
+        this.productsId = productsId;
+    }
+
+    public long getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(long totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getPositionCount() {
+        return positionCount;
+    }
+
+    public void setPositionCount(long positionCount) {
+        this.positionCount = positionCount;
+    }
+
+    public long getStorageRoomCount() {
+        return storageRoomCount;
+    }
+
+    public void setStorageRoomCount(long storageRoomCount) {
+        this.storageRoomCount = storageRoomCount;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductStockSummaryDTO{" +
+            "productsId=" + productsId +
+            ", totalAmount=" + totalAmount +
+            ", positionCount=" + positionCount +
+            ", storageRoomCount=" + storageRoomCount +
+            "}";
+    }
+}
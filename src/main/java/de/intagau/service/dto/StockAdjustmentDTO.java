@@ -0,0 +1,51 @@
+package de.intagau.service.dto;
+
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A DTO representing a relative change of the amount of a stock position.
+ */
+public class StockAdjustmentDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long stockPositionId;
+
+    @NotNull
+    private Integer delta;
+
+    public StockAdjustmentDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public StockAdjustmentDTO(Long stockPositionId, Integer delta) {
+        this.stockPositionId = stockPositionId;
+        this.delta = delta;
+    }
+
+    public Long getStockPositionId() {
+        return stockPositionId;
+    }
+
+    public void setStockPositionId(Long stockPositionId) {
+        this.stockPositionId = stockPositionId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockAdjustmentDTO{" +
+            "stockPositionId=" + stockPositionId +
+            ", delta=" + delta +
+            "}";
+    }
+}
@@ -0,0 +1,85 @@
+package de.intagau.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the outcome of a {@link StockAdjustmentDTO}.
+ */
+public class StockAdjustmentResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Whether an adjustment was applied, and why not.
+     */
+    public enum Status {
+        APPLIED,
+        INSUFFICIENT_STOCK,
+        NOT_FOUND,
+    }
+
+    private Long stockPositionId;
+
+    private Integer delta;
+
+    private Status status;
+
+    private Integer amount;
+
+    public StockAdjustmentResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public StockAdjustmentResultDTO(Long stockPositionId, Integer delta, Status status, Integer amount) {
+        this.stockPositionId = stockPositionId;
+        this.delta = delta;
+        this.status = status;
+        this.amount = amount;
+    }
+
+    public Long getStockPositionId() {
+        return stockPositionId;
+    }
+
+    public void setStockPositionId(Long stockPositionId) {
+        this.stockPositionId = stockPositionId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the amount after the adjustment, or the unchanged amount if it was not applied.
+     */
+    public Integer getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Integer amount) {
+        this.amount = amount;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockAdjustmentResultDTO{" +
+            "stockPositionId=" + stockPositionId +
+            ", delta=" + delta +
+            ", status=" + status +
+            ", amount=" + amount +
+            "}";
+    }
+}
@@ -0,0 +1,92 @@
+package de.intagau.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO representing the amount of a stock position at a point in time, as rebuilt from the ledger.
+ */
+public class StockLevelDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long stockPositionId;
+
+    private Instant at;
+
+    private long amount;
+
+    private Instant snapshotAt;
+
+    private long replayedMovements;
+
+    public StockLevelDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public StockLevelDTO(Long stockPositionId, Instant at, long amount, Instant snapshotAt, long replayedMovements) {
+        this.stockPositionId = stockPositionId;
+        this.at = at;
+        this.amount = amount;
+        this.snapshotAt = snapshotAt;
+        this.replayedMovements = replayedMovements;
+    }
+
+    public Long getStockPositionId() {
+        return stockPositionId;
+    }
+
+    public void setStockPositionId(Long stockPositionId) {
+        this.stockPositionId = stockPositionId;
+    }
+
+    public Instant getAt() {
+        return at;
+    }
+
+    public void setAt(Instant at) {
+        this.at = at;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public void setAmount(long amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * @return when the snapshot the amount was rebuilt from was taken, or {@code null} if there was none.
+     */
+    public Instant getSnapshotAt() {
+        return snapshotAt;
+    }
+
+    public void setSnapshotAt(Instant snapshotAt) {
+        this.snapshotAt = snapshotAt;
+    }
+
+    /**
+     * @return the number of movements replayed on top of the snapshot.
+     */
+    public long getReplayedMovements() {
+        return replayedMovements;
+    }
+
+    public void setReplayedMovements(long replayedMovements) {
+        this.replayedMovements = replayedMovements;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockLevelDTO{" +
+            "stockPositionId=" + stockPositionId +
+            ", at='" + at + "'" +
+            ", amount=" + amount +
+            ", snapshotAt='" + snapshotAt + "'" +
+            ", replayedMovements=" + replayedMovements +
+            "}";
+    }
+}
@@ -0,0 +1,69 @@
+package de.intagau.service.dto;
+
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.StorageRoom;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing a storage room with everything it contains, recursively: the nested rooms with their
+ * storages, and the stock positions held in any of those storages.
+ */
+public class StorageSubtreeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long storageRoomId;
+
+    private List<StorageRoom> storageRooms = new ArrayList<>();
+
+    private List<StockPosition> stockPositions = new ArrayList<>();
+
+    public StorageSubtreeDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public StorageSubtreeDTO(Long storageRoomId, List<StorageRoom> storageRooms, List<StockPosition> stockPositions) {
+        this.storageRoomId = storageRoomId;
+        this.storageRooms = storageRooms;
+        this.stockPositions = stockPositions;
+    }
+
+    public Long getStorageRoomId() {
+        return storageRoomId;
+    }
+
+    public void setStorageRoomId(Long storageRoomId) {
+        this.storageRoomId = storageRoomId;
+    }
+
+    /**
+     * @return the room itself followed by its descendants, parents before children.
+     */
+    public List<StorageRoom> getStorageRooms() {
+        return storageRooms;
+    }
+
+    public void setStorageRooms(List<StorageRoom> storageRooms) {
+        this.storageRooms = storageRooms;
+    }
+
+    public List<StockPosition> getStockPositions() {
+        return stockPositions;
+    }
+
+    public void setStockPositions(List<StockPosition> stockPositions) {
+        this.stockPositions = stockPositions;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StorageSubtreeDTO{" +
+            "storageRoomId=" + storageRoomId +
+            ", storageRooms=" + storageRooms.size() +
+            ", stockPositions=" + stockPositions.size() +
+            "}";
+    }
+}
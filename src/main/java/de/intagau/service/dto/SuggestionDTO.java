@@ -0,0 +1,37 @@
+package de.intagau.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing an entity proposed for a typed prefix: its id and the label the prefix matched.
+ */
+public class SuggestionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String label;
+
+    public SuggestionDTO(Long id, String label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SuggestionDTO{" +
+            "id=" + id +
+            ", label='" + label + "'" +
+            "}";
+    }
+}
@@ -1,10 +1,21 @@
 package de.intagau.web.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.intagau.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
@@ -16,14 +27,23 @@ import org.springframework.security.oauth2.client.web.DefaultOAuth2Authorization
 import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestRedirectFilter;
 import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestResolver;
 import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
 import org.springframework.security.web.DefaultRedirectStrategy;
 import org.springframework.security.web.RedirectStrategy;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 /**
  * Refresh oauth2 tokens.
+ * <p>
+ * Only the requests matching {@code application.token-refresh.paths} are filtered. The access token of the
+ * session is only refreshed once it expires within {@code application.token-refresh.skew}, by a single request
+ * of the session at a time; the concurrent requests of the session then use the refreshed token. The refreshes
+ * are counted by outcome ({@code oauth2.token.refreshes}).
  */
 @Component
 public class OAuth2RefreshTokensWebFilter extends OncePerRequestFilter {
@@ -32,11 +52,41 @@ public class OAuth2RefreshTokensWebFilter extends OncePerRequestFilter {
     private final OAuth2AuthorizedClientRepository authorizedClientRepository;
     private final OAuth2AuthorizationRequestResolver authorizationRequestResolver;
     private final RedirectStrategy authorizationRedirectStrategy = new DefaultRedirectStrategy();
+    private final RequestMatcher refreshedRequests;
+    private final Duration skew;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
 
+    /**
+     * Locks of the sessions refreshing their token, kept while in use.
+     */
+    private final Cache<String, ReentrantLock> sessionLocks = Caffeine.newBuilder().weakValues().build();
+
+    @Autowired
     public OAuth2RefreshTokensWebFilter(
         OAuth2AuthorizedClientManager clientManager,
         OAuth2AuthorizedClientRepository authorizedClientRepository,
-        ClientRegistrationRepository clientRegistrationRepository
+        ClientRegistrationRepository clientRegistrationRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this(
+            clientManager,
+            authorizedClientRepository,
+            clientRegistrationRepository,
+            applicationProperties.getTokenRefresh(),
+            meterRegistry,
+            Clock.systemUTC()
+        );
+    }
+
+    OAuth2RefreshTokensWebFilter(
+        OAuth2AuthorizedClientManager clientManager,
+        OAuth2AuthorizedClientRepository authorizedClientRepository,
+        ClientRegistrationRepository clientRegistrationRepository,
+        ApplicationProperties.TokenRefresh properties,
+        MeterRegistry meterRegistry,
+        Clock clock
     ) {
         this.clientManager = clientManager;
         this.authorizedClientRepository = authorizedClientRepository;
@@ -45,6 +95,16 @@ public class OAuth2RefreshTokensWebFilter extends OncePerRequestFilter {
                 clientRegistrationRepository,
                 OAuth2AuthorizationRequestRedirectFilter.DEFAULT_AUTHORIZATION_REQUEST_BASE_URI
             );
+        this.refreshedRequests =
+            new OrRequestMatcher(properties.getPaths().stream().map(AntPathRequestMatcher::new).collect(Collectors.toList()));
+        this.skew = properties.getSkew();
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !refreshedRequests.matches(request);
     }
 
     @Override
@@ -53,9 +113,9 @@ public class OAuth2RefreshTokensWebFilter extends OncePerRequestFilter {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if ((authentication instanceof OAuth2AuthenticationToken)) {
             try {
-                OAuth2AuthorizedClient authorizedClient = authorizedClient((OAuth2AuthenticationToken) authentication);
-                this.authorizedClientRepository.saveAuthorizedClient(authorizedClient, authentication, request, response);
+                refreshIfExpiring((OAuth2AuthenticationToken) authentication, request, response);
             } catch (Exception e) {
+                count("failure");
                 OAuth2AuthorizationRequest authorizationRequest = this.authorizationRequestResolver.resolve(request);
                 if (authorizationRequest != null) {
                     this.authorizationRedirectStrategy.sendRedirect(request, response, authorizationRequest.getAuthorizationRequestUri());
@@ -67,11 +127,64 @@ public class OAuth2RefreshTokensWebFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private OAuth2AuthorizedClient authorizedClient(OAuth2AuthenticationToken oauth2Authentication) {
+    private void refreshIfExpiring(OAuth2AuthenticationToken authentication, HttpServletRequest request, HttpServletResponse response) {
+        if (!isExpiring(loadAuthorizedClient(authentication, request))) {
+            return;
+        }
+        ReentrantLock lock = sessionLocks.get(request.getSession().getId(), id -> new ReentrantLock());
+        lock.lock();
+        try {
+            // Another request of the session may have refreshed the token while waiting
+            OAuth2AuthorizedClient current = loadAuthorizedClient(authentication, request);
+            if (!isExpiring(current)) {
+                return;
+            }
+            OAuth2AuthorizedClient authorizedClient = authorizedClient(authentication, request, response);
+            if (authorizedClient == null) {
+                throw new IllegalStateException("The client " + authentication.getAuthorizedClientRegistrationId() + " is not authorized");
+            }
+            this.authorizedClientRepository.saveAuthorizedClient(authorizedClient, authentication, request, response);
+            if (current == null || authorizedClient.getAccessToken() != current.getAccessToken()) {
+                count("success");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private OAuth2AuthorizedClient loadAuthorizedClient(OAuth2AuthenticationToken authentication, HttpServletRequest request) {
+        return authorizedClientRepository.loadAuthorizedClient(authentication.getAuthorizedClientRegistrationId(), authentication, request);
+    }
+
+    private boolean isExpiring(OAuth2AuthorizedClient authorizedClient) {
+        if (authorizedClient == null) {
+            return true;
+        }
+        OAuth2AccessToken accessToken = authorizedClient.getAccessToken();
+        Instant expiresAt = accessToken.getExpiresAt();
+        return expiresAt != null && !clock.instant().isBefore(expiresAt.minus(skew));
+    }
+
+    private void count(String outcome) {
+        Counter
+            .builder("oauth2.token.refreshes")
+            .description("Refreshes of the access tokens of the sessions")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private OAuth2AuthorizedClient authorizedClient(
+        OAuth2AuthenticationToken oauth2Authentication,
+        HttpServletRequest servletRequest,
+        HttpServletResponse servletResponse
+    ) {
         String clientRegistrationId = oauth2Authentication.getAuthorizedClientRegistrationId();
         OAuth2AuthorizeRequest request = OAuth2AuthorizeRequest
             .withClientRegistrationId(clientRegistrationId)
             .principal(oauth2Authentication)
+            .attribute(HttpServletRequest.class.getName(), servletRequest)
+            .attribute(HttpServletResponse.class.getName(), servletResponse)
             .build();
         if (clientManager == null) {
             throw new IllegalStateException(
@@ -0,0 +1,87 @@
+package de.intagau.web.rest;
+
+import de.intagau.service.InventoryExportService;
+import de.intagau.service.InventoryExportService.ExportedEntity;
+import de.intagau.service.InventoryExportService.Format;
+import de.intagau.web.rest.errors.BadRequestAlertException;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller streaming full exports of the inventory entities.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportResource {
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final Logger log = LoggerFactory.getLogger(ExportResource.class);
+
+    private static final String ENTITY_NAME = "export";
+
+    private final InventoryExportService inventoryExportService;
+
+    public ExportResource(InventoryExportService inventoryExportService) {
+        this.inventoryExportService = inventoryExportService;
+    }
+
+    /**
+     * {@code GET  /export/:entity} : stream all the rows of an entity.
+     *
+     * @param entity the REST resource name of the entity, e.g. {@code products} or {@code stock-positions}.
+     * @param format the output format, {@code ndjson} (the default) or {@code csv}.
+     * @param gzip whether to gzip the response.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the rows streamed in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported,
+     * or with status {@code 404 (Not Found)} if the entity cannot be exported.
+     */
+    @GetMapping("/{entity}")
+    public ResponseEntity<StreamingResponseBody> exportEntity(
+        @PathVariable String entity,
+        @RequestParam(defaultValue = "ndjson") String format,
+        @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        log.debug("REST request to export {} as {}, gzip: {}", entity, format, gzip);
+        Optional<ExportedEntity> exportedEntity = ExportedEntity.fromResourceName(entity);
+        if (exportedEntity.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Format exportFormat = Format
+            .fromExtension(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid"));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exportFormat == Format.CSV ? TEXT_CSV : APPLICATION_NDJSON);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(entity + "." + exportFormat.getExtension()).build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                inventoryExportService.export(exportedEntity.get(), exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                inventoryExportService.export(exportedEntity.get(), exportFormat, out);
+            }
+        };
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
@@ -0,0 +1,68 @@
+package de.intagau.web.rest;
+
+import de.intagau.service.InventoryImportService;
+import de.intagau.service.InventoryImportService.Format;
+import de.intagau.service.InventoryImportService.ImportedEntity;
+import de.intagau.service.dto.ImportReportDTO;
+import de.intagau.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for bulk imports of the inventory entities.
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportResource {
+
+    private final Logger log = LoggerFactory.getLogger(ImportResource.class);
+
+    private static final String ENTITY_NAME = "import";
+
+    private final InventoryImportService inventoryImportService;
+
+    public ImportResource(InventoryImportService inventoryImportService) {
+        this.inventoryImportService = inventoryImportService;
+    }
+
+    /**
+     * {@code POST  /import/:entity} : import the rows of a {@code ;} separated CSV file or of an NDJSON file.
+     *
+     * @param entity the REST resource name of the entity, {@code products} or {@code stock-positions}.
+     * @param contentType {@code text/csv} or {@code application/x-ndjson}.
+     * @param body the uploaded file.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the import report in body,
+     * or with status {@code 400 (Bad Request)} if the CSV header is invalid,
+     * or with status {@code 404 (Not Found)} if the entity cannot be imported.
+     * @throws IOException if the upload could not be read.
+     */
+    @PostMapping(value = "/{entity}", consumes = { "text/csv", ExportResource.NDJSON_VALUE })
+    public ResponseEntity<ImportReportDTO> importEntity(
+        @PathVariable String entity,
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to import {} from {}", entity, contentType);
+        Optional<ImportedEntity> importedEntity = ImportedEntity.fromResourceName(entity);
+        if (importedEntity.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Format format = ExportResource.APPLICATION_NDJSON.isCompatibleWith(contentType) ? Format.NDJSON : Format.CSV;
+        try {
+            return ResponseEntity.ok(inventoryImportService.importRows(importedEntity.get(), format, body));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "headerinvalid");
+        }
+    }
+}
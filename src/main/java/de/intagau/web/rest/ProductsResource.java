@@ -2,7 +2,13 @@ package de.intagau.web.rest;
 
 import de.intagau.domain.Products;
 import de.intagau.repository.ProductsRepository;
+import de.intagau.service.ProductTagService;
+import de.intagau.service.ProductsSearchService;
+import de.intagau.service.ProductsQueryService;
+import de.intagau.service.criteria.ProductsCriteria;
+import de.intagau.service.dto.KeysetCursor;
 import de.intagau.web.rest.errors.BadRequestAlertException;
+import de.intagau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -13,10 +19,16 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -36,8 +48,22 @@ public class ProductsResource {
 
     private final ProductsRepository productsRepository;
 
-    public ProductsResource(ProductsRepository productsRepository) {
+    private final ProductsQueryService productsQueryService;
+
+    private final ProductTagService productTagService;
+
+    private final ProductsSearchService productsSearchService;
+
+    public ProductsResource(
+        ProductsRepository productsRepository,
+        ProductsQueryService productsQueryService,
+        ProductTagService productTagService,
+        ProductsSearchService productsSearchService
+    ) {
         this.productsRepository = productsRepository;
+        this.productsQueryService = productsQueryService;
+        this.productTagService = productTagService;
+        this.productsSearchService = productsSearchService;
     }
 
     /**
@@ -151,12 +177,89 @@ public class ProductsResource {
     /**
      * {@code GET  /products} : get all the products.
      *
+     * @param pageable the pagination information.
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
      */
     @GetMapping("/products")
-    public List<Products> getAllProducts() {
-        log.debug("REST request to get all Products");
-        return productsRepository.findAll();
+    public ResponseEntity<List<Products>> getAllProducts(
+        ProductsCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get Products by criteria: {}", criteria);
+        Page<Products> page = productsQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products?after=:cursor} : get the products following a cursor, in keyset order.
+     * <p>
+     * Pass an empty {@code after} to get the first slice, then follow the {@code X-Next-Cursor} header
+     * (or the {@code next} link) until it is absent. Sorting is ascending on the id or the name.
+     *
+     * @param after the cursor returned with the previous slice.
+     * @param pageable the size and sort of the slice; the page number is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the sort order is invalid.
+     */
+    @GetMapping(value = "/products", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    public ResponseEntity<List<Products>> getAllProductsAfter(
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get Products after cursor: {}", after);
+        KeysetCursor cursor = KeysetPaginationUtil.resolveCursor(
+            after,
+            pageable.getSort(),
+            ENTITY_NAME,
+            ProductsQueryService.SORT_BY_ID,
+            ProductsQueryService.SORT_BY_NAME
+        );
+        Slice<Products> slice = productsQueryService.findAllAfter(cursor, pageable.getPageSize());
+        KeysetCursor next = slice.hasNext()
+            ? productsQueryService.cursorAfter(cursor, slice.getContent().get(slice.getNumberOfElements() - 1))
+            : null;
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), next);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /products/count} : count all the products.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/products/count")
+    public ResponseEntity<Long> countProducts(ProductsCriteria criteria) {
+        log.debug("REST request to count Products by criteria: {}", criteria);
+        return ResponseEntity.ok().body(productsQueryService.countByCriteria(criteria));
+    }
+
+    /**
+     * {@code GET  /products/search?tags=:tags&mode=:mode} : get the products by tags.
+     *
+     * @param tags the comma separated tags, compared case-insensitively.
+     * @param mode {@code all} for the products having every tag, {@code any} for those having one of them.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 400 (Bad Request)} if the tags or the mode are invalid.
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<List<Products>> searchProductsByTags(
+        @RequestParam List<String> tags,
+        @RequestParam(defaultValue = "all") String mode,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Products with {} of the tags {}", mode, tags);
+        Page<Products> page;
+        try {
+            page = productTagService.findAllByTags(tags, ProductTagService.MatchMode.fromParameter(mode), pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "tagsearchinvalid");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
     /**
@@ -172,6 +275,21 @@ public class ProductsResource {
         return ResponseUtil.wrapOrNotFound(products);
     }
 
+    /**
+     * {@code GET  /products/by-ean/:ean} : get the products with an EAN, as scanned from its barcode.
+     * <p>
+     * The lookups are cached, and the cache entries are evicted when the products change.
+     *
+     * @param ean the EAN of the products to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the products, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/products/by-ean/{ean}")
+    public ResponseEntity<Products> getProductsByEan(@PathVariable String ean) {
+        log.debug("REST request to get Products by EAN : {}", ean);
+        Optional<Products> products = productsRepository.findFirstByEanOrderByIdAsc(ean);
+        return ResponseUtil.wrapOrNotFound(products);
+    }
+
     /**
      * {@code DELETE  /products/:id} : delete the "id" products.
      *
@@ -187,4 +305,23 @@ public class ProductsResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code SEARCH  /_search/products?query=:query} : search for the products corresponding
+     * to the query, best matches first.
+     *
+     * @param query the query of the products search.
+     * @param pageable the pagination information.
+     * @return the result of the search.
+     */
+    @GetMapping("/_search/products")
+    public ResponseEntity<List<Products>> searchProducts(
+        @RequestParam String query,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Products for query {}", query);
+        Page<Products> page = productsSearchService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
 }
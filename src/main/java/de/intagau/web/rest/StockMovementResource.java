@@ -0,0 +1,76 @@
+package de.intagau.web.rest;
+
+import de.intagau.domain.StockMovement;
+import de.intagau.service.StockLedgerService;
+import de.intagau.service.dto.StockLevelDTO;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for reading the {@link StockMovement} ledger of the stock positions.
+ */
+@RestController
+@RequestMapping("/api")
+public class StockMovementResource {
+
+    private final Logger log = LoggerFactory.getLogger(StockMovementResource.class);
+
+    private final StockLedgerService stockLedgerService;
+
+    public StockMovementResource(StockLedgerService stockLedgerService) {
+        this.stockLedgerService = stockLedgerService;
+    }
+
+    /**
+     * {@code GET  /stock-positions/:id/movements} : get the movements of the "id" stockPosition, latest first.
+     *
+     * @param id the id of the stockPosition.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of movements in body.
+     */
+    @GetMapping("/stock-positions/{id}/movements")
+    public ResponseEntity<List<StockMovement>> getStockMovements(
+        @PathVariable Long id,
+        @org.springdoc.api.annotations.ParameterObject @SortDefault(
+            sort = { "movedAt", "id" },
+            direction = Sort.Direction.DESC
+        ) Pageable pageable
+    ) {
+        log.debug("REST request to get a page of StockMovements of StockPosition : {}", id);
+        Page<StockMovement> page = stockLedgerService.findMovements(id, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /stock-positions/:id/amount?at=:at} : get the amount of the "id" stockPosition at a point in time.
+     *
+     * @param id the id of the stockPosition.
+     * @param at the point in time, as an ISO-8601 instant; now if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the amount,
+     * or with status {@code 404 (Not Found)} if the stockPosition did not exist at that time.
+     */
+    @GetMapping("/stock-positions/{id}/amount")
+    public ResponseEntity<StockLevelDTO> getStockLevel(@PathVariable Long id, @RequestParam(required = false) Instant at) {
+        log.debug("REST request to get the amount of StockPosition : {} at {}", id, at);
+        Optional<StockLevelDTO> stockLevel = stockLedgerService.findAmountAt(id, at != null ? at : Instant.now());
+        return ResponseUtil.wrapOrNotFound(stockLevel);
+    }
+}
@@ -2,7 +2,15 @@ package de.intagau.web.rest;
 
 import de.intagau.domain.StockPosition;
 import de.intagau.repository.StockPositionRepository;
+import de.intagau.service.StockAdjustmentService;
+import de.intagau.service.SerialNumberService;
+import de.intagau.service.StockPositionQueryService;
+import de.intagau.service.criteria.StockPositionCriteria;
+import de.intagau.service.dto.KeysetCursor;
+import de.intagau.service.dto.StockAdjustmentDTO;
+import de.intagau.service.dto.StockAdjustmentResultDTO;
 import de.intagau.web.rest.errors.BadRequestAlertException;
+import de.intagau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -13,10 +21,16 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -36,15 +50,29 @@ public class StockPositionResource {
 
     private final StockPositionRepository stockPositionRepository;
 
-    public StockPositionResource(StockPositionRepository stockPositionRepository) {
+    private final StockPositionQueryService stockPositionQueryService;
+
+    private final StockAdjustmentService stockAdjustmentService;
+
+    private final SerialNumberService serialNumberService;
+
+    public StockPositionResource(
+        StockPositionRepository stockPositionRepository,
+        StockPositionQueryService stockPositionQueryService,
+        StockAdjustmentService stockAdjustmentService,
+        SerialNumberService serialNumberService
+    ) {
         this.stockPositionRepository = stockPositionRepository;
+        this.stockPositionQueryService = stockPositionQueryService;
+        this.stockAdjustmentService = stockAdjustmentService;
+        this.serialNumberService = serialNumberService;
     }
 
     /**
      * {@code POST  /stock-positions} : Create a new stockPosition.
      *
      * @param stockPosition the stockPosition to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new stockPosition, or with status {@code 400 (Bad Request)} if the stockPosition has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new stockPosition, or with status {@code 400 (Bad Request)} if the stockPosition has already an ID or its serial number is already used.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/stock-positions")
@@ -53,6 +81,9 @@ public class StockPositionResource {
         if (stockPosition.getId() != null) {
             throw new BadRequestAlertException("A new stockPosition cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        if (stockPosition.getSerialNo() != null && serialNumberService.exists(stockPosition.getSerialNo())) {
+            throw new BadRequestAlertException("A stockPosition already has this serial number", ENTITY_NAME, "serialexists");
+        }
         StockPosition result = stockPositionRepository.save(stockPosition);
         return ResponseEntity
             .created(new URI("/api/stock-positions/" + result.getId()))
@@ -66,7 +97,7 @@ public class StockPositionResource {
      * @param id the id of the stockPosition to save.
      * @param stockPosition the stockPosition to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated stockPosition,
-     * or with status {@code 400 (Bad Request)} if the stockPosition is not valid,
+     * or with status {@code 400 (Bad Request)} if the stockPosition is not valid or its serial number is used by another stockPosition,
      * or with status {@code 500 (Internal Server Error)} if the stockPosition couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -86,6 +117,9 @@ public class StockPositionResource {
         if (!stockPositionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (stockPosition.getSerialNo() != null && serialNumberService.exists(stockPosition.getSerialNo(), id)) {
+            throw new BadRequestAlertException("Another stockPosition already has this serial number", ENTITY_NAME, "serialexists");
+        }
 
         StockPosition result = stockPositionRepository.save(stockPosition);
         return ResponseEntity
@@ -100,7 +134,7 @@ public class StockPositionResource {
      * @param id the id of the stockPosition to save.
      * @param stockPosition the stockPosition to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated stockPosition,
-     * or with status {@code 400 (Bad Request)} if the stockPosition is not valid,
+     * or with status {@code 400 (Bad Request)} if the stockPosition is not valid or its serial number is used by another stockPosition,
      * or with status {@code 404 (Not Found)} if the stockPosition is not found,
      * or with status {@code 500 (Internal Server Error)} if the stockPosition couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -121,6 +155,9 @@ public class StockPositionResource {
         if (!stockPositionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (stockPosition.getSerialNo() != null && serialNumberService.exists(stockPosition.getSerialNo(), id)) {
+            throw new BadRequestAlertException("Another stockPosition already has this serial number", ENTITY_NAME, "serialexists");
+        }
 
         Optional<StockPosition> result = stockPositionRepository
             .findById(stockPosition.getId())
@@ -142,15 +179,132 @@ public class StockPositionResource {
         );
     }
 
+    /**
+     * {@code POST  /stock-positions/:id/adjust} : Add a delta to the amount of an existing stockPosition.
+     * <p>
+     * Unlike a {@code PUT} of the whole entity, concurrent adjustments of the same stockPosition never overwrite
+     * each other.
+     *
+     * @param id the id of the stockPosition to adjust.
+     * @param adjustment the delta to add, negative to remove stock.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the resulting amount,
+     * or with status {@code 400 (Bad Request)} if the amount would become negative,
+     * or with status {@code 404 (Not Found)} if the stockPosition is not found.
+     */
+    @PostMapping("/stock-positions/{id}/adjust")
+    public ResponseEntity<StockAdjustmentResultDTO> adjustStockPosition(
+        @PathVariable(value = "id") final Long id,
+        @Valid @RequestBody StockAdjustmentDTO adjustment
+    ) {
+        log.debug("REST request to adjust StockPosition : {}, {}", id, adjustment);
+        if (adjustment.getStockPositionId() != null && !Objects.equals(id, adjustment.getStockPositionId())) {
+            throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
+        }
+        StockAdjustmentResultDTO result = stockAdjustmentService.adjust(id, adjustment.getDelta());
+        switch (result.getStatus()) {
+            case NOT_FOUND:
+                return ResponseEntity.notFound().build();
+            case INSUFFICIENT_STOCK:
+                throw new BadRequestAlertException("The amount cannot become negative", ENTITY_NAME, "insufficientstock");
+            default:
+                return ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+                    .body(result);
+        }
+    }
+
+    /**
+     * {@code POST  /stock-positions/adjust} : Apply many adjustments to stockPositions in one transaction.
+     * <p>
+     * The deltas of a stockPosition are summed and applied together, or not at all if its amount would become
+     * negative; the other stockPositions are adjusted regardless.
+     *
+     * @param adjustments the stockPosition ids with the delta to add to each.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each adjustment,
+     * or with status {@code 400 (Bad Request)} if an adjustment is incomplete or there are too many of them.
+     */
+    @PostMapping("/stock-positions/adjust")
+    public ResponseEntity<List<StockAdjustmentResultDTO>> adjustStockPositions(@NotNull @RequestBody List<StockAdjustmentDTO> adjustments) {
+        log.debug("REST request to apply {} StockPosition adjustments", adjustments.size());
+        try {
+            return ResponseEntity.ok().body(stockAdjustmentService.adjustAll(adjustments));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "adjustmentinvalid");
+        }
+    }
+
     /**
      * {@code GET  /stock-positions} : get all the stockPositions.
      *
+     * @param pageable the pagination information.
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of stockPositions in body.
      */
     @GetMapping("/stock-positions")
-    public List<StockPosition> getAllStockPositions() {
-        log.debug("REST request to get all StockPositions");
-        return stockPositionRepository.findAll();
+    public ResponseEntity<List<StockPosition>> getAllStockPositions(
+        StockPositionCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get StockPositions by criteria: {}", criteria);
+        Page<StockPosition> page = stockPositionQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /stock-positions?after=:cursor} : get the stock positions following a cursor, in keyset order.
+     * <p>
+     * Pass an empty {@code after} to get the first slice, then follow the {@code X-Next-Cursor} header
+     * (or the {@code next} link) until it is absent. Sorting is ascending on the id.
+     *
+     * @param after the cursor returned with the previous slice.
+     * @param pageable the size and sort of the slice; the page number is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of stockPositions in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the sort order is invalid.
+     */
+    @GetMapping(value = "/stock-positions", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    public ResponseEntity<List<StockPosition>> getAllStockPositionsAfter(
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get StockPositions after cursor: {}", after);
+        KeysetCursor cursor = KeysetPaginationUtil.resolveCursor(
+            after,
+            pageable.getSort(),
+            ENTITY_NAME,
+            StockPositionQueryService.SORT_BY_ID
+        );
+        Slice<StockPosition> slice = stockPositionQueryService.findAllAfter(cursor, pageable.getPageSize());
+        KeysetCursor next = slice.hasNext()
+            ? stockPositionQueryService.cursorAfter(cursor, slice.getContent().get(slice.getNumberOfElements() - 1))
+            : null;
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), next);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /stock-positions/count} : count all the stockPositions.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/stock-positions/count")
+    public ResponseEntity<Long> countStockPositions(StockPositionCriteria criteria) {
+        log.debug("REST request to count StockPositions by criteria: {}", criteria);
+        return ResponseEntity.ok().body(stockPositionQueryService.countByCriteria(criteria));
+    }
+
+    /**
+     * {@code GET  /stock-positions/by-serial/:serialNo} : get the stockPositions with a serial number.
+     *
+     * @param serialNo the serial number of the stockPositions to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of stockPositions in body, usually one.
+     */
+    @GetMapping("/stock-positions/by-serial/{serialNo}")
+    public List<StockPosition> getStockPositionsBySerialNo(@PathVariable String serialNo) {
+        log.debug("REST request to get StockPositions by serial number : {}", serialNo);
+        return serialNumberService.findAllBySerialNo(serialNo);
     }
 
     /**
@@ -0,0 +1,91 @@
+package de.intagau.web.rest;
+
+import de.intagau.domain.StockSummary;
+import de.intagau.service.StockSummaryService;
+import de.intagau.service.dto.ProductStockSummaryDTO;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller serving the pre-aggregated stock totals of {@link de.intagau.domain.StorageRoom}s and
+ * {@link de.intagau.domain.Products}.
+ */
+@RestController
+@RequestMapping("/api/stock-summary")
+public class StockSummaryResource {
+
+    private final Logger log = LoggerFactory.getLogger(StockSummaryResource.class);
+
+    private final StockSummaryService stockSummaryService;
+
+    public StockSummaryResource(StockSummaryService stockSummaryService) {
+        this.stockSummaryService = stockSummaryService;
+    }
+
+    /**
+     * {@code GET  /stock-summary/storage-rooms} : get the stock totals of all the storageRooms.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of totals in body.
+     */
+    @GetMapping("/storage-rooms")
+    public ResponseEntity<List<StockSummary>> getAllStorageRoomStockSummaries(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of StorageRoom stock summaries");
+        Page<StockSummary> page = stockSummaryService.findAllByStorageRoom(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /stock-summary/storage-rooms/:id} : get the stock totals of the "id" storageRoom.
+     *
+     * @param id the id of the storageRoom.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the totals, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/storage-rooms/{id}")
+    public ResponseEntity<StockSummary> getStorageRoomStockSummary(@PathVariable Long id) {
+        log.debug("REST request to get the stock summary of StorageRoom : {}", id);
+        Optional<StockSummary> stockSummary = stockSummaryService.findOneByStorageRoom(id);
+        return ResponseUtil.wrapOrNotFound(stockSummary);
+    }
+
+    /**
+     * {@code GET  /stock-summary/products} : get the stock totals of all the products stored in a storageRoom.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of totals in body.
+     */
+    @GetMapping("/products")
+    public List<ProductStockSummaryDTO> getAllProductStockSummaries() {
+        log.debug("REST request to get all Products stock summaries");
+        return stockSummaryService.findAllByProduct();
+    }
+
+    /**
+     * {@code GET  /stock-summary/products/:id} : get the stock totals of the "id" products.
+     *
+     * @param id the id of the products.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the totals,
+     * or with status {@code 404 (Not Found)} if no storageRoom holds the products.
+     */
+    @GetMapping("/products/{id}")
+    public ResponseEntity<ProductStockSummaryDTO> getProductStockSummary(@PathVariable Long id) {
+        log.debug("REST request to get the stock summary of Products : {}", id);
+        Optional<ProductStockSummaryDTO> productStockSummary = stockSummaryService.findOneByProduct(id);
+        return ResponseUtil.wrapOrNotFound(productStockSummary);
+    }
+}
@@ -2,6 +2,9 @@ package de.intagau.web.rest;
 
 import de.intagau.domain.Storage;
 import de.intagau.repository.StorageRepository;
+import de.intagau.service.StorageQueryService;
+import de.intagau.service.StorageTreeService;
+import de.intagau.service.criteria.StorageCriteria;
 import de.intagau.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -13,10 +16,15 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -36,8 +44,18 @@ public class StorageResource {
 
     private final StorageRepository storageRepository;
 
-    public StorageResource(StorageRepository storageRepository) {
+    private final StorageQueryService storageQueryService;
+
+    private final StorageTreeService storageTreeService;
+
+    public StorageResource(
+        StorageRepository storageRepository,
+        StorageQueryService storageQueryService,
+        StorageTreeService storageTreeService
+    ) {
         this.storageRepository = storageRepository;
+        this.storageQueryService = storageQueryService;
+        this.storageTreeService = storageTreeService;
     }
 
     /**
@@ -87,7 +105,12 @@ public class StorageResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Storage result = storageRepository.save(storage);
+        Storage result;
+        try {
+            result = storageTreeService.save(storage);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "treecycle");
+        }
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, storage.getId().toString()))
@@ -142,12 +165,31 @@ public class StorageResource {
     /**
      * {@code GET  /storages} : get all the storages.
      *
+     * @param pageable the pagination information.
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of storages in body.
      */
     @GetMapping("/storages")
-    public List<Storage> getAllStorages() {
-        log.debug("REST request to get all Storages");
-        return storageRepository.findAll();
+    public ResponseEntity<List<Storage>> getAllStorages(
+        StorageCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get Storages by criteria: {}", criteria);
+        Page<Storage> page = storageQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /storages/count} : count all the storages.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/storages/count")
+    public ResponseEntity<Long> countStorages(StorageCriteria criteria) {
+        log.debug("REST request to count Storages by criteria: {}", criteria);
+        return ResponseEntity.ok().body(storageQueryService.countByCriteria(criteria));
     }
 
     /**
@@ -2,6 +2,10 @@ package de.intagau.web.rest;
 
 import de.intagau.domain.StorageRoom;
 import de.intagau.repository.StorageRoomRepository;
+import de.intagau.service.StorageRoomQueryService;
+import de.intagau.service.StorageTreeService;
+import de.intagau.service.criteria.StorageRoomCriteria;
+import de.intagau.service.dto.StorageSubtreeDTO;
 import de.intagau.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -13,10 +17,15 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -36,8 +45,18 @@ public class StorageRoomResource {
 
     private final StorageRoomRepository storageRoomRepository;
 
-    public StorageRoomResource(StorageRoomRepository storageRoomRepository) {
+    private final StorageRoomQueryService storageRoomQueryService;
+
+    private final StorageTreeService storageTreeService;
+
+    public StorageRoomResource(
+        StorageRoomRepository storageRoomRepository,
+        StorageRoomQueryService storageRoomQueryService,
+        StorageTreeService storageTreeService
+    ) {
         this.storageRoomRepository = storageRoomRepository;
+        this.storageRoomQueryService = storageRoomQueryService;
+        this.storageTreeService = storageTreeService;
     }
 
     /**
@@ -53,7 +72,7 @@ public class StorageRoomResource {
         if (storageRoom.getId() != null) {
             throw new BadRequestAlertException("A new storageRoom cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        StorageRoom result = storageRoomRepository.save(storageRoom);
+        StorageRoom result = saveInTree(storageRoom);
         return ResponseEntity
             .created(new URI("/api/storage-rooms/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -87,7 +106,7 @@ public class StorageRoomResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        StorageRoom result = storageRoomRepository.save(storageRoom);
+        StorageRoom result = saveInTree(storageRoom);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, storageRoom.getId().toString()))
@@ -142,12 +161,31 @@ public class StorageRoomResource {
     /**
      * {@code GET  /storage-rooms} : get all the storageRooms.
      *
+     * @param pageable the pagination information.
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of storageRooms in body.
      */
     @GetMapping("/storage-rooms")
-    public List<StorageRoom> getAllStorageRooms() {
-        log.debug("REST request to get all StorageRooms");
-        return storageRoomRepository.findAll();
+    public ResponseEntity<List<StorageRoom>> getAllStorageRooms(
+        StorageRoomCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get StorageRooms by criteria: {}", criteria);
+        Page<StorageRoom> page = storageRoomQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /storage-rooms/count} : count all the storageRooms.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/storage-rooms/count")
+    public ResponseEntity<Long> countStorageRooms(StorageRoomCriteria criteria) {
+        log.debug("REST request to count StorageRooms by criteria: {}", criteria);
+        return ResponseEntity.ok().body(storageRoomQueryService.countByCriteria(criteria));
     }
 
     /**
@@ -163,6 +201,19 @@ public class StorageRoomResource {
         return ResponseUtil.wrapOrNotFound(storageRoom);
     }
 
+    /**
+     * {@code GET  /storage-rooms/:id/subtree} : get the "id" storageRoom with everything it contains, recursively.
+     *
+     * @param id the id of the storageRoom.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the nested storageRooms and stockPositions,
+     * or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/storage-rooms/{id}/subtree")
+    public ResponseEntity<StorageSubtreeDTO> getStorageRoomSubtree(@PathVariable Long id) {
+        log.debug("REST request to get the subtree of StorageRoom : {}", id);
+        return ResponseUtil.wrapOrNotFound(storageTreeService.findSubtree(id));
+    }
+
     /**
      * {@code DELETE  /storage-rooms/:id} : delete the "id" storageRoom.
      *
@@ -178,4 +229,12 @@ public class StorageRoomResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private StorageRoom saveInTree(StorageRoom storageRoom) {
+        try {
+            return storageTreeService.save(storageRoom);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "treecycle");
+        }
+    }
 }
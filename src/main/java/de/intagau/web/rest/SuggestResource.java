@@ -0,0 +1,55 @@
+package de.intagau.web.rest;
+
+import de.intagau.service.SuggestionService;
+import de.intagau.service.SuggestionService.SuggestedEntity;
+import de.intagau.service.dto.SuggestionDTO;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller completing typed prefixes into entities, for the relationship fields of the entity forms.
+ */
+@RestController
+@RequestMapping("/api/_suggest")
+public class SuggestResource {
+
+    private final Logger log = LoggerFactory.getLogger(SuggestResource.class);
+
+    private final SuggestionService suggestionService;
+
+    public SuggestResource(SuggestionService suggestionService) {
+        this.suggestionService = suggestionService;
+    }
+
+    /**
+     * {@code GET  /_suggest/:entity?q=:prefix&limit=:limit} : get the entities whose label starts with a prefix.
+     *
+     * @param entity the REST resource name of the entity, {@code products} (by name), {@code storages} (by key) or
+     * {@code storage-rooms} (by name).
+     * @param q the prefix, case-insensitive; empty for the first labels.
+     * @param limit the maximum number of suggestions.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggestions sorted by label in body,
+     * or with status {@code 404 (Not Found)} if the entity has no suggestions.
+     */
+    @GetMapping("/{entity}")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+        @PathVariable String entity,
+        @RequestParam(defaultValue = "") String q,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        log.debug("REST request to suggest {} for prefix {}", entity, q);
+        Optional<SuggestedEntity> suggestedEntity = SuggestedEntity.fromResourceName(entity);
+        if (suggestedEntity.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(suggestionService.suggest(suggestedEntity.get(), q, limit));
+    }
+}
@@ -0,0 +1,74 @@
+package de.intagau.web.rest.util;
+
+import de.intagau.service.dto.KeysetCursor;
+import de.intagau.web.rest.errors.BadRequestAlertException;
+import java.util.Arrays;
+import java.util.Iterator;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * The cursor of the next slice is returned both in the {@code X-Next-Cursor} header and as a {@code next}
+ * relation in the {@code Link} header. There is no total count: computing it is exactly the table scan
+ * keyset pagination avoids.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String HEADER_X_NEXT_CURSOR = "X-Next-Cursor";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Resolve the cursor of a keyset request from its {@code after} token and its sort order.
+     *
+     * @param after the opaque token sent by the client, empty to start from the beginning.
+     * @param sort the requested sort order, ascending on one of {@code properties}, or unsorted for the first of them.
+     * @param entityName the entity name used in the error alert.
+     * @param properties the supported sort properties.
+     * @return the cursor.
+     * @throws BadRequestAlertException if the sort order is not supported or the token is invalid.
+     */
+    public static KeysetCursor resolveCursor(String after, Sort sort, String entityName, String... properties) {
+        String property = properties[0];
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (orders.hasNext()) {
+            Sort.Order order = orders.next();
+            if (orders.hasNext() || order.isDescending() || !Arrays.asList(properties).contains(order.getProperty())) {
+                throw new BadRequestAlertException(
+                    "Keyset pagination supports a single ascending sort on " + String.join(", ", properties),
+                    entityName,
+                    "sortinvalid"
+                );
+            }
+            property = order.getProperty();
+        }
+        try {
+            return KeysetCursor.decode(after, property);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Generate keyset pagination headers.
+     *
+     * @param uriBuilder the URI builder of the current request.
+     * @param next the cursor of the next slice, or {@code null} if this was the last one.
+     * @return the {@link HttpHeaders}.
+     */
+    public static HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, KeysetCursor next) {
+        HttpHeaders headers = new HttpHeaders();
+        if (next != null) {
+            String token = next.encode();
+            headers.add(HEADER_X_NEXT_CURSOR, token);
+            String link = uriBuilder.replaceQueryParam(AFTER_PARAMETER, token).toUriString().replace(",", "%2C").replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
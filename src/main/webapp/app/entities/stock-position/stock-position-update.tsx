@@ -1,15 +1,15 @@
 import React, { useState, useEffect } from 'react';
 import { Link, useNavigate, useParams } from 'react-router-dom';
-import { Button, Row, Col, FormText } from 'reactstrap';
+import { Button, Row, Col, FormText, Input } from 'reactstrap';
 import { isNumber, Translate, translate, ValidatedField, ValidatedForm } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { convertDateTimeFromServer, convertDateTimeToServer, displayDefaultDateTime } from 'app/shared/util/date-utils';
 import { mapIdList } from 'app/shared/util/entity-utils';
+import { useSuggestions, withSelected } from 'app/shared/util/use-suggestions';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
 import { IStorage } from 'app/shared/model/storage.model';
-import { getEntities as getStorages } from 'app/entities/storage/storage.reducer';
 import { IStockPosition } from 'app/shared/model/stock-position.model';
 import { getEntity, updateEntity, createEntity, reset } from './stock-position.reducer';
 
@@ -21,12 +21,17 @@ export const StockPositionUpdate = () => {
   const { id } = useParams<'id'>();
   const isNew = id === undefined;
 
-  const storages = useAppSelector(state => state.storage.entities);
   const stockPositionEntity = useAppSelector(state => state.stockPosition.entity);
   const loading = useAppSelector(state => state.stockPosition.loading);
   const updating = useAppSelector(state => state.stockPosition.updating);
   const updateSuccess = useAppSelector(state => state.stockPosition.updateSuccess);
 
+  const [storagePrefix, setStoragePrefix] = useState('');
+  const storages = withSelected(
+    useSuggestions('storages', storagePrefix),
+    stockPositionEntity?.inherit && { id: stockPositionEntity.inherit.id, label: stockPositionEntity.inherit.key }
+  );
+
   const handleClose = () => {
     navigate('/stock-position');
   };
@@ -37,8 +42,6 @@ export const StockPositionUpdate = () => {
     } else {
       dispatch(getEntity(id));
     }
-
-    dispatch(getStorages({}));
   }, []);
 
   useEffect(() => {
@@ -51,7 +54,7 @@ export const StockPositionUpdate = () => {
     const entity = {
       ...stockPositionEntity,
       ...values,
-      inherit: storages.find(it => it.id.toString() === values.inherit.toString()),
+      inherit: values.inherit ? { id: Number(values.inherit) } : undefined,
     };
 
     if (isNew) {
@@ -108,6 +111,14 @@ export const StockPositionUpdate = () => {
                 data-cy="serialNo"
                 type="text"
               />
+              <Input
+                id="stock-position-inherit-search"
+                data-cy="inheritSearch"
+                type="search"
+                placeholder={translate('entity.suggest.placeholder')}
+                value={storagePrefix}
+                onChange={event => setStoragePrefix(event.target.value)}
+              />
               <ValidatedField
                 id="stock-position-inherit"
                 name="inherit"
@@ -117,13 +128,11 @@ export const StockPositionUpdate = () => {
                 required
               >
                 <option value="" key="0" />
-                {storages
-                  ? storages.map(otherEntity => (
-                      <option value={otherEntity.id} key={otherEntity.id}>
-                        {otherEntity.id}
-                      </option>
-                    ))
-                  : null}
+                {storages.map(otherEntity => (
+                  <option value={otherEntity.id} key={otherEntity.id}>
+                    {otherEntity.label}
+                  </option>
+                ))}
               </ValidatedField>
               <FormText>
                 <Translate contentKey="entity.validation.required">This field is required.</Translate>
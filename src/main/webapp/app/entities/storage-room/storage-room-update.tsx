@@ -1,17 +1,16 @@
 import React, { useState, useEffect } from 'react';
 import { Link, useNavigate, useParams } from 'react-router-dom';
-import { Button, Row, Col, FormText } from 'reactstrap';
+import { Button, Row, Col, FormText, Input } from 'reactstrap';
 import { isNumber, Translate, translate, ValidatedField, ValidatedForm } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { convertDateTimeFromServer, convertDateTimeToServer, displayDefaultDateTime } from 'app/shared/util/date-utils';
 import { mapIdList } from 'app/shared/util/entity-utils';
+import { useSuggestions, withSelected } from 'app/shared/util/use-suggestions';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
 import { IStorage } from 'app/shared/model/storage.model';
-import { getEntities as getStorages } from 'app/entities/storage/storage.reducer';
 import { IProducts } from 'app/shared/model/products.model';
-import { getEntities as getProducts } from 'app/entities/products/products.reducer';
 import { IStorageRoom } from 'app/shared/model/storage-room.model';
 import { getEntity, updateEntity, createEntity, reset } from './storage-room.reducer';
 
@@ -23,13 +22,22 @@ export const StorageRoomUpdate = () => {
   const { id } = useParams<'id'>();
   const isNew = id === undefined;
 
-  const storages = useAppSelector(state => state.storage.entities);
-  const products = useAppSelector(state => state.products.entities);
   const storageRoomEntity = useAppSelector(state => state.storageRoom.entity);
   const loading = useAppSelector(state => state.storageRoom.loading);
   const updating = useAppSelector(state => state.storageRoom.updating);
   const updateSuccess = useAppSelector(state => state.storageRoom.updateSuccess);
 
+  const [storagePrefix, setStoragePrefix] = useState('');
+  const storages = withSelected(
+    useSuggestions('storages', storagePrefix),
+    storageRoomEntity?.inherit && { id: storageRoomEntity.inherit.id, label: storageRoomEntity.inherit.key }
+  );
+  const [productsPrefix, setProductsPrefix] = useState('');
+  const products = withSelected(
+    useSuggestions('products', productsPrefix),
+    storageRoomEntity?.products && { id: storageRoomEntity.products.id, label: storageRoomEntity.products.name }
+  );
+
   const handleClose = () => {
     navigate('/storage-room');
   };
@@ -40,9 +48,6 @@ export const StorageRoomUpdate = () => {
     } else {
       dispatch(getEntity(id));
     }
-
-    dispatch(getStorages({}));
-    dispatch(getProducts({}));
   }, []);
 
   useEffect(() => {
@@ -55,8 +60,8 @@ export const StorageRoomUpdate = () => {
     const entity = {
       ...storageRoomEntity,
       ...values,
-      inherit: storages.find(it => it.id.toString() === values.inherit.toString()),
-      products: products.find(it => it.id.toString() === values.products.toString()),
+      inherit: values.inherit ? { id: Number(values.inherit) } : undefined,
+      products: values.products ? { id: Number(values.products) } : undefined,
     };
 
     if (isNew) {
@@ -107,6 +112,14 @@ export const StorageRoomUpdate = () => {
                 data-cy="name"
                 type="text"
               />
+              <Input
+                id="storage-room-inherit-search"
+                data-cy="inheritSearch"
+                type="search"
+                placeholder={translate('entity.suggest.placeholder')}
+                value={storagePrefix}
+                onChange={event => setStoragePrefix(event.target.value)}
+              />
               <ValidatedField
                 id="storage-room-inherit"
                 name="inherit"
@@ -116,17 +129,23 @@ export const StorageRoomUpdate = () => {
                 required
               >
                 <option value="" key="0" />
-                {storages
-                  ? storages.map(otherEntity => (
-                      <option value={otherEntity.id} key={otherEntity.id}>
-                        {otherEntity.id}
-                      </option>
-                    ))
-                  : null}
+                {storages.map(otherEntity => (
+                  <option value={otherEntity.id} key={otherEntity.id}>
+                    {otherEntity.label}
+                  </option>
+                ))}
               </ValidatedField>
               <FormText>
                 <Translate contentKey="entity.validation.required">This field is required.</Translate>
               </FormText>
+              <Input
+                id="storage-room-products-search"
+                data-cy="productsSearch"
+                type="search"
+                placeholder={translate('entity.suggest.placeholder')}
+                value={productsPrefix}
+                onChange={event => setProductsPrefix(event.target.value)}
+              />
               <ValidatedField
                 id="storage-room-products"
                 name="products"
@@ -135,13 +154,11 @@ export const StorageRoomUpdate = () => {
                 type="select"
               >
                 <option value="" key="0" />
-                {products
-                  ? products.map(otherEntity => (
-                      <option value={otherEntity.id} key={otherEntity.id}>
-                        {otherEntity.id}
-                      </option>
-                    ))
-                  : null}
+                {products.map(otherEntity => (
+                  <option value={otherEntity.id} key={otherEntity.id}>
+                    {otherEntity.label}
+                  </option>
+                ))}
               </ValidatedField>
               <Button tag={Link} id="cancel-save" data-cy="entityCreateCancelButton" to="/storage-room" replace color="info">
                 <FontAwesomeIcon icon="arrow-left" />
@@ -1,15 +1,15 @@
 import React, { useState, useEffect } from 'react';
 import { Link, useNavigate, useParams } from 'react-router-dom';
-import { Button, Row, Col, FormText } from 'reactstrap';
+import { Button, Row, Col, FormText, Input } from 'reactstrap';
 import { isNumber, Translate, translate, ValidatedField, ValidatedForm } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { convertDateTimeFromServer, convertDateTimeToServer, displayDefaultDateTime } from 'app/shared/util/date-utils';
 import { mapIdList } from 'app/shared/util/entity-utils';
+import { useSuggestions, withSelected } from 'app/shared/util/use-suggestions';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
 import { IStorageRoom } from 'app/shared/model/storage-room.model';
-import { getEntities as getStorageRooms } from 'app/entities/storage-room/storage-room.reducer';
 import { IStorage } from 'app/shared/model/storage.model';
 import { getEntity, updateEntity, createEntity, reset } from './storage.reducer';
 
@@ -21,12 +21,20 @@ export const StorageUpdate = () => {
   const { id } = useParams<'id'>();
   const isNew = id === undefined;
 
-  const storageRooms = useAppSelector(state => state.storageRoom.entities);
   const storageEntity = useAppSelector(state => state.storage.entity);
   const loading = useAppSelector(state => state.storage.loading);
   const updating = useAppSelector(state => state.storage.updating);
   const updateSuccess = useAppSelector(state => state.storage.updateSuccess);
 
+  const [storageRoomPrefix, setStorageRoomPrefix] = useState('');
+  const storageRooms = withSelected(
+    useSuggestions('storage-rooms', storageRoomPrefix),
+    storageEntity?.storageRoom && {
+      id: storageEntity.storageRoom.id,
+      label: storageEntity.storageRoom.name ?? String(storageEntity.storageRoom.id),
+    }
+  );
+
   const handleClose = () => {
     navigate('/storage');
   };
@@ -37,8 +45,6 @@ export const StorageUpdate = () => {
     } else {
       dispatch(getEntity(id));
     }
-
-    dispatch(getStorageRooms({}));
   }, []);
 
   useEffect(() => {
@@ -51,7 +57,7 @@ export const StorageUpdate = () => {
     const entity = {
       ...storageEntity,
       ...values,
-      storageRoom: storageRooms.find(it => it.id.toString() === values.storageRoom.toString()),
+      storageRoom: values.storageRoom ? { id: Number(values.storageRoom) } : undefined,
     };
 
     if (isNew) {
@@ -104,6 +110,14 @@ export const StorageUpdate = () => {
                   required: { value: true, message: translate('entity.validation.required') },
                 }}
               />
+              <Input
+                id="storage-storageRoom-search"
+                data-cy="storageRoomSearch"
+                type="search"
+                placeholder={translate('entity.suggest.placeholder')}
+                value={storageRoomPrefix}
+                onChange={event => setStorageRoomPrefix(event.target.value)}
+              />
               <ValidatedField
                 id="storage-storageRoom"
                 name="storageRoom"
@@ -112,13 +126,11 @@ export const StorageUpdate = () => {
                 type="select"
               >
                 <option value="" key="0" />
-                {storageRooms
-                  ? storageRooms.map(otherEntity => (
-                      <option value={otherEntity.id} key={otherEntity.id}>
-                        {otherEntity.id}
-                      </option>
-                    ))
-                  : null}
+                {storageRooms.map(otherEntity => (
+                  <option value={otherEntity.id} key={otherEntity.id}>
+                    {otherEntity.label}
+                  </option>
+                ))}
               </ValidatedField>
               <Button tag={Link} id="cancel-save" data-cy="entityCreateCancelButton" to="/storage" replace color="info">
                 <FontAwesomeIcon icon="arrow-left" />
@@ -0,0 +1,4 @@
+export interface ISuggestion {
+  id?: number;
+  label?: string;
+}
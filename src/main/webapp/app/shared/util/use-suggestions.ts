@@ -0,0 +1,50 @@
+import { useEffect, useState } from 'react';
+import axios from 'axios';
+
+import { ISuggestion } from 'app/shared/model/suggestion.model';
+
+const SUGGEST_DELAY_MILLIS = 250;
+
+/**
+ * Fetches the entities whose label starts with a typed prefix, once typing pauses.
+ * Only the answer to the latest prefix is kept.
+ *
+ * @param entity the REST resource name of the entity, such as 'products' or 'storages'.
+ * @param prefix the typed prefix.
+ * @param limit the maximum number of suggestions.
+ */
+export const useSuggestions = (entity: string, prefix: string, limit = 20): ReadonlyArray<ISuggestion> => {
+  const [suggestions, setSuggestions] = useState<ReadonlyArray<ISuggestion>>([]);
+
+  useEffect(() => {
+    let latest = true;
+    const timeout = setTimeout(() => {
+      axios
+        .get<ISuggestion[]>(`api/_suggest/${entity}`, { params: { q: prefix, limit } })
+        .then(response => {
+          if (latest) {
+            setSuggestions(response.data);
+          }
+        })
+        .catch(() => {
+          if (latest) {
+            setSuggestions([]);
+          }
+        });
+    }, SUGGEST_DELAY_MILLIS);
+    return () => {
+      latest = false;
+      clearTimeout(timeout);
+    };
+  }, [entity, prefix, limit]);
+
+  return suggestions;
+};
+
+/**
+ * Merges the current value of a relationship into its suggestions, so that it stays selectable.
+ */
+export const withSelected = (suggestions: ReadonlyArray<ISuggestion>, selected?: ISuggestion | null): ReadonlyArray<ISuggestion> =>
+  selected?.id === undefined || selected?.id === null || suggestions.some(it => it.id === selected.id)
+    ? suggestions
+    : [selected, ...suggestions];
@@ -0,0 +1,86 @@
+package de.intagau.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.intagau.domain.Products;
+import de.intagau.domain.User;
+import de.intagau.repository.ProductsRepository;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.util.unit.DataSize;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the {@link CacheConfiguration} class.
+ */
+class CacheConfigurationTest {
+
+    @TempDir
+    Path diskPath;
+
+    private CacheConfiguration cacheConfiguration;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().setDiskPath(diskPath.toString());
+
+        ApplicationProperties.Cache.Settings tiered = new ApplicationProperties.Cache.Settings();
+        tiered.setHeapEntries(10L);
+        tiered.setOffHeap(DataSize.ofMegabytes(1));
+        tiered.setDisk(DataSize.ofMegabytes(2));
+        applicationProperties.getCache().getCaches().put(Products.class.getName(), tiered);
+
+        ApplicationProperties.Cache.Settings idle = new ApplicationProperties.Cache.Settings();
+        idle.setTimeToIdle(Duration.ofMinutes(5));
+        applicationProperties.getCache().getCaches().put(ProductsRepository.PRODUCTS_BY_EAN_CACHE, idle);
+
+        cacheConfiguration = new CacheConfiguration(new JHipsterProperties(), applicationProperties);
+    }
+
+    @Test
+    void shouldApplyTheSettingsOfEachCache() {
+        JCacheManagerCustomizer customizer = cacheConfiguration.cacheManagerCustomizer();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("cacheManagerCustomizer", customizer));
+        try (CacheManager cm = cacheConfiguration.jCacheCacheManager(beanFactory.getBeanProvider(JCacheManagerCustomizer.class))) {
+            ResourcePools tieredPools = runtimeConfiguration(cm.getCache(Products.class.getName())).getResourcePools();
+            assertThat(tieredPools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(10);
+            assertThat(tieredPools.getPoolForResource(ResourceType.Core.OFFHEAP).getSize()).isEqualTo(1);
+            assertThat(tieredPools.getPoolForResource(ResourceType.Core.DISK).getSize()).isEqualTo(2);
+
+            // The entries beyond the heap are serialized to the lower tiers
+            Cache<Object, Object> products = cm.getCache(Products.class.getName());
+            for (long id = 0; id < 100; id++) {
+                products.put(id, new Products().id(id).name("cached " + id));
+            }
+            for (long id = 0; id < 100; id++) {
+                assertThat(((Products) products.get(id)).getName()).isEqualTo("cached " + id);
+            }
+
+            CacheRuntimeConfiguration<Object, Object> idle = runtimeConfiguration(cm.getCache(ProductsRepository.PRODUCTS_BY_EAN_CACHE));
+            assertThat(idle.getExpiryPolicy().getExpiryForAccess("ean", () -> null)).isEqualTo(Duration.ofMinutes(5));
+
+            ResourcePools defaultPools = runtimeConfiguration(cm.getCache(User.class.getName())).getResourcePools();
+            assertThat(defaultPools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(100);
+            assertThat(defaultPools.getPoolForResource(ResourceType.Core.OFFHEAP)).isNull();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CacheRuntimeConfiguration<Object, Object> runtimeConfiguration(Cache<Object, Object> cache) {
+        Eh107Configuration<Object, Object> configuration = cache.getConfiguration(Eh107Configuration.class);
+        return configuration.unwrap(CacheRuntimeConfiguration.class);
+    }
+}
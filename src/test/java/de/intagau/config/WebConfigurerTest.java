@@ -37,6 +37,8 @@ class WebConfigurerTest {
 
     private JHipsterProperties props;
 
+    private ApplicationProperties applicationProperties;
+
     @BeforeEach
     public void setup() {
         servletContext = spy(new MockServletContext());
@@ -45,8 +47,9 @@ class WebConfigurerTest {
 
         env = new MockEnvironment();
         props = new JHipsterProperties();
+        applicationProperties = new ApplicationProperties();
 
-        webConfigurer = new WebConfigurer(env, props);
+        webConfigurer = new WebConfigurer(env, props, applicationProperties);
     }
 
     @Test
@@ -62,6 +65,22 @@ class WebConfigurerTest {
         }
     }
 
+    @Test
+    void shouldKeepTheWorkerThreadsForRequestsByDefault() {
+        UndertowServletWebServerFactory container = new UndertowServletWebServerFactory();
+        webConfigurer.customize(container);
+        assertThat(container.getDeploymentInfoCustomizers()).isEmpty();
+    }
+
+    @Test
+    void shouldRunRequestsOnVirtualThreadsWhenSupported() {
+        applicationProperties.getThreads().setMode(ApplicationProperties.Threads.Mode.VIRTUAL);
+        UndertowServletWebServerFactory container = new UndertowServletWebServerFactory();
+        webConfigurer.customize(container);
+        // Falls back to the worker threads before Java 21
+        assertThat(container.getDeploymentInfoCustomizers()).hasSize(VirtualThreads.factory("test-") != null ? 1 : 0);
+    }
+
     @Test
     void shouldCorsFilterOnApiPath() throws Exception {
         props.getCors().setAllowedOrigins(Collections.singletonList("other.domain.com"));
@@ -0,0 +1,92 @@
+package de.intagau.domain.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.domain.Storage;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link PooledSequenceGenerator}, doubling as a small benchmark of insert-heavy workloads:
+ * the number of JDBC statements prepared while persisting many entities shows whether the sequence round trips
+ * and the inserts are batched.
+ */
+@IntegrationTest
+@Transactional
+class PooledSequenceGeneratorIT {
+
+    private static final int ROWS = 1000;
+
+    private static final int JDBC_BATCH_SIZE = 25;
+
+    private final Logger log = LoggerFactory.getLogger(PooledSequenceGeneratorIT.class);
+
+    @Autowired
+    private EntityManager em;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void enableStatistics() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void idsAreAllocatedInBlocks() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < PooledSequenceGenerator.DEFAULT_INCREMENT_SIZE; i++) {
+            Storage storage = new Storage().key("block-" + i);
+            em.persist(storage);
+            ids.add(storage.getId());
+        }
+
+        // pooled-lo hands out the whole block following the first value
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(ids.get(ids.size() - 1) - ids.get(0)).isLessThan(2L * PooledSequenceGenerator.DEFAULT_INCREMENT_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void insertsAreBatched() {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            em.persist(new Products().name("benchmark-" + i));
+        }
+        em.flush();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long statements = statistics.getPrepareStatementCount();
+        log.info(
+            "Persisted {} products in {} ms with {} prepared statements ({} rows per batch, {} ids per sequence call)",
+            ROWS,
+            elapsedMillis,
+            statements,
+            JDBC_BATCH_SIZE,
+            PooledSequenceGenerator.DEFAULT_INCREMENT_SIZE
+        );
+
+        // At most one statement per JDBC batch plus one per block of ids, instead of two per row without pooling and batching
+        long sequenceCalls = ROWS / PooledSequenceGenerator.DEFAULT_INCREMENT_SIZE + 1;
+        long insertBatches = ROWS / JDBC_BATCH_SIZE;
+        assertThat(statements).isLessThanOrEqualTo(sequenceCalls + insertBatches);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+    }
+}
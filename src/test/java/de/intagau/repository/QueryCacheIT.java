@@ -0,0 +1,135 @@
+package de.intagau.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Authority;
+import de.intagau.domain.Products;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.Storage;
+import de.intagau.service.InventoryImportService;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the repository queries cached through query hints.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+    }
+)
+class QueryCacheIT {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private StockPositionRepository stockPositionRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private InventoryImportService inventoryImportService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void initTest() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAll();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        productsRepository.save(new Products().name("AAA cached"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        stockPositionRepository.deleteAll();
+        storageRepository.deleteAll();
+        productsRepository.deleteAll();
+        authorityRepository.findById("ROLE_QUERY_CACHE").ifPresent(authorityRepository::delete);
+        sessionFactory.getCache().evictAll();
+    }
+
+    @Test
+    void writesToOtherTablesKeepTheCachedResults() {
+        assertThat(productsRepository.findAllByOrderByNameAscIdAsc(FIRST_PAGE)).extracting(Products::getName).contains("AAA cached");
+        assertThat(productsRepository.findAllByOrderByNameAscIdAsc(FIRST_PAGE)).extracting(Products::getName).contains("AAA cached");
+        assertThat(productsByName().getHitCount()).isEqualTo(1);
+
+        Storage storage = storageRepository.save(new Storage().key("query-cache"));
+        stockPositionRepository.save(new StockPosition().amount(1).serialNo("QC-1").inherit(storage));
+        productsRepository.findAllByOrderByNameAscIdAsc(FIRST_PAGE);
+
+        assertThat(productsByName().getHitCount()).isEqualTo(2);
+        assertThat(productsByName().getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void writesToTheQueriedTableInvalidateTheCachedResults() {
+        productsRepository.findAllByOrderByNameAscIdAsc(FIRST_PAGE);
+
+        productsRepository.save(new Products().name("AAA saved"));
+
+        assertThat(productsRepository.findAllByOrderByNameAscIdAsc(FIRST_PAGE)).extracting(Products::getName).contains("AAA saved");
+        assertThat(productsByName().getHitCount()).isZero();
+    }
+
+    @Test
+    void importsInvalidateTheCachedResults() throws Exception {
+        productsRepository.findAllByOrderByNameAscIdAsc(FIRST_PAGE);
+
+        inventoryImportService.importRows(
+            InventoryImportService.ImportedEntity.PRODUCTS,
+            InventoryImportService.Format.CSV,
+            new ByteArrayInputStream("name\nAAA imported\n".getBytes(StandardCharsets.UTF_8))
+        );
+
+        assertThat(productsRepository.findAllByOrderByNameAscIdAsc(FIRST_PAGE)).extracting(Products::getName).contains("AAA imported");
+        assertThat(productsByName().getHitCount()).isZero();
+    }
+
+    @Test
+    void authoritiesAreCachedUntilWritten() {
+        int count = authorityRepository.findAll().size();
+        authorityRepository.findAll();
+        assertThat(statistics.getQueryRegionStatistics(AuthorityRepository.AUTHORITIES_QUERY_CACHE).getHitCount()).isEqualTo(1);
+
+        Authority authority = new Authority();
+        authority.setName("ROLE_QUERY_CACHE");
+        authorityRepository.save(authority);
+
+        List<Authority> authorities = authorityRepository.findAll();
+        assertThat(authorities).hasSize(count + 1);
+    }
+
+    private CacheRegionStatistics productsByName() {
+        return statistics.getQueryRegionStatistics(ProductsRepository.PRODUCTS_BY_NAME_QUERY_CACHE);
+    }
+}
@@ -0,0 +1,258 @@
+package de.intagau.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSAlgorithmFamilyJWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Test class for the {@link CachingJwtDecoder} and the {@link RefreshingJwkSource}, against a local stub of the
+ * JWK set endpoint of the IdP.
+ */
+class CachingJwtDecoderTest {
+
+    private final MutableClock clock = new MutableClock(Instant.now());
+
+    private final AtomicInteger decodings = new AtomicInteger();
+
+    private final AtomicInteger jwksCalls = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    private final List<RefreshingJwkSource> jwkSources = new ArrayList<>();
+
+    private volatile RSAKey signingKey;
+
+    private HttpServer idp;
+
+    private String jwkSetUri;
+
+    @BeforeEach
+    public void startIdp() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("first").generate();
+        idp = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        idp.createContext(
+            "/jwks",
+            exchange -> {
+                jwksCalls.incrementAndGet();
+                byte[] body = new JWKSet(signingKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        );
+        idp.start();
+        jwkSetUri = "http://localhost:" + idp.getAddress().getPort() + "/jwks";
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    public void stopIdp() {
+        jwkSources.forEach(RefreshingJwkSource::close);
+        scheduler.shutdown();
+        idp.stop(0);
+    }
+
+    @Test
+    void tokensAreVerifiedOnce() throws Exception {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1), Duration.ofSeconds(30));
+        String token = token(signingKey, Duration.ofMinutes(5));
+
+        Jwt first = decoder.decode(token);
+        Jwt second = decoder.decode(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(decodings.get()).isEqualTo(1);
+        assertThat(jwksCalls.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.decode").tag("result", "hit").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.decode.cpu").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.decode.cpu.saved").functionCounter().count()).isGreaterThanOrEqualTo(0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwts").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokensAreNotServedFromTheCache() throws Exception {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1), Duration.ofSeconds(30));
+        String token = token(signingKey, Duration.ofMinutes(5));
+        decoder.decode(token);
+
+        clock.advance(Duration.ofMinutes(6));
+
+        // The delegate still runs on the real clock and accepts it
+        decoder.decode(token);
+        assertThat(decodings.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectedTokensAreNotCached() throws Exception {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1), Duration.ofSeconds(30));
+        String forged = token(new RSAKeyGenerator(2048).keyID("first").generate(), Duration.ofMinutes(5));
+
+        assertThatThrownBy(() -> decoder.decode(forged)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode(forged)).isInstanceOf(JwtException.class);
+
+        assertThat(decodings.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rotatedKeysAreLoadedForTheirFirstToken() throws Exception {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1), Duration.ZERO);
+        decoder.decode(token(signingKey, Duration.ofMinutes(5)));
+
+        signingKey = new RSAKeyGenerator(2048).keyID("second").generate();
+        decoder.decode(token(signingKey, Duration.ofMinutes(5)));
+
+        assertThat(jwksCalls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("jwt.jwks.loads").tag("trigger", "unknown_key").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownKeysReloadTheKeysAtMostOncePerInterval() throws Exception {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1), Duration.ofHours(1));
+        decoder.decode(token(signingKey, Duration.ofMinutes(5)));
+
+        String unknown = token(new RSAKeyGenerator(2048).keyID("unknown").generate(), Duration.ofMinutes(5));
+        assertThatThrownBy(() -> decoder.decode(unknown)).isInstanceOf(JwtException.class);
+
+        assertThat(jwksCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreRefreshedInTheBackground() throws Exception {
+        CachingJwtDecoder decoder = decoder(Duration.ofMillis(50), Duration.ofHours(1));
+        decoder.decode(token(signingKey, Duration.ofMinutes(5)));
+
+        signingKey = new RSAKeyGenerator(2048).keyID("second").generate();
+        // Wait for the end of a reload started after the rotation, which ends before the next one starts
+        int calls = jwksCalls.get();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (jwksCalls.get() < calls + 2) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+
+        // The new key is known without reloading the keys on the request
+        decoder.decode(token(signingKey, Duration.ofMinutes(5)));
+        assertThat(meterRegistry.find("jwt.jwks.loads").tag("trigger", "unknown_key").counter()).isNull();
+    }
+
+    @Test
+    void closedSourcesStopRefreshing() throws Exception {
+        decoder(Duration.ofMillis(10), Duration.ofHours(1));
+        Thread.sleep(50);
+
+        jwkSources.forEach(RefreshingJwkSource::close);
+        // A reload may have been running
+        Thread.sleep(50);
+        int calls = jwksCalls.get();
+
+        Thread.sleep(100);
+        assertThat(jwksCalls.get()).isEqualTo(calls);
+    }
+
+    private CachingJwtDecoder decoder(Duration refreshInterval, Duration minRefreshInterval) throws KeySourceException {
+        RefreshingJwkSource jwkSource = new RefreshingJwkSource(
+            jwkSetUri,
+            new RestTemplate(),
+            scheduler,
+            refreshInterval,
+            minRefreshInterval
+        );
+        jwkSource.bindTo(meterRegistry);
+        jwkSources.add(jwkSource);
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(JWSAlgorithmFamilyJWSKeySelector.fromJWKSource(jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+        NimbusJwtDecoder nimbusJwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        CachingJwtDecoder decoder = new CachingJwtDecoder(
+            token -> {
+                decodings.incrementAndGet();
+                return nimbusJwtDecoder.decode(token);
+            },
+            100,
+            clock,
+            () -> TimeUnit.MILLISECONDS.toNanos(clock.millis())
+        );
+        decoder.bindTo(meterRegistry);
+        return decoder;
+    }
+
+    private String token(RSAKey key, Duration validity) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .subject("123")
+            .issueTime(new Date())
+            .expirationTime(Date.from(Instant.now().plus(validity)))
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private final AtomicReference<Instant> instant;
+
+        MutableClock(Instant instant) {
+            this.instant = new AtomicReference<>(instant);
+        }
+
+        void advance(Duration duration) {
+            instant.updateAndGet(now -> now.plus(duration));
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant.get();
+        }
+    }
+}
@@ -11,6 +11,8 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.intagau.IntegrationTest;
 import de.intagau.security.AuthoritiesConstants;
 import de.intagau.security.SecurityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -205,4 +207,26 @@ class CustomClaimConverterIT {
             })
             .doesNotThrowAnyException();
     }
+
+    @Test
+    void testConvert_recordsUsersCacheMetrics() {
+        // GIVEN
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        customClaimConverter.bindTo(meterRegistry);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "123");
+        // AND
+        ObjectNode user = mapper.createObjectNode();
+        user.put("preferred_username", USERNAME);
+        mockHttpGetUserInfo(user);
+
+        // WHEN
+        customClaimConverter.convert(claims);
+        customClaimConverter.convert(claims);
+
+        // THEN
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.size").tag("cache", "users").gauge().value()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,259 @@
+package de.intagau.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Test class for the {@link CustomClaimConverter} caching, against a local stub of the IdP userinfo endpoint.
+ */
+class CustomClaimConverterTest {
+
+    private final AtomicLong time = new AtomicLong(1);
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private volatile int status = 200;
+
+    private volatile String username = "admin";
+
+    private volatile long delay;
+
+    private volatile String lastAuthorization;
+
+    private HttpServer idp;
+
+    private CustomClaimConverter customClaimConverter;
+
+    @BeforeEach
+    public void startIdp() throws IOException {
+        idp = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        idp.setExecutor(Executors.newCachedThreadPool());
+        idp.createContext(
+            "/userinfo",
+            exchange -> {
+                calls.incrementAndGet();
+                lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+                int responseStatus = "Bearer expired".equals(lastAuthorization) ? 401 : status;
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = ("{\"preferred_username\":\"" + username + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(responseStatus, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        );
+        idp.start();
+
+        ClientRegistration registration = ClientRegistration
+            .withRegistrationId("stub")
+            .clientId("web_app")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+            .authorizationUri("http://localhost/authorize")
+            .tokenUri("http://localhost/token")
+            .userInfoUri("http://localhost:" + idp.getAddress().getPort() + "/userinfo")
+            .build();
+        customClaimConverter = new CustomClaimConverter(registration, new RestTemplate(), time::get);
+        customClaimConverter.bindTo(meterRegistry);
+        bindRequest();
+    }
+
+    @AfterEach
+    public void stopIdp() {
+        RequestContextHolder.resetRequestAttributes();
+        idp.stop(0);
+    }
+
+    @Test
+    void concurrentConversionsCallTheIdpOnce() throws Exception {
+        delay = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(
+                    executor.submit(() -> {
+                        bindRequest();
+                        return customClaimConverter.convert(claims("123"));
+                    })
+                );
+            }
+            for (Future<Map<String, Object>> result : results) {
+                assertThat(result.get()).containsEntry("preferred_username", "admin");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void userInfoIsRefreshedAheadOfExpiry() {
+        customClaimConverter.convert(claims("123"));
+        username = "renamed";
+
+        advance(CustomClaimConverter.REFRESH_AFTER.plusMinutes(1));
+
+        // The cached user info is served while refreshed in the background
+        assertThat(customClaimConverter.convert(claims("123"))).containsEntry("preferred_username", "admin");
+        eventually(() -> "renamed".equals(customClaimConverter.convert(claims("123")).get("preferred_username")));
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedRefreshesKeepTheUserInfo() {
+        customClaimConverter.convert(claims("123"));
+        status = 503;
+
+        advance(CustomClaimConverter.REFRESH_AFTER.plusMinutes(1));
+        customClaimConverter.convert(claims("123"));
+        eventually(() -> calls.get() == 2);
+
+        assertThat(customClaimConverter.convert(claims("123"))).containsEntry("preferred_username", "admin");
+    }
+
+    @Test
+    void failuresAreCachedBriefly() {
+        status = 503;
+
+        assertThatThrownBy(() -> customClaimConverter.convert(claims("123"))).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> customClaimConverter.convert(claims("123"))).isInstanceOf(JwtException.class);
+        assertThat(calls.get()).isEqualTo(1);
+
+        status = 200;
+        advance(CustomClaimConverter.FAILURE_EXPIRY.plusSeconds(1));
+        assertThat(customClaimConverter.convert(claims("123"))).containsEntry("preferred_username", "admin");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void repeatedFailuresOpenTheCircuit() {
+        status = 503;
+        for (int i = 0; i < CustomClaimConverter.FAILURE_THRESHOLD; i++) {
+            String sub = "user-" + i;
+            assertThatThrownBy(() -> customClaimConverter.convert(claims(sub))).isInstanceOf(JwtException.class);
+        }
+        assertThat(meterRegistry.get("oauth2.userinfo.circuit.open").gauge().value()).isEqualTo(1);
+
+        // Fails fast without calling the IdP
+        assertThatThrownBy(() -> customClaimConverter.convert(claims("other"))).isInstanceOf(JwtException.class);
+        assertThat(calls.get()).isEqualTo(CustomClaimConverter.FAILURE_THRESHOLD);
+        assertThat(meterRegistry.get("oauth2.userinfo.requests").tag("outcome", "server_error").timer().count())
+            .isEqualTo(CustomClaimConverter.FAILURE_THRESHOLD);
+
+        // A trial request closes the circuit once the IdP has recovered
+        status = 200;
+        advance(CustomClaimConverter.OPEN_DURATION.plusSeconds(1));
+        assertThat(customClaimConverter.convert(claims("trial"))).containsEntry("preferred_username", "admin");
+        assertThat(meterRegistry.get("oauth2.userinfo.circuit.open").gauge().value()).isZero();
+    }
+
+    @Test
+    void rejectedTokensDoNotOpenTheCircuit() {
+        status = 401;
+        for (int i = 0; i <= CustomClaimConverter.FAILURE_THRESHOLD; i++) {
+            String sub = "user-" + i;
+            assertThatThrownBy(() -> customClaimConverter.convert(claims(sub))).isInstanceOf(JwtException.class);
+        }
+
+        assertThat(calls.get()).isEqualTo(CustomClaimConverter.FAILURE_THRESHOLD + 1);
+        assertThat(meterRegistry.get("oauth2.userinfo.circuit.open").gauge().value()).isZero();
+    }
+
+    @Test
+    void rejectedTokensDoNotFailTheOtherTokensOfTheUser() {
+        bindRequest("expired");
+        assertThatThrownBy(() -> customClaimConverter.convert(claims("123"))).isInstanceOf(JwtException.class);
+
+        bindRequest("valid");
+        assertThat(customClaimConverter.convert(claims("123"))).containsEntry("preferred_username", "admin");
+        assertThat(calls.get()).isEqualTo(2);
+
+        // The refresh uses the accepted token rather than the latest one
+        advance(CustomClaimConverter.REFRESH_AFTER.plusMinutes(1));
+        bindRequest("expired");
+        username = "renamed";
+        assertThat(customClaimConverter.convert(claims("123"))).containsEntry("preferred_username", "admin");
+        eventually(() -> "renamed".equals(customClaimConverter.convert(claims("123")).get("preferred_username")));
+        assertThat(lastAuthorization).isEqualTo("Bearer valid");
+    }
+
+    @Test
+    void idpLatencyIsRecordedApartFromTheWaits() {
+        customClaimConverter.convert(claims("123"));
+        customClaimConverter.convert(claims("123"));
+
+        assertThat(meterRegistry.get("oauth2.userinfo.requests").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("oauth2.userinfo.wait").tag("result", "miss").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("oauth2.userinfo.wait").tag("result", "hit").timer().count()).isEqualTo(1);
+    }
+
+    private void bindRequest() {
+        bindRequest("token");
+    }
+
+    private void bindRequest(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private void advance(Duration duration) {
+        time.addAndGet(duration.toNanos());
+    }
+
+    private static Map<String, Object> claims(String sub) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", sub);
+        return claims;
+    }
+
+    private static void eventually(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
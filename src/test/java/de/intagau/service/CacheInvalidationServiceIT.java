@@ -0,0 +1,278 @@
+package de.intagau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.domain.Storage;
+import de.intagau.repository.ProductsRepository;
+import de.intagau.repository.StorageRepository;
+import de.intagau.service.CacheInvalidationService.Invalidation;
+import de.intagau.service.CacheInvalidationService.Kind;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link CacheInvalidationService}, with the second level cache enabled and an in-memory
+ * {@link CacheInvalidationBus} standing for the other instances.
+ */
+@IntegrationTest
+@Import(CacheInvalidationServiceIT.InMemoryBusConfiguration.class)
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "application.cache.cluster.repeat-after=0s",
+    }
+)
+class CacheInvalidationServiceIT {
+
+    private static final String PRODUCTS = Products.class.getName();
+
+    @TestConfiguration
+    static class InMemoryBusConfiguration {
+
+        @Bean
+        public InMemoryBus inMemoryBus() {
+            return new InMemoryBus();
+        }
+    }
+
+    static class InMemoryBus implements CacheInvalidationBus {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+
+        private Consumer<String> receiver;
+
+        @Override
+        public void send(String message) {
+            assertThat(message.getBytes(StandardCharsets.UTF_8)).hasSizeLessThanOrEqualTo(maxMessageBytes());
+            sent.add(message);
+        }
+
+        @Override
+        public int maxMessageBytes() {
+            return 1000;
+        }
+
+        @Override
+        public void subscribe(Consumer<String> receiver, Runnable onMessagesLost) {
+            this.receiver = receiver;
+        }
+    }
+
+    @Autowired
+    private InMemoryBus bus;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private SerialNumberService serialNumberService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cache cache;
+
+    private Products products;
+
+    @BeforeEach
+    public void initTest() {
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        products = productsRepository.save(new Products().name("cluster"));
+        bus.sent.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productsRepository.deleteAll();
+        cache.evictAll();
+    }
+
+    @Test
+    void committedWritesArePublished() throws Exception {
+        productsRepository.save(products.name("renamed"));
+
+        List<Invalidation> invalidations = received();
+        assertThat(invalidations)
+            .anySatisfy(invalidation -> {
+                assertThat(invalidation.getKind()).isEqualTo(Kind.ENTITY);
+                assertThat(invalidation.getName()).isEqualTo(PRODUCTS);
+                assertThat(invalidation.getKeys()).containsExactly(products.getId().intValue());
+            })
+            .anySatisfy(invalidation -> {
+                assertThat(invalidation.getKind()).isEqualTo(Kind.QUERY_SPACE);
+                assertThat(invalidation.getKeys()).contains("products");
+            });
+    }
+
+    @Test
+    void rolledBackWritesAreNotPublished() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productsRepository.saveAndFlush(productsRepository.findById(products.getId()).orElseThrow().name("rolled back"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(bus.sent).isEmpty();
+    }
+
+    @Test
+    void invalidationsOfOtherInstancesAreApplied() throws Exception {
+        loadIntoCache();
+
+        // Our own invalidations are ignored
+        cacheInvalidationService.publish(Kind.ENTITY, PRODUCTS, List.of(products.getId()));
+        bus.sent.forEach(bus.receiver);
+        assertThat(cache.containsEntity(Products.class, products.getId())).isTrue();
+
+        bus.receiver.accept(
+            objectMapper.writeValueAsString(new Invalidation("other", Kind.ENTITY, PRODUCTS, List.of(products.getId().intValue())))
+        );
+        assertThat(cache.containsEntity(Products.class, products.getId())).isFalse();
+    }
+
+    @Test
+    void longKeyListsAreSplit() throws Exception {
+        List<Long> ids = LongStream.range(1_000_000_000L, 1_000_001_000L).boxed().collect(Collectors.toList());
+
+        cacheInvalidationService.publish(Kind.ENTITY, PRODUCTS, ids);
+
+        assertThat(bus.sent).hasSizeGreaterThan(1);
+        List<Object> keys = new ArrayList<>();
+        for (Invalidation invalidation : received()) {
+            keys.addAll(invalidation.getKeys());
+        }
+        assertThat(keys).containsExactlyElementsOf(ids.stream().map(Long::intValue).collect(Collectors.toList()));
+    }
+
+    @Test
+    void keyListsAreSplitByEncodedSize() throws Exception {
+        List<String> keys = IntStream.range(0, 100).mapToObj(i -> "Schlüssel-äöü-" + i).collect(Collectors.toList());
+
+        cacheInvalidationService.publish(Kind.CACHE, "keys", keys);
+
+        assertThat(bus.sent).hasSizeGreaterThan(1);
+        List<Object> received = new ArrayList<>();
+        for (Invalidation invalidation : received()) {
+            received.addAll(invalidation.getKeys());
+        }
+        assertThat(received).containsExactlyElementsOf(keys);
+    }
+
+    @Test
+    void lostMessagesClearTheCaches() {
+        loadIntoCache();
+
+        cacheInvalidationService.clearAll();
+
+        assertThat(cache.containsEntity(Products.class, products.getId())).isFalse();
+    }
+
+    @Test
+    void serialNumbersAreSharedWithOtherInstances() throws Exception {
+        serialNumberService.record(List.of("SN-cluster"));
+        assertThat(received())
+            .singleElement()
+            .satisfies(invalidation -> {
+                assertThat(invalidation.getKind()).isEqualTo(Kind.SERIAL_NUMBER);
+                assertThat(invalidation.getKeys()).containsExactly("SN-cluster");
+            });
+
+        Storage storage = storageRepository.save(new Storage().key("cluster"));
+        try {
+            assertThat(serialNumberService.exists("SN-other")).isFalse();
+            insertStockPositionOfOtherInstance(storage, "SN-other");
+            // Unknown to the filter of this instance until received
+            assertThat(serialNumberService.exists("SN-other")).isFalse();
+
+            bus.receiver.accept(objectMapper.writeValueAsString(new Invalidation("other", Kind.SERIAL_NUMBER, null, List.of("SN-other"))));
+            assertThat(serialNumberService.exists("SN-other")).isTrue();
+        } finally {
+            deleteStockPositionsOf(storage);
+        }
+    }
+
+    @Test
+    void lostMessagesReloadTheSerialNumbers() {
+        Storage storage = storageRepository.save(new Storage().key("cluster"));
+        try {
+            assertThat(serialNumberService.exists("SN-lost")).isFalse();
+            insertStockPositionOfOtherInstance(storage, "SN-lost");
+
+            cacheInvalidationService.clearAll();
+
+            assertThat(serialNumberService.exists("SN-lost")).isTrue();
+        } finally {
+            deleteStockPositionsOf(storage);
+        }
+    }
+
+    /**
+     * Insert a stock position behind the back of this instance, as another instance would.
+     */
+    private void insertStockPositionOfOtherInstance(Storage storage, String serialNo) {
+        String insert = "insert into stock_position (id, amount, serial_no, inherit_id) values (?, 1, ?, ?)";
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            new JdbcTemplate(dataSource).update(insert, storage.getId(), serialNo, storage.getId())
+        );
+    }
+
+    private void deleteStockPositionsOf(Storage storage) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            new JdbcTemplate(dataSource).update("delete from stock_position where inherit_id = ?", storage.getId())
+        );
+        storageRepository.delete(storage);
+    }
+
+    private void loadIntoCache() {
+        cache.evictAll();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> productsRepository.findById(products.getId()));
+        assertThat(cache.containsEntity(Products.class, products.getId())).isTrue();
+    }
+
+    private List<Invalidation> received() throws Exception {
+        List<Invalidation> invalidations = new ArrayList<>();
+        for (String message : bus.sent) {
+            invalidations.add(objectMapper.readValue(message, Invalidation.class));
+        }
+        return invalidations;
+    }
+}
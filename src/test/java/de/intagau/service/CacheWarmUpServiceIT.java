@@ -0,0 +1,104 @@
+package de.intagau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom;
+import de.intagau.repository.ProductsRepository;
+import de.intagau.repository.StorageRepository;
+import de.intagau.repository.StorageRoomRepository;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link CacheWarmUpService}, with the second level cache enabled.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "application.cache.warm-up.regions.[de.intagau.domain.Products]=recent",
+        "application.cache.warm-up.regions.[de.intagau.domain.StorageRoom]=all",
+        "application.cache.warm-up.regions.[de.intagau.domain.StorageRoom.contains]=recent",
+        "application.cache.warm-up.batch-size=1",
+        "application.cache.warm-up.snapshot-file=target/cache-warm-up-it.json",
+    }
+)
+class CacheWarmUpServiceIT {
+
+    private static final String CONTAINS_ROLE = StorageRoom.class.getName() + ".contains";
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private StorageRoomRepository storageRoomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Cache cache;
+
+    private Products recent;
+
+    private Products unused;
+
+    private StorageRoom room;
+
+    @BeforeEach
+    public void initTest() {
+        cache = entityManagerFactory.unwrap(org.hibernate.SessionFactory.class).getCache();
+        recent = productsRepository.save(new Products().name("recent"));
+        unused = productsRepository.save(new Products().name("unused"));
+        room = storageRoomRepository.save(new StorageRoom().name("room").inherit(storageRepository.save(new Storage().key("outside"))));
+        storageRepository.save(new Storage().key("shelf").storageRoom(room));
+        cache.evictAll();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        storageRepository.findAll().stream().filter(storage -> storage.getStorageRoom() != null).forEach(storageRepository::delete);
+        storageRoomRepository.deleteAll();
+        storageRepository.deleteAll();
+        productsRepository.deleteAll();
+        cache.evictAll();
+    }
+
+    @Test
+    void warmUpReloadsTheRegions() {
+        // Use a product and the storages of the room, then restart
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productsRepository.findById(recent.getId()).orElseThrow();
+            assertThat(storageRoomRepository.findById(room.getId()).orElseThrow().getContains()).hasSize(1);
+        });
+        assertThat(cache.containsEntity(Products.class, recent.getId())).isTrue();
+        assertThat(cache.containsCollection(CONTAINS_ROLE, room.getId())).isTrue();
+        cacheWarmUpService.saveSnapshot();
+        cache.evictAll();
+
+        cacheWarmUpService.warmUp();
+
+        assertThat(cache.containsEntity(Products.class, recent.getId())).isTrue();
+        assertThat(cache.containsEntity(Products.class, unused.getId())).isFalse();
+        assertThat(cache.containsEntity(StorageRoom.class, room.getId())).isTrue();
+        assertThat(cache.containsCollection(CONTAINS_ROLE, room.getId())).isTrue();
+    }
+}
@@ -0,0 +1,64 @@
+package de.intagau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.Storage;
+import de.intagau.repository.StockPositionRepository;
+import de.intagau.repository.StorageRepository;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link SerialNumberService}.
+ * <p>
+ * The filter is loaded from other transactions than the writing one, so the test data is committed and deleted after
+ * each test.
+ */
+@IntegrationTest
+class SerialNumberServiceIT {
+
+    @Autowired
+    private SerialNumberService serialNumberService;
+
+    @Autowired
+    private StockPositionRepository stockPositionRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Storage storage;
+
+    @BeforeEach
+    public void init() {
+        storage = storageRepository.save(new Storage().key("serial"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        stockPositionRepository.findAllBySerialNoOrderByIdAsc("SN-open").forEach(stockPositionRepository::delete);
+        storageRepository.delete(storage);
+    }
+
+    @Test
+    void serialNumbersWrittenWhileLoadingAreKnownOnceCommitted() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            stockPositionRepository.saveAndFlush(new StockPosition().amount(1).serialNo("SN-open").inherit(storage));
+
+            // Load the filter from another transaction, which cannot see the uncommitted serial number
+            serialNumberService.invalidate();
+            assertThat(CompletableFuture.supplyAsync(() -> serialNumberService.exists("SN-open")).join()).isFalse();
+        });
+
+        assertThat(serialNumberService.exists("SN-open")).isTrue();
+    }
+}
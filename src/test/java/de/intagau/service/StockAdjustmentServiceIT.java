@@ -0,0 +1,136 @@
+package de.intagau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.Storage;
+import de.intagau.repository.StockPositionRepository;
+import de.intagau.repository.StorageRepository;
+import de.intagau.service.dto.StockAdjustmentDTO;
+import de.intagau.service.dto.StockAdjustmentResultDTO;
+import de.intagau.service.dto.StockAdjustmentResultDTO.Status;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link StockAdjustmentService}.
+ * <p>
+ * Adjustments run in their own, concurrent transactions, so the test data is committed and deleted after each test.
+ */
+@IntegrationTest
+class StockAdjustmentServiceIT {
+
+    private static final int INITIAL_AMOUNT = 150;
+
+    private static final int THREADS = 8;
+
+    private static final int ADJUSTMENTS_PER_THREAD = 25;
+
+    @Autowired
+    private StockAdjustmentService stockAdjustmentService;
+
+    @Autowired
+    private StockPositionRepository stockPositionRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    private StockPosition stockPosition;
+
+    @BeforeEach
+    public void init() {
+        Storage storage = storageRepository.save(new Storage().key("adjust"));
+        stockPosition = stockPositionRepository.save(new StockPosition().amount(INITIAL_AMOUNT).inherit(storage));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        stockPositionRepository.deleteAll();
+        storageRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentAdjustmentsAreNotLost() throws Exception {
+        List<StockAdjustmentResultDTO> results = adjustConcurrently(1);
+
+        assertThat(results).extracting(StockAdjustmentResultDTO::getStatus).containsOnly(Status.APPLIED);
+        assertThat(stockPositionRepository.findById(stockPosition.getId()).orElseThrow().getAmount())
+            .isEqualTo(INITIAL_AMOUNT + THREADS * ADJUSTMENTS_PER_THREAD);
+    }
+
+    @Test
+    void concurrentAdjustmentsStopAtZero() throws Exception {
+        List<StockAdjustmentResultDTO> results = adjustConcurrently(-1);
+
+        assertThat(results).filteredOn(result -> result.getStatus() == Status.APPLIED).hasSize(INITIAL_AMOUNT);
+        assertThat(results)
+            .filteredOn(result -> result.getStatus() == Status.INSUFFICIENT_STOCK)
+            .hasSize(THREADS * ADJUSTMENTS_PER_THREAD - INITIAL_AMOUNT)
+            .extracting(StockAdjustmentResultDTO::getAmount)
+            .containsOnly(0);
+        assertThat(stockPositionRepository.findById(stockPosition.getId()).orElseThrow().getAmount()).isZero();
+    }
+
+    @Test
+    void concurrentBatchesInOppositeOrderDoNotDeadlock() throws Exception {
+        StockPosition other = stockPositionRepository.save(
+            new StockPosition().amount(INITIAL_AMOUNT).inherit(storageRepository.save(new Storage().key("adjust other")))
+        );
+        List<StockAdjustmentDTO> forward = List.of(
+            new StockAdjustmentDTO(stockPosition.getId(), 1),
+            new StockAdjustmentDTO(other.getId(), -1)
+        );
+        List<StockAdjustmentDTO> backward = List.of(
+            new StockAdjustmentDTO(other.getId(), 1),
+            new StockAdjustmentDTO(stockPosition.getId(), -1)
+        );
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<List<StockAdjustmentResultDTO>>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS * ADJUSTMENTS_PER_THREAD; i++) {
+                List<StockAdjustmentDTO> batch = i % 2 == 0 ? forward : backward;
+                tasks.add(() -> stockAdjustmentService.adjustAll(batch));
+            }
+            for (Future<List<StockAdjustmentResultDTO>> future : executor.invokeAll(tasks)) {
+                assertThat(future.get()).extracting(StockAdjustmentResultDTO::getStatus).containsOnly(Status.APPLIED);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(stockPositionRepository.findById(stockPosition.getId()).orElseThrow().getAmount()).isEqualTo(INITIAL_AMOUNT);
+        assertThat(stockPositionRepository.findById(other.getId()).orElseThrow().getAmount()).isEqualTo(INITIAL_AMOUNT);
+    }
+
+    @Test
+    void adjustNonExistingStockPosition() {
+        assertThat(stockAdjustmentService.adjust(Long.MAX_VALUE, 1).getStatus()).isEqualTo(Status.NOT_FOUND);
+    }
+
+    private List<StockAdjustmentResultDTO> adjustConcurrently(int delta) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<StockAdjustmentResultDTO>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS * ADJUSTMENTS_PER_THREAD; i++) {
+                tasks.add(() -> stockAdjustmentService.adjust(stockPosition.getId(), delta));
+            }
+            List<StockAdjustmentResultDTO> results = new ArrayList<>();
+            for (Future<StockAdjustmentResultDTO> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
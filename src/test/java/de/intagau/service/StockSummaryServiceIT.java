@@ -0,0 +1,107 @@
+package de.intagau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom;
+import de.intagau.repository.StockPositionRepository;
+import de.intagau.repository.StockSummaryRepository;
+import de.intagau.repository.StorageRepository;
+import de.intagau.repository.StorageRoomRepository;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link StockSummaryService}.
+ * <p>
+ * The recomputations run in concurrent transactions, so the test data is committed and deleted after each test.
+ */
+@IntegrationTest
+class StockSummaryServiceIT {
+
+    @Autowired
+    private StockSummaryService stockSummaryService;
+
+    @Autowired
+    private StockSummaryRepository stockSummaryRepository;
+
+    @Autowired
+    private StorageRoomRepository storageRoomRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private StockPositionRepository stockPositionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private StorageRoom room;
+
+    @BeforeEach
+    public void initTest() {
+        room = storageRoomRepository.save(new StorageRoom().name("room").inherit(storageRepository.save(new Storage().key("outside"))));
+        Storage shelf = storageRepository.save(new Storage().key("shelf").storageRoom(room));
+        stockPositionRepository.save(new StockPosition().amount(5).inherit(shelf));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            new JdbcTemplate(dataSource).update("delete from stock_summary where storage_room_id = ?", room.getId())
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        stockPositionRepository.deleteAll();
+        storageRepository.findAll().stream().filter(storage -> storage.getStorageRoom() != null).forEach(storageRepository::delete);
+        storageRoomRepository.deleteAll();
+        storageRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRefreshesInsertTheMissingRowOnce() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() ->
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                stockSummaryService.refreshStorageRooms(List.of(room.getId()));
+                inserted.countDown();
+                // Let the other refresh find the row missing and wait for this one
+                sleep(500);
+            })
+        );
+        assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            stockSummaryService.refreshStorageRooms(List.of(room.getId()))
+        );
+        first.get(10, TimeUnit.SECONDS);
+
+        assertThat(stockSummaryRepository.findById(room.getId()))
+            .hasValueSatisfying(summary -> {
+                assertThat(summary.getTotalAmount()).isEqualTo(5L);
+                assertThat(summary.getPositionCount()).isEqualTo(1L);
+            });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -145,6 +146,34 @@ class UserServiceIT {
         assertThat(userDTO.getLangKey()).isEqualTo("en");
     }
 
+    @Test
+    @Transactional
+    @WithMockUser(DEFAULT_LOGIN)
+    void testUnchangedClaimsAreNotSyncedAgain() {
+        OAuth2AuthenticationToken authentication = createMockOAuth2AuthenticationToken(userDetails);
+        userService.getUserFromAuthentication(authentication);
+        User saved = userRepository.findOneByLogin(DEFAULT_LOGIN).orElseThrow();
+        saved.setFirstName("changed locally");
+        userRepository.saveAndFlush(saved);
+
+        userService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails));
+
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).orElseThrow().getFirstName()).isEqualTo("changed locally");
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(DEFAULT_LOGIN)
+    void testChangedClaimsAreSynced() {
+        userService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails));
+
+        userDetails.put("given_name", "johnny");
+        AdminUserDTO userDTO = userService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails));
+
+        assertThat(userDTO.getFirstName()).isEqualTo("johnny");
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).orElseThrow().getFirstName()).isEqualTo("johnny");
+    }
+
     private OAuth2AuthenticationToken createMockOAuth2AuthenticationToken(Map<String, Object> userDetails) {
         Collection<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
         UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
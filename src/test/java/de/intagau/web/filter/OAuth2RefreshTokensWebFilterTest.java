@@ -0,0 +1,225 @@
+package de.intagau.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.intagau.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.HttpSessionOAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+
+/**
+ * Test class for the {@link OAuth2RefreshTokensWebFilter}.
+ */
+class OAuth2RefreshTokensWebFilterTest {
+
+    private static final Instant NOW = Instant.parse("2022-09-01T10:00:00Z");
+
+    private final ClientRegistration registration = ClientRegistration
+        .withRegistrationId("oidc")
+        .clientId("web_app")
+        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+        .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+        .authorizationUri("http://localhost/authorize")
+        .tokenUri("http://localhost/token")
+        .build();
+
+    private final ClientRegistrationRepository clientRegistrationRepository = new InMemoryClientRegistrationRepository(registration);
+
+    private final OAuth2AuthorizedClientRepository authorizedClientRepository = new HttpSessionOAuth2AuthorizedClientRepository();
+
+    private final OAuth2AuthorizedClientManager clientManager = mock(OAuth2AuthorizedClientManager.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MockHttpSession session = new MockHttpSession();
+
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    private OAuth2AuthenticationToken authentication;
+
+    private OAuth2RefreshTokensWebFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        DefaultOAuth2User user = new DefaultOAuth2User(AuthorityUtils.createAuthorityList("ROLE_USER"), Map.of("sub", "123"), "sub");
+        authentication = new OAuth2AuthenticationToken(user, user.getAuthorities(), "oidc");
+        filter =
+            new OAuth2RefreshTokensWebFilter(
+                clientManager,
+                authorizedClientRepository,
+                clientRegistrationRepository,
+                new ApplicationProperties().getTokenRefresh(),
+                meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC)
+            );
+        when(clientManager.authorize(any(OAuth2AuthorizeRequest.class)))
+            .thenAnswer(invocation -> {
+                OAuth2AuthorizeRequest request = invocation.getArgument(0);
+                refreshes.incrementAndGet();
+                Thread.sleep(100);
+                OAuth2AuthorizedClient refreshed = authorizedClient(Duration.ofMinutes(5));
+                authorizedClientRepository.saveAuthorizedClient(
+                    refreshed,
+                    authentication,
+                    request.getAttribute(HttpServletRequest.class.getName()),
+                    request.getAttribute(HttpServletResponse.class.getName())
+                );
+                return refreshed;
+            });
+    }
+
+    @AfterEach
+    public void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokensAreNotRefreshed() throws Exception {
+        saveAuthorizedClient(Duration.ofMinutes(5));
+
+        filter(request("/api/account"));
+
+        verify(clientManager, never()).authorize(any());
+        assertThat(meterRegistry.find("oauth2.token.refreshes").counter()).isNull();
+    }
+
+    @Test
+    void expiringTokensAreRefreshed() throws Exception {
+        saveAuthorizedClient(Duration.ofSeconds(30));
+
+        filter(request("/api/account"));
+
+        assertThat(refreshes.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("oauth2.token.refreshes").tag("outcome", "success").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherPathsAreNotFiltered() throws Exception {
+        saveAuthorizedClient(Duration.ofSeconds(30));
+
+        filter(request("/content/images/logo.png"));
+
+        verify(clientManager, never()).authorize(any());
+    }
+
+    @Test
+    void concurrentRequestsOfASessionRefreshOnce() throws Exception {
+        saveAuthorizedClient(Duration.ofSeconds(30));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(
+                    executor.submit(() -> {
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        filter(request("/api/account"));
+                        return null;
+                    })
+                );
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(refreshes.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("oauth2.token.refreshes").tag("outcome", "success").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedRefreshesRedirectToTheLogin() throws Exception {
+        saveAuthorizedClient(Duration.ofSeconds(30));
+        when(clientManager.authorize(any(OAuth2AuthorizeRequest.class))).thenThrow(new IllegalStateException("invalid_grant"));
+
+        MockHttpServletResponse response = filter(request("/oauth2/authorization/oidc"), "/oauth2/**");
+
+        assertThat(response.getRedirectedUrl()).startsWith("http://localhost/authorize");
+        assertThat(meterRegistry.get("oauth2.token.refreshes").tag("outcome", "failure").counter().count()).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, String... paths) throws Exception {
+        if (paths.length > 0) {
+            ApplicationProperties.TokenRefresh properties = new ApplicationProperties().getTokenRefresh();
+            properties.setPaths(List.of(paths));
+            filter =
+                new OAuth2RefreshTokensWebFilter(
+                    clientManager,
+                    authorizedClientRepository,
+                    clientRegistrationRepository,
+                    properties,
+                    meterRegistry,
+                    Clock.fixed(NOW, ZoneOffset.UTC)
+                );
+        }
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setSession(session);
+        return request;
+    }
+
+    private void saveAuthorizedClient(Duration validity) {
+        authorizedClientRepository.saveAuthorizedClient(
+            authorizedClient(validity),
+            authentication,
+            request("/"),
+            new MockHttpServletResponse()
+        );
+    }
+
+    private OAuth2AuthorizedClient authorizedClient(Duration validity) {
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(
+            OAuth2AccessToken.TokenType.BEARER,
+            "token-" + validity,
+            NOW.minus(Duration.ofMinutes(5)),
+            NOW.plus(validity)
+        );
+        return new OAuth2AuthorizedClient(registration, "123", accessToken);
+    }
+}
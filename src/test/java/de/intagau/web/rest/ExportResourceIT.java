@@ -0,0 +1,148 @@
+package de.intagau.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.domain.Storage;
+import de.intagau.repository.ProductsRepository;
+import de.intagau.repository.StorageRepository;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link ExportResource} REST controller.
+ * <p>
+ * The export is streamed from another thread, so the test data is committed rather than rolled back.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ExportResourceIT {
+
+    private static final String EXPORT_API_URL = "/api/export/{entity}";
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private MockMvc restExportMockMvc;
+
+    private Products products;
+
+    @BeforeEach
+    public void initTest() {
+        products = productsRepository.saveAndFlush(new Products().name("Export, \"quoted\"").url("http://localhost").tags("a"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productsRepository.delete(products);
+    }
+
+    @Test
+    void exportProductsAsNdjson() throws Exception {
+        MvcResult asyncResult = restExportMockMvc.perform(get(EXPORT_API_URL, "products")).andExpect(request().asyncStarted()).andReturn();
+
+        String body = restExportMockMvc
+            .perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(ExportResource.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(body.split("\n"))
+            .contains(
+                "{\"id\":" +
+                products.getId() +
+                ",\"name\":\"Export, \\\"quoted\\\"\",\"url\":\"http://localhost\",\"ean\":null,\"tags\":\"a\"}"
+            );
+    }
+
+    @Test
+    void exportProductsAsGzippedCsv() throws Exception {
+        MvcResult asyncResult = restExportMockMvc
+            .perform(get(EXPORT_API_URL, "products").param("format", "csv").param("gzip", "true"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        byte[] body = restExportMockMvc
+            .perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(content().contentType(ExportResource.TEXT_CSV))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(csv.split("\r\n"))
+            .startsWith("id,name,url,ean,tags")
+            .contains(products.getId() + ",\"Export, \"\"quoted\"\"\",http://localhost,,a");
+    }
+
+    @Test
+    void exportStockPositionsUsesFieldNames() throws Exception {
+        MvcResult asyncResult = restExportMockMvc
+            .perform(get(EXPORT_API_URL, "stock-positions").param("format", "csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restExportMockMvc
+            .perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().string("id,amount,serialNo,inheritId\r\n"));
+    }
+
+    @Test
+    void exportStorages() throws Exception {
+        Storage storage = storageRepository.saveAndFlush(new Storage().key("Export shelf"));
+        try {
+            MvcResult asyncResult = restExportMockMvc
+                .perform(get(EXPORT_API_URL, "storages").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            String csv = restExportMockMvc
+                .perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+            assertThat(csv.split("\r\n")).startsWith("id,key,storageRoomId").contains(storage.getId() + ",Export shelf,");
+        } finally {
+            storageRepository.delete(storage);
+        }
+    }
+
+    @Test
+    void exportUnknownEntity() throws Exception {
+        restExportMockMvc.perform(get(EXPORT_API_URL, "users")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportUnsupportedFormat() throws Exception {
+        restExportMockMvc.perform(get(EXPORT_API_URL, "products").param("format", "xml")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,129 @@
+package de.intagau.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.Storage;
+import de.intagau.repository.ProductsRepository;
+import de.intagau.repository.StockPositionRepository;
+import de.intagau.repository.StorageRepository;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link ImportResource} REST controller.
+ * <p>
+ * The import commits its own batches, so the test data is deleted after each test rather than rolled back.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ImportResourceIT {
+
+    private static final String IMPORT_API_URL = "/api/import/{entity}";
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private StockPositionRepository stockPositionRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private MockMvc restImportMockMvc;
+
+    @AfterEach
+    public void cleanup() {
+        stockPositionRepository.deleteAll();
+        storageRepository.deleteAll();
+        productsRepository.deleteAll();
+    }
+
+    @Test
+    void importProductsFromCsv() throws Exception {
+        String csv =
+            "id;name;url;ean;tags\n" +
+            "1;Open-architected Savings;http://hipolito.com;4006381333931;generating redundant\n" +
+            "2;;https://elliott.org;;missing name\n" +
+            "\n" +
+            "3;\"Chair; static\";;;\"with \"\"quotes\"\"\"\r\n";
+
+        restImportMockMvc
+            .perform(post(IMPORT_API_URL, "products").with(csrf()).contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.entity").value("products"))
+            .andExpect(jsonPath("$.rowsRead").value(3))
+            .andExpect(jsonPath("$.rowsImported").value(2))
+            .andExpect(jsonPath("$.rowsRejected").value(1))
+            .andExpect(jsonPath("$.errors[0].line").value(3))
+            .andExpect(jsonPath("$.errors[0].message").value("Missing required field 'name'"));
+
+        List<Products> products = productsRepository.findAll();
+        assertThat(products).extracting(Products::getName).containsExactlyInAnyOrder("Open-architected Savings", "Chair; static");
+        assertThat(products).extracting(Products::getTags).contains("with \"quotes\"");
+        assertThat(products).extracting(Products::getId).doesNotContain(1L, 2L, 3L);
+
+        restImportMockMvc
+            .perform(get("/api/products/search?tags=redundant,generating"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].name").value("Open-architected Savings"));
+    }
+
+    @Test
+    void importStockPositionsFromNdjson() throws Exception {
+        Storage storage = storageRepository.saveAndFlush(new Storage().key("import"));
+        String ndjson =
+            "{\"amount\":12,\"serialNo\":\"SN-1\",\"inheritId\":" +
+            storage.getId() +
+            "}\n" +
+            "{\"amount\":\"twelve\",\"inheritId\":" +
+            storage.getId() +
+            "}\n" +
+            "{\"amount\":3,\"inheritId\":" +
+            Long.MAX_VALUE +
+            "}\n";
+
+        restImportMockMvc
+            .perform(post(IMPORT_API_URL, "stock-positions").with(csrf()).contentType(ExportResource.APPLICATION_NDJSON).content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsRead").value(3))
+            .andExpect(jsonPath("$.rowsImported").value(1))
+            .andExpect(jsonPath("$.rowsRejected").value(2))
+            .andExpect(jsonPath("$.errors[0].line").value(2))
+            .andExpect(jsonPath("$.errors[1].line").value(3));
+
+        List<StockPosition> stockPositions = stockPositionRepository.findAll();
+        assertThat(stockPositions).hasSize(1);
+        assertThat(stockPositions.get(0).getSerialNo()).isEqualTo("SN-1");
+        assertThat(stockPositions.get(0).getAmount()).isEqualTo(12);
+    }
+
+    @Test
+    void importWithUnknownColumn() throws Exception {
+        restImportMockMvc
+            .perform(post(IMPORT_API_URL, "products").with(csrf()).contentType("text/csv").content("name;colour\nA;red\n"))
+            .andExpect(status().isBadRequest());
+
+        assertThat(productsRepository.count()).isZero();
+    }
+
+    @Test
+    void importUnknownEntity() throws Exception {
+        restImportMockMvc
+            .perform(post(IMPORT_API_URL, "users").with(csrf()).contentType("text/csv").content("login\nadmin\n"))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,157 @@
+package de.intagau.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.jayway.jsonpath.JsonPath;
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.repository.ProductsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Objects;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the EAN lookup of the {@link ProductsResource} REST controller.
+ * <p>
+ * The cache is evicted when the transaction completes, so the test data is committed and deleted after each
+ * test rather than rolled back.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ProductsEanLookupIT {
+
+    private static final String EAN_API_URL = "/api/products/by-ean/{ean}";
+
+    private static final String DEFAULT_EAN = "4006381333931";
+    private static final String UPDATED_EAN = "4006381333948";
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc restProductsMockMvc;
+
+    private Cache productsByEanCache;
+
+    @BeforeEach
+    public void initTest() {
+        productsByEanCache = Objects.requireNonNull(cacheManager.getCache(ProductsRepository.PRODUCTS_BY_EAN_CACHE));
+        productsByEanCache.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productsRepository.deleteAll();
+    }
+
+    @Test
+    void getProductsByEan() throws Exception {
+        Products products = productsRepository.save(new Products().name("scanned").ean(DEFAULT_EAN));
+
+        restProductsMockMvc
+            .perform(get(EAN_API_URL, DEFAULT_EAN))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(products.getId().intValue()))
+            .andExpect(jsonPath("$.name").value("scanned"));
+        assertThat(productsByEanCache.get(DEFAULT_EAN)).isNotNull();
+
+        restProductsMockMvc.perform(get(EAN_API_URL, UPDATED_EAN)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void productsChangesEvictTheEanCache() throws Exception {
+        // The miss is cached
+        restProductsMockMvc.perform(get(EAN_API_URL, DEFAULT_EAN)).andExpect(status().isNotFound());
+        assertThat(productsByEanCache.get(DEFAULT_EAN)).isNotNull();
+
+        String created = restProductsMockMvc
+            .perform(
+                post("/api/products")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new Products().name("scanned").ean(DEFAULT_EAN)))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        Long id = ((Number) JsonPath.read(created, "$.id")).longValue();
+        restProductsMockMvc.perform(get(EAN_API_URL, DEFAULT_EAN)).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(id));
+
+        restProductsMockMvc
+            .perform(
+                put("/api/products/{id}", id)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new Products().id(id).name("relabelled").ean(UPDATED_EAN)))
+            )
+            .andExpect(status().isOk());
+        restProductsMockMvc.perform(get(EAN_API_URL, DEFAULT_EAN)).andExpect(status().isNotFound());
+        restProductsMockMvc
+            .perform(get(EAN_API_URL, UPDATED_EAN))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("relabelled"));
+
+        restProductsMockMvc
+            .perform(
+                patch("/api/products/{id}", id)
+                    .with(csrf())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new Products().id(id).name("renamed")))
+            )
+            .andExpect(status().isOk());
+        restProductsMockMvc.perform(get(EAN_API_URL, UPDATED_EAN)).andExpect(jsonPath("$.name").value("renamed"));
+
+        restProductsMockMvc.perform(delete("/api/products/{id}", id).with(csrf())).andExpect(status().isNoContent());
+        restProductsMockMvc.perform(get(EAN_API_URL, UPDATED_EAN)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void eanLookupsAreMeasured() throws Exception {
+        double missesBefore = cacheGets("miss");
+        double hitsBefore = cacheGets("hit");
+
+        restProductsMockMvc.perform(get(EAN_API_URL, DEFAULT_EAN)).andExpect(status().isNotFound());
+        restProductsMockMvc.perform(get(EAN_API_URL, DEFAULT_EAN)).andExpect(status().isNotFound());
+
+        assertThat(cacheGets("miss")).isEqualTo(missesBefore + 1);
+        assertThat(cacheGets("hit")).isEqualTo(hitsBefore + 1);
+        assertThat(
+            meterRegistry
+                .get("cache.latency")
+                .tag("cache", ProductsRepository.PRODUCTS_BY_EAN_CACHE)
+                .tag("operation", "get")
+                .timeGauge()
+                .value()
+        )
+            .isNotNaN();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", ProductsRepository.PRODUCTS_BY_EAN_CACHE)
+            .tag("result", result)
+            .functionCounter()
+            .count();
+    }
+}
@@ -1,14 +1,18 @@
 package de.intagau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import de.intagau.IntegrationTest;
 import de.intagau.domain.Products;
+import de.intagau.domain.StorageRoom;
 import de.intagau.repository.ProductsRepository;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -20,6 +24,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -173,6 +178,418 @@ class ProductsResourceIT {
             .andExpect(jsonPath("$.[*].tags").value(hasItem(DEFAULT_TAGS)));
     }
 
+    @Test
+    @Transactional
+    void getProductsByIdFiltering() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        Long id = products.getId();
+
+        defaultProductsShouldBeFound("id.equals=" + id);
+        defaultProductsShouldNotBeFound("id.notEquals=" + id);
+
+        defaultProductsShouldBeFound("id.greaterThanOrEqual=" + id);
+        defaultProductsShouldNotBeFound("id.greaterThan=" + id);
+
+        defaultProductsShouldBeFound("id.lessThanOrEqual=" + id);
+        defaultProductsShouldNotBeFound("id.lessThan=" + id);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByNameIsEqualToSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where name equals to DEFAULT_NAME
+        defaultProductsShouldBeFound("name.equals=" + DEFAULT_NAME);
+
+        // Get all the productsList where name equals to UPDATED_NAME
+        defaultProductsShouldNotBeFound("name.equals=" + UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByNameIsInShouldWork() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where name in DEFAULT_NAME or UPDATED_NAME
+        defaultProductsShouldBeFound("name.in=" + DEFAULT_NAME + "," + UPDATED_NAME);
+
+        // Get all the productsList where name equals to UPDATED_NAME
+        defaultProductsShouldNotBeFound("name.in=" + UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByNameIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where name is not null
+        defaultProductsShouldBeFound("name.specified=true");
+
+        // Get all the productsList where name is null
+        defaultProductsShouldNotBeFound("name.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByNameContainsSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where name contains DEFAULT_NAME
+        defaultProductsShouldBeFound("name.contains=" + DEFAULT_NAME);
+
+        // Get all the productsList where name contains UPDATED_NAME
+        defaultProductsShouldNotBeFound("name.contains=" + UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByNameNotContainsSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where name does not contain DEFAULT_NAME
+        defaultProductsShouldNotBeFound("name.doesNotContain=" + DEFAULT_NAME);
+
+        // Get all the productsList where name does not contain UPDATED_NAME
+        defaultProductsShouldBeFound("name.doesNotContain=" + UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByUrlIsEqualToSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where url equals to DEFAULT_URL
+        defaultProductsShouldBeFound("url.equals=" + DEFAULT_URL);
+
+        // Get all the productsList where url equals to UPDATED_URL
+        defaultProductsShouldNotBeFound("url.equals=" + UPDATED_URL);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByUrlIsInShouldWork() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where url in DEFAULT_URL or UPDATED_URL
+        defaultProductsShouldBeFound("url.in=" + DEFAULT_URL + "," + UPDATED_URL);
+
+        // Get all the productsList where url equals to UPDATED_URL
+        defaultProductsShouldNotBeFound("url.in=" + UPDATED_URL);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByUrlIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where url is not null
+        defaultProductsShouldBeFound("url.specified=true");
+
+        // Get all the productsList where url is null
+        defaultProductsShouldNotBeFound("url.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByUrlContainsSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where url contains DEFAULT_URL
+        defaultProductsShouldBeFound("url.contains=" + DEFAULT_URL);
+
+        // Get all the productsList where url contains UPDATED_URL
+        defaultProductsShouldNotBeFound("url.contains=" + UPDATED_URL);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByUrlNotContainsSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where url does not contain DEFAULT_URL
+        defaultProductsShouldNotBeFound("url.doesNotContain=" + DEFAULT_URL);
+
+        // Get all the productsList where url does not contain UPDATED_URL
+        defaultProductsShouldBeFound("url.doesNotContain=" + UPDATED_URL);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByEanIsEqualToSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where ean equals to DEFAULT_EAN
+        defaultProductsShouldBeFound("ean.equals=" + DEFAULT_EAN);
+
+        // Get all the productsList where ean equals to UPDATED_EAN
+        defaultProductsShouldNotBeFound("ean.equals=" + UPDATED_EAN);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByEanIsInShouldWork() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where ean in DEFAULT_EAN or UPDATED_EAN
+        defaultProductsShouldBeFound("ean.in=" + DEFAULT_EAN + "," + UPDATED_EAN);
+
+        // Get all the productsList where ean equals to UPDATED_EAN
+        defaultProductsShouldNotBeFound("ean.in=" + UPDATED_EAN);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByEanIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where ean is not null
+        defaultProductsShouldBeFound("ean.specified=true");
+
+        // Get all the productsList where ean is null
+        defaultProductsShouldNotBeFound("ean.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByEanContainsSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where ean contains DEFAULT_EAN
+        defaultProductsShouldBeFound("ean.contains=" + DEFAULT_EAN);
+
+        // Get all the productsList where ean contains UPDATED_EAN
+        defaultProductsShouldNotBeFound("ean.contains=" + UPDATED_EAN);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByEanNotContainsSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where ean does not contain DEFAULT_EAN
+        defaultProductsShouldNotBeFound("ean.doesNotContain=" + DEFAULT_EAN);
+
+        // Get all the productsList where ean does not contain UPDATED_EAN
+        defaultProductsShouldBeFound("ean.doesNotContain=" + UPDATED_EAN);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByTagsIsEqualToSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where tags equals to DEFAULT_TAGS
+        defaultProductsShouldBeFound("tags.equals=" + DEFAULT_TAGS);
+
+        // Get all the productsList where tags equals to UPDATED_TAGS
+        defaultProductsShouldNotBeFound("tags.equals=" + UPDATED_TAGS);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByTagsIsInShouldWork() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where tags in DEFAULT_TAGS or UPDATED_TAGS
+        defaultProductsShouldBeFound("tags.in=" + DEFAULT_TAGS + "," + UPDATED_TAGS);
+
+        // Get all the productsList where tags equals to UPDATED_TAGS
+        defaultProductsShouldNotBeFound("tags.in=" + UPDATED_TAGS);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByTagsIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where tags is not null
+        defaultProductsShouldBeFound("tags.specified=true");
+
+        // Get all the productsList where tags is null
+        defaultProductsShouldNotBeFound("tags.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByTagsContainsSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where tags contains DEFAULT_TAGS
+        defaultProductsShouldBeFound("tags.contains=" + DEFAULT_TAGS);
+
+        // Get all the productsList where tags contains UPDATED_TAGS
+        defaultProductsShouldNotBeFound("tags.contains=" + UPDATED_TAGS);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByTagsNotContainsSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+
+        // Get all the productsList where tags does not contain DEFAULT_TAGS
+        defaultProductsShouldNotBeFound("tags.doesNotContain=" + DEFAULT_TAGS);
+
+        // Get all the productsList where tags does not contain UPDATED_TAGS
+        defaultProductsShouldBeFound("tags.doesNotContain=" + UPDATED_TAGS);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByStoredIsEqualToSomething() throws Exception {
+        // Initialize the database
+        productsRepository.saveAndFlush(products);
+        StorageRoom stored = StorageRoomResourceIT.createEntity(em);
+        em.persist(stored);
+        em.flush();
+        products.addStored(stored);
+        productsRepository.saveAndFlush(products);
+        Long storedId = stored.getId();
+
+        // Get all the productsList where stored equals to storedId
+        defaultProductsShouldBeFound("storedId.equals=" + storedId);
+
+        // Get all the productsList where stored equals to (storedId + 1)
+        defaultProductsShouldNotBeFound("storedId.equals=" + (storedId + 1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultProductsShouldBeFound(String filter) throws Exception {
+        restProductsMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(products.getId().intValue())))
+            .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
+            .andExpect(jsonPath("$.[*].url").value(hasItem(DEFAULT_URL)))
+            .andExpect(jsonPath("$.[*].ean").value(hasItem(DEFAULT_EAN)))
+            .andExpect(jsonPath("$.[*].tags").value(hasItem(DEFAULT_TAGS)));
+
+        // Check, that the count call also returns 1
+        restProductsMockMvc
+            .perform(get(ENTITY_API_URL + "/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultProductsShouldNotBeFound(String filter) throws Exception {
+        restProductsMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restProductsMockMvc
+            .perform(get(ENTITY_API_URL + "/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsAfterCursorById() throws Exception {
+        // Initialize the database
+        Products other = createUpdatedEntity(em);
+        productsRepository.saveAndFlush(products);
+        productsRepository.saveAndFlush(other);
+
+        List<Object> ids = walkProductsAfter("sort=id", "id");
+
+        assertThat(ids).hasSize((int) productsRepository.count());
+        assertThat(ids).contains(products.getId().intValue(), other.getId().intValue());
+        assertThat(ids).isSortedAccordingTo((a, b) -> Long.compare(((Number) a).longValue(), ((Number) b).longValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsAfterCursorByName() throws Exception {
+        // Initialize the database, the second product sorts first by name
+        Products other = createEntity(em).name("0" + DEFAULT_NAME);
+        productsRepository.saveAndFlush(products);
+        productsRepository.saveAndFlush(other);
+
+        List<Object> names = walkProductsAfter("sort=name,asc", "name");
+
+        assertThat(names).hasSize((int) productsRepository.count());
+        assertThat(names).contains(DEFAULT_NAME, "0" + DEFAULT_NAME);
+        assertThat(names).isSortedAccordingTo((a, b) -> ((String) a).compareTo((String) b));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsAfterInvalidCursor() throws Exception {
+        restProductsMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+
+        // A cursor issued for the id order cannot be replayed against the name order
+        productsRepository.saveAndFlush(products);
+        productsRepository.saveAndFlush(createUpdatedEntity(em));
+        String next = restProductsMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=1&sort=id"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+        restProductsMockMvc.perform(get(ENTITY_API_URL + "?after=" + next + "&sort=name")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsAfterUnsupportedSort() throws Exception {
+        restProductsMockMvc.perform(get(ENTITY_API_URL + "?after=&sort=url")).andExpect(status().isBadRequest());
+        restProductsMockMvc.perform(get(ENTITY_API_URL + "?after=&sort=name,desc")).andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Follows the keyset cursors one row at a time and collects {@code field} of every row.
+     */
+    private List<Object> walkProductsAfter(String sort, String field) throws Exception {
+        List<Object> values = new ArrayList<>();
+        String after = "";
+        do {
+            MvcResult result = restProductsMockMvc
+                .perform(get(ENTITY_API_URL + "?size=1&" + sort + "&after=" + after))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andReturn();
+            values.addAll(JsonPath.<List<Object>>read(result.getResponse().getContentAsString(), "$[*]." + field));
+            after = result.getResponse().getHeader("X-Next-Cursor");
+        } while (after != null);
+        return values;
+    }
+
     @Test
     @Transactional
     void getProducts() throws Exception {
@@ -440,4 +857,30 @@ class ProductsResourceIT {
         List<Products> productsList = productsRepository.findAll();
         assertThat(productsList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void searchProducts() throws Exception {
+        // Initialize the database
+        Products containing = productsRepository.saveAndFlush(new Products().name("Cordless Drill Driver").tags("tools"));
+        Products starting = productsRepository.saveAndFlush(new Products().name("Drill Bits").tags("tools metal"));
+        productsRepository.saveAndFlush(new Products().name("Hammer").tags("tools"));
+
+        // Search the products
+        restProductsMockMvc
+            .perform(get("/api/_search/products?query=drill"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.[0].id").value(starting.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(containing.getId().intValue()));
+        restProductsMockMvc
+            .perform(get("/api/_search/products?query=DRI, metal"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(starting.getId().intValue())));
+        restProductsMockMvc
+            .perform(get("/api/_search/products?query= - "))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"));
+    }
 }
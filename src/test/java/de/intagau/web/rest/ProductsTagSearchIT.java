@@ -0,0 +1,104 @@
+package de.intagau.web.rest;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.repository.ProductsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the tag search of the {@link ProductsResource} REST controller.
+ * <p>
+ * The tags are indexed when the transaction commits, so the test data is committed and deleted after each
+ * test rather than rolled back.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ProductsTagSearchIT {
+
+    private static final String SEARCH_API_URL = "/api/products/search";
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private MockMvc restProductsMockMvc;
+
+    private Products redAndBlue;
+
+    private Products redAndGreen;
+
+    private Products blue;
+
+    @BeforeEach
+    public void initTest() {
+        redAndBlue = productsRepository.save(new Products().name("red and blue").tags("Tagsearch-Red, tagsearch-blue"));
+        redAndGreen = productsRepository.save(new Products().name("red and green").tags("tagsearch-red tagsearch-green"));
+        blue = productsRepository.save(new Products().name("blue").tags("tagsearch-blue"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productsRepository.deleteAll();
+    }
+
+    @Test
+    void searchProductsWithAllTags() throws Exception {
+        restProductsMockMvc
+            .perform(get(SEARCH_API_URL + "?tags=tagsearch-red,TAGSEARCH-BLUE&mode=all"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(containsInAnyOrder(redAndBlue.getId().intValue())));
+    }
+
+    @Test
+    void searchProductsWithAnyTag() throws Exception {
+        restProductsMockMvc
+            .perform(get(SEARCH_API_URL + "?tags=tagsearch-green,tagsearch-blue&mode=any&sort=id,asc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(
+                jsonPath("$.[*].id")
+                    .value(containsInAnyOrder(redAndBlue.getId().intValue(), redAndGreen.getId().intValue(), blue.getId().intValue()))
+            );
+    }
+
+    @Test
+    void searchFollowsProductsChanges() throws Exception {
+        redAndGreen.setTags("tagsearch-blue,tagsearch-green");
+        restProductsMockMvc
+            .perform(
+                put("/api/products/{id}", redAndGreen.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(redAndGreen))
+            )
+            .andExpect(status().isOk());
+        restProductsMockMvc
+            .perform(get(SEARCH_API_URL + "?tags=tagsearch-red"))
+            .andExpect(jsonPath("$.[*].id").value(containsInAnyOrder(redAndBlue.getId().intValue())));
+
+        restProductsMockMvc.perform(delete("/api/products/{id}", redAndBlue.getId()).with(csrf())).andExpect(status().isNoContent());
+        restProductsMockMvc
+            .perform(get(SEARCH_API_URL + "?tags=tagsearch-blue&mode=any"))
+            .andExpect(jsonPath("$.[*].id").value(containsInAnyOrder(redAndGreen.getId().intValue(), blue.getId().intValue())));
+    }
+
+    @Test
+    void searchProductsWithInvalidParameters() throws Exception {
+        restProductsMockMvc.perform(get(SEARCH_API_URL + "?tags=tagsearch-red&mode=most")).andExpect(status().isBadRequest());
+        restProductsMockMvc.perform(get(SEARCH_API_URL + "?tags=,")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,175 @@
+package de.intagau.web.rest;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.Storage;
+import de.intagau.repository.StockMovementRepository;
+import de.intagau.repository.StockPositionRepository;
+import de.intagau.repository.StorageRepository;
+import de.intagau.service.StockLedgerService;
+import de.intagau.service.dto.StockAdjustmentDTO;
+import java.time.Instant;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link StockMovementResource} REST controller.
+ * <p>
+ * Movements are written when the transaction commits, so the test data is committed and deleted after each
+ * test rather than rolled back.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser("ledger-user")
+class StockMovementResourceIT {
+
+    private static final String ENTITY_API_URL_ID = "/api/stock-positions/{id}";
+
+    @Autowired
+    private StockPositionRepository stockPositionRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MockMvc restStockMovementMockMvc;
+
+    private StockPosition stockPosition;
+
+    @BeforeEach
+    public void initTest() {
+        stockPosition =
+            stockPositionRepository.save(new StockPosition().amount(10).inherit(storageRepository.save(new Storage().key("ledger"))));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        stockPositionRepository.deleteAll();
+        storageRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        new JdbcTemplate(dataSource).update("delete from stock_snapshot");
+    }
+
+    @Test
+    void getStockMovements() throws Exception {
+        adjust(5);
+        stockPosition.setAmount(3);
+        restStockMovementMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, stockPosition.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(stockPosition))
+            )
+            .andExpect(status().isOk());
+
+        restStockMovementMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/movements", stockPosition.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.[0].type").value("UPDATED"))
+            .andExpect(jsonPath("$.[0].delta").value(-12))
+            .andExpect(jsonPath("$.[1].type").value("ADJUSTED"))
+            .andExpect(jsonPath("$.[1].delta").value(5))
+            .andExpect(jsonPath("$.[2].type").value("CREATED"))
+            .andExpect(jsonPath("$.[2].delta").value(10))
+            .andExpect(jsonPath("$.[2].stockPositionId").value(stockPosition.getId().intValue()))
+            .andExpect(jsonPath("$.[2].createdBy").value("ledger-user"));
+    }
+
+    @Test
+    void getStockLevelInThePast() throws Exception {
+        Instant beforeCreation = Instant.parse("2000-01-01T00:00:00Z");
+        adjust(5);
+        Instant afterAdjustment = tick();
+        adjust(-12);
+
+        restStockMovementMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/amount", stockPosition.getId()).param("at", afterAdjustment.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.amount").value(15))
+            .andExpect(jsonPath("$.replayedMovements").value(2));
+        restStockMovementMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/amount", stockPosition.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.amount").value(3));
+        restStockMovementMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/amount", stockPosition.getId()).param("at", beforeCreation.toString()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getStockLevelFromSnapshot() throws Exception {
+        adjust(5);
+        Instant afterAdjustment = tick();
+        adjust(-12);
+        stockLedgerService.takeSnapshots(tick());
+        adjust(-1);
+
+        restStockMovementMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/amount", stockPosition.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.amount").value(2))
+            .andExpect(jsonPath("$.snapshotAt").isNotEmpty())
+            .andExpect(jsonPath("$.replayedMovements").value(1));
+        restStockMovementMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/amount", stockPosition.getId()).param("at", afterAdjustment.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.amount").value(15));
+
+        // A second snapshot builds on the first one
+        stockLedgerService.takeSnapshots(tick());
+        restStockMovementMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/amount", stockPosition.getId()))
+            .andExpect(jsonPath("$.amount").value(2))
+            .andExpect(jsonPath("$.replayedMovements").value(0));
+
+        restStockMovementMockMvc.perform(delete(ENTITY_API_URL_ID, stockPosition.getId()).with(csrf())).andExpect(status().isNoContent());
+        restStockMovementMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/amount", stockPosition.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.amount").value(0));
+    }
+
+    private void adjust(int delta) throws Exception {
+        restStockMovementMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/adjust", stockPosition.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new StockAdjustmentDTO(null, delta)))
+            )
+            .andExpect(status().isOk());
+    }
+
+    /**
+     * @return a point in time strictly between the movements written before and after the call.
+     */
+    private static Instant tick() throws InterruptedException {
+        Thread.sleep(5);
+        Instant now = Instant.now();
+        Thread.sleep(5);
+        return now;
+    }
+}
@@ -6,10 +6,13 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import de.intagau.IntegrationTest;
 import de.intagau.domain.StockPosition;
 import de.intagau.domain.Storage;
 import de.intagau.repository.StockPositionRepository;
+import de.intagau.service.dto.StockAdjustmentDTO;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -21,6 +24,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -33,6 +37,7 @@ class StockPositionResourceIT {
 
     private static final Integer DEFAULT_AMOUNT = 1;
     private static final Integer UPDATED_AMOUNT = 2;
+    private static final Integer SMALLER_AMOUNT = 1 - 1;
 
     private static final String DEFAULT_SERIAL_NO = "AAAAAAAAAA";
     private static final String UPDATED_SERIAL_NO = "BBBBBBBBBB";
@@ -162,6 +167,269 @@ class StockPositionResourceIT {
             .andExpect(jsonPath("$.[*].serialNo").value(hasItem(DEFAULT_SERIAL_NO)));
     }
 
+    @Test
+    @Transactional
+    void getStockPositionsByIdFiltering() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        Long id = stockPosition.getId();
+
+        defaultStockPositionShouldBeFound("id.equals=" + id);
+        defaultStockPositionShouldNotBeFound("id.notEquals=" + id);
+
+        defaultStockPositionShouldBeFound("id.greaterThanOrEqual=" + id);
+        defaultStockPositionShouldNotBeFound("id.greaterThan=" + id);
+
+        defaultStockPositionShouldBeFound("id.lessThanOrEqual=" + id);
+        defaultStockPositionShouldNotBeFound("id.lessThan=" + id);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsByAmountIsEqualToSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where amount equals to DEFAULT_AMOUNT
+        defaultStockPositionShouldBeFound("amount.equals=" + DEFAULT_AMOUNT);
+
+        // Get all the stockPositionList where amount equals to UPDATED_AMOUNT
+        defaultStockPositionShouldNotBeFound("amount.equals=" + UPDATED_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsByAmountIsInShouldWork() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where amount in DEFAULT_AMOUNT or UPDATED_AMOUNT
+        defaultStockPositionShouldBeFound("amount.in=" + DEFAULT_AMOUNT + "," + UPDATED_AMOUNT);
+
+        // Get all the stockPositionList where amount equals to UPDATED_AMOUNT
+        defaultStockPositionShouldNotBeFound("amount.in=" + UPDATED_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsByAmountIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where amount is not null
+        defaultStockPositionShouldBeFound("amount.specified=true");
+
+        // Get all the stockPositionList where amount is null
+        defaultStockPositionShouldNotBeFound("amount.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsByAmountIsGreaterThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where amount is greater than or equal to DEFAULT_AMOUNT
+        defaultStockPositionShouldBeFound("amount.greaterThanOrEqual=" + DEFAULT_AMOUNT);
+
+        // Get all the stockPositionList where amount is greater than or equal to UPDATED_AMOUNT
+        defaultStockPositionShouldNotBeFound("amount.greaterThanOrEqual=" + UPDATED_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsByAmountIsLessThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where amount is less than or equal to DEFAULT_AMOUNT
+        defaultStockPositionShouldBeFound("amount.lessThanOrEqual=" + DEFAULT_AMOUNT);
+
+        // Get all the stockPositionList where amount is less than or equal to SMALLER_AMOUNT
+        defaultStockPositionShouldNotBeFound("amount.lessThanOrEqual=" + SMALLER_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsByAmountIsLessThanSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where amount is less than DEFAULT_AMOUNT
+        defaultStockPositionShouldNotBeFound("amount.lessThan=" + DEFAULT_AMOUNT);
+
+        // Get all the stockPositionList where amount is less than UPDATED_AMOUNT
+        defaultStockPositionShouldBeFound("amount.lessThan=" + UPDATED_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsByAmountIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where amount is greater than DEFAULT_AMOUNT
+        defaultStockPositionShouldNotBeFound("amount.greaterThan=" + DEFAULT_AMOUNT);
+
+        // Get all the stockPositionList where amount is greater than SMALLER_AMOUNT
+        defaultStockPositionShouldBeFound("amount.greaterThan=" + SMALLER_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsBySerialNoIsEqualToSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where serialNo equals to DEFAULT_SERIAL_NO
+        defaultStockPositionShouldBeFound("serialNo.equals=" + DEFAULT_SERIAL_NO);
+
+        // Get all the stockPositionList where serialNo equals to UPDATED_SERIAL_NO
+        defaultStockPositionShouldNotBeFound("serialNo.equals=" + UPDATED_SERIAL_NO);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsBySerialNoIsInShouldWork() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where serialNo in DEFAULT_SERIAL_NO or UPDATED_SERIAL_NO
+        defaultStockPositionShouldBeFound("serialNo.in=" + DEFAULT_SERIAL_NO + "," + UPDATED_SERIAL_NO);
+
+        // Get all the stockPositionList where serialNo equals to UPDATED_SERIAL_NO
+        defaultStockPositionShouldNotBeFound("serialNo.in=" + UPDATED_SERIAL_NO);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsBySerialNoIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where serialNo is not null
+        defaultStockPositionShouldBeFound("serialNo.specified=true");
+
+        // Get all the stockPositionList where serialNo is null
+        defaultStockPositionShouldNotBeFound("serialNo.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsBySerialNoContainsSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where serialNo contains DEFAULT_SERIAL_NO
+        defaultStockPositionShouldBeFound("serialNo.contains=" + DEFAULT_SERIAL_NO);
+
+        // Get all the stockPositionList where serialNo contains UPDATED_SERIAL_NO
+        defaultStockPositionShouldNotBeFound("serialNo.contains=" + UPDATED_SERIAL_NO);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsBySerialNoNotContainsSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get all the stockPositionList where serialNo does not contain DEFAULT_SERIAL_NO
+        defaultStockPositionShouldNotBeFound("serialNo.doesNotContain=" + DEFAULT_SERIAL_NO);
+
+        // Get all the stockPositionList where serialNo does not contain UPDATED_SERIAL_NO
+        defaultStockPositionShouldBeFound("serialNo.doesNotContain=" + UPDATED_SERIAL_NO);
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsByInheritIsEqualToSomething() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+        Long inheritId = stockPosition.getInherit().getId();
+
+        // Get all the stockPositionList where inherit equals to inheritId
+        defaultStockPositionShouldBeFound("inheritId.equals=" + inheritId);
+
+        // Get all the stockPositionList where inherit equals to (inheritId + 1)
+        defaultStockPositionShouldNotBeFound("inheritId.equals=" + (inheritId + 1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultStockPositionShouldBeFound(String filter) throws Exception {
+        restStockPositionMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(stockPosition.getId().intValue())))
+            .andExpect(jsonPath("$.[*].amount").value(hasItem(DEFAULT_AMOUNT)))
+            .andExpect(jsonPath("$.[*].serialNo").value(hasItem(DEFAULT_SERIAL_NO)));
+
+        // Check, that the count call also returns 1
+        restStockPositionMockMvc
+            .perform(get(ENTITY_API_URL + "/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultStockPositionShouldNotBeFound(String filter) throws Exception {
+        restStockPositionMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restStockPositionMockMvc
+            .perform(get(ENTITY_API_URL + "/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsAfterCursor() throws Exception {
+        // Initialize the database, each stock position needs a storage of its own
+        stockPositionRepository.saveAndFlush(stockPosition);
+        Storage storage = StorageResourceIT.createUpdatedEntity(em);
+        em.persist(storage);
+        em.flush();
+        StockPosition other = createUpdatedEntity(em);
+        other.setInherit(storage);
+        stockPositionRepository.saveAndFlush(other);
+
+        List<Object> ids = new ArrayList<>();
+        String after = "";
+        do {
+            MvcResult result = restStockPositionMockMvc
+                .perform(get(ENTITY_API_URL + "?size=1&after=" + after))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+            ids.addAll(JsonPath.<List<Object>>read(result.getResponse().getContentAsString(), "$[*].id"));
+            after = result.getResponse().getHeader("X-Next-Cursor");
+        } while (after != null);
+
+        assertThat(ids).hasSize((int) stockPositionRepository.count());
+        assertThat(ids).contains(stockPosition.getId().intValue(), other.getId().intValue());
+        assertThat(ids).isSortedAccordingTo((a, b) -> Long.compare(((Number) a).longValue(), ((Number) b).longValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllStockPositionsAfterInvalidCursorOrSort() throws Exception {
+        restStockPositionMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+        restStockPositionMockMvc.perform(get(ENTITY_API_URL + "?after=&sort=amount")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getStockPosition() throws Exception {
@@ -185,6 +453,85 @@ class StockPositionResourceIT {
         restStockPositionMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getStockPositionsBySerialNo() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        // Get the stockPositions by serial number
+        restStockPositionMockMvc
+            .perform(get(ENTITY_API_URL + "/by-serial/{serialNo}", DEFAULT_SERIAL_NO))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(stockPosition.getId().intValue())))
+            .andExpect(jsonPath("$.[*].serialNo").value(hasItem(DEFAULT_SERIAL_NO)));
+        restStockPositionMockMvc
+            .perform(get(ENTITY_API_URL + "/by-serial/{serialNo}", UPDATED_SERIAL_NO))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void createStockPositionWithExistingSerialNo() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+        int databaseSizeBeforeCreate = stockPositionRepository.findAll().size();
+
+        // A serial number is used by one stockPosition only, so this API call must fail
+        restStockPositionMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(createEntity(em)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.serialexists"));
+
+        // Validate the StockPosition in the database
+        List<StockPosition> stockPositionList = stockPositionRepository.findAll();
+        assertThat(stockPositionList).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void updateStockPositionWithSerialNoOfAnother() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+        Storage otherStorage = StorageResourceIT.createEntity(em);
+        em.persist(otherStorage);
+        StockPosition otherStockPosition = stockPositionRepository.saveAndFlush(
+            new StockPosition().amount(DEFAULT_AMOUNT).serialNo(UPDATED_SERIAL_NO).inherit(otherStorage)
+        );
+        em.detach(otherStockPosition);
+
+        // Neither a full nor a partial update may take the serial number of another stockPosition
+        restStockPositionMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, otherStockPosition.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(otherStockPosition.serialNo(DEFAULT_SERIAL_NO)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.serialexists"));
+        restStockPositionMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, otherStockPosition.getId())
+                    .with(csrf())
+                    .contentType("application/merge-patch+json")
+                    .content(
+                        TestUtil.convertObjectToJsonBytes(new StockPosition().id(otherStockPosition.getId()).serialNo(DEFAULT_SERIAL_NO))
+                    )
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.serialexists"));
+
+        assertThat(stockPositionRepository.findById(otherStockPosition.getId()).orElseThrow().getSerialNo()).isEqualTo(UPDATED_SERIAL_NO);
+    }
+
     @Test
     @Transactional
     void putExistingStockPosition() throws Exception {
@@ -404,6 +751,143 @@ class StockPositionResourceIT {
         assertThat(stockPositionList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void adjustStockPosition() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        restStockPositionMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/adjust", stockPosition.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new StockAdjustmentDTO(null, 5)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.stockPositionId").value(stockPosition.getId().intValue()))
+            .andExpect(jsonPath("$.status").value("APPLIED"))
+            .andExpect(jsonPath("$.amount").value(DEFAULT_AMOUNT + 5));
+
+        em.refresh(stockPosition);
+        assertThat(stockPosition.getAmount()).isEqualTo(DEFAULT_AMOUNT + 5);
+    }
+
+    @Test
+    @Transactional
+    void adjustStockPositionBelowZero() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        restStockPositionMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/adjust", stockPosition.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new StockAdjustmentDTO(null, -DEFAULT_AMOUNT - 1)))
+            )
+            .andExpect(status().isBadRequest());
+
+        em.refresh(stockPosition);
+        assertThat(stockPosition.getAmount()).isEqualTo(DEFAULT_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void adjustNonExistingStockPosition() throws Exception {
+        restStockPositionMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/adjust", count.incrementAndGet())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new StockAdjustmentDTO(null, 1)))
+            )
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void adjustWithIdMismatchStockPosition() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        restStockPositionMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/adjust", stockPosition.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new StockAdjustmentDTO(count.incrementAndGet(), 1)))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void adjustStockPositionsInBatch() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+        Storage otherStorage = StorageResourceIT.createEntity(em);
+        em.persist(otherStorage);
+        StockPosition otherStockPosition = stockPositionRepository.saveAndFlush(
+            new StockPosition().amount(DEFAULT_AMOUNT).inherit(otherStorage)
+        );
+        long missingId = count.incrementAndGet();
+
+        List<StockAdjustmentDTO> adjustments = List.of(
+            new StockAdjustmentDTO(stockPosition.getId(), 3),
+            new StockAdjustmentDTO(otherStockPosition.getId(), -1),
+            new StockAdjustmentDTO(stockPosition.getId(), 2),
+            new StockAdjustmentDTO(otherStockPosition.getId(), -5),
+            new StockAdjustmentDTO(missingId, 1)
+        );
+        restStockPositionMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/adjust")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(adjustments))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(5))
+            .andExpect(jsonPath("$.[0].status").value("APPLIED"))
+            .andExpect(jsonPath("$.[0].amount").value(DEFAULT_AMOUNT + 5))
+            .andExpect(jsonPath("$.[1].status").value("INSUFFICIENT_STOCK"))
+            .andExpect(jsonPath("$.[1].amount").value(DEFAULT_AMOUNT))
+            .andExpect(jsonPath("$.[2].status").value("APPLIED"))
+            .andExpect(jsonPath("$.[3].status").value("INSUFFICIENT_STOCK"))
+            .andExpect(jsonPath("$.[4].stockPositionId").value(missingId))
+            .andExpect(jsonPath("$.[4].status").value("NOT_FOUND"));
+
+        em.refresh(stockPosition);
+        em.refresh(otherStockPosition);
+        assertThat(stockPosition.getAmount()).isEqualTo(DEFAULT_AMOUNT + 5);
+        assertThat(otherStockPosition.getAmount()).isEqualTo(DEFAULT_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void adjustStockPositionsInBatchWithoutDelta() throws Exception {
+        // Initialize the database
+        stockPositionRepository.saveAndFlush(stockPosition);
+
+        restStockPositionMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/adjust")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(new StockAdjustmentDTO(stockPosition.getId(), null))))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void adjustStockPositionsInBatchWithNullAdjustment() throws Exception {
+        restStockPositionMockMvc
+            .perform(post(ENTITY_API_URL + "/adjust").with(csrf()).contentType(MediaType.APPLICATION_JSON).content("[null]"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void deleteStockPosition() throws Exception {
@@ -0,0 +1,192 @@
+package de.intagau.web.rest;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.domain.StockPosition;
+import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom;
+import de.intagau.repository.ProductsRepository;
+import de.intagau.repository.StockPositionRepository;
+import de.intagau.repository.StorageRepository;
+import de.intagau.repository.StorageRoomRepository;
+import de.intagau.service.dto.StockAdjustmentDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link StockSummaryResource} REST controller.
+ * <p>
+ * The totals are written when the transaction commits, so the test data is committed and deleted after each
+ * test rather than rolled back.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class StockSummaryResourceIT {
+
+    private static final String ROOM_API_URL = "/api/stock-summary/storage-rooms";
+
+    private static final String PRODUCT_API_URL = "/api/stock-summary/products";
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private StorageRoomRepository storageRoomRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private StockPositionRepository stockPositionRepository;
+
+    @Autowired
+    private MockMvc restStockSummaryMockMvc;
+
+    private Products products;
+
+    private Storage outside;
+
+    private StorageRoom room;
+
+    private StorageRoom otherRoom;
+
+    private Storage shelf;
+
+    private Storage drawer;
+
+    private StockPosition onShelf;
+
+    private StockPosition inDrawer;
+
+    @BeforeEach
+    public void initTest() {
+        products = productsRepository.save(new Products().name("summary"));
+        outside = storageRepository.save(new Storage().key("outside"));
+        room = storageRoomRepository.save(new StorageRoom().name("room").inherit(outside).products(products));
+        otherRoom = storageRoomRepository.save(
+            new StorageRoom().name("other room").inherit(storageRepository.save(new Storage().key("other outside"))).products(products)
+        );
+        shelf = storageRepository.save(new Storage().key("shelf").storageRoom(room));
+        drawer = storageRepository.save(new Storage().key("drawer").storageRoom(room));
+        onShelf = stockPositionRepository.save(new StockPosition().amount(5).inherit(shelf));
+        inDrawer = stockPositionRepository.save(new StockPosition().amount(7).inherit(drawer));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        stockPositionRepository.deleteAll();
+        storageRepository.findAll().stream().filter(storage -> storage.getStorageRoom() != null).forEach(storageRepository::delete);
+        storageRoomRepository.deleteAll();
+        storageRepository.deleteAll();
+        productsRepository.deleteAll();
+    }
+
+    @Test
+    void getStorageRoomStockSummary() throws Exception {
+        restStockSummaryMockMvc
+            .perform(get(ROOM_API_URL + "/{id}", room.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.storageRoomId").value(room.getId().intValue()))
+            .andExpect(jsonPath("$.productsId").value(products.getId().intValue()))
+            .andExpect(jsonPath("$.totalAmount").value(12))
+            .andExpect(jsonPath("$.positionCount").value(2));
+
+        restStockSummaryMockMvc
+            .perform(get(ROOM_API_URL + "/{id}", otherRoom.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalAmount").value(0))
+            .andExpect(jsonPath("$.positionCount").value(0));
+
+        restStockSummaryMockMvc
+            .perform(get(ROOM_API_URL + "?sort=storageRoomId,asc"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].storageRoomId").value(hasItem(room.getId().intValue())));
+    }
+
+    @Test
+    void getProductStockSummary() throws Exception {
+        restStockSummaryMockMvc
+            .perform(get(PRODUCT_API_URL + "/{id}", products.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.productsId").value(products.getId().intValue()))
+            .andExpect(jsonPath("$.totalAmount").value(12))
+            .andExpect(jsonPath("$.positionCount").value(2))
+            .andExpect(jsonPath("$.storageRoomCount").value(2));
+
+        restStockSummaryMockMvc
+            .perform(get(PRODUCT_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].productsId").value(hasItem(products.getId().intValue())));
+    }
+
+    @Test
+    void summaryFollowsStockPositionChanges() throws Exception {
+        onShelf.setAmount(8);
+        restStockSummaryMockMvc
+            .perform(
+                put("/api/stock-positions/{id}", onShelf.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(onShelf))
+            )
+            .andExpect(status().isOk());
+        restStockSummaryMockMvc
+            .perform(get(ROOM_API_URL + "/{id}", room.getId()))
+            .andExpect(jsonPath("$.totalAmount").value(15))
+            .andExpect(jsonPath("$.positionCount").value(2));
+
+        restStockSummaryMockMvc
+            .perform(delete("/api/stock-positions/{id}", inDrawer.getId()).with(csrf()))
+            .andExpect(status().isNoContent());
+        restStockSummaryMockMvc
+            .perform(get(ROOM_API_URL + "/{id}", room.getId()))
+            .andExpect(jsonPath("$.totalAmount").value(8))
+            .andExpect(jsonPath("$.positionCount").value(1));
+
+        restStockSummaryMockMvc
+            .perform(
+                post("/api/stock-positions/{id}/adjust", onShelf.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new StockAdjustmentDTO(null, -3)))
+            )
+            .andExpect(status().isOk());
+        restStockSummaryMockMvc.perform(get(ROOM_API_URL + "/{id}", room.getId())).andExpect(jsonPath("$.totalAmount").value(5));
+    }
+
+    @Test
+    void summaryFollowsStorageMoves() throws Exception {
+        shelf.setStorageRoom(otherRoom);
+        restStockSummaryMockMvc
+            .perform(
+                put("/api/storages/{id}", shelf.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(shelf))
+            )
+            .andExpect(status().isOk());
+
+        restStockSummaryMockMvc.perform(get(ROOM_API_URL + "/{id}", room.getId())).andExpect(jsonPath("$.totalAmount").value(7));
+        restStockSummaryMockMvc.perform(get(ROOM_API_URL + "/{id}", otherRoom.getId())).andExpect(jsonPath("$.totalAmount").value(5));
+        restStockSummaryMockMvc.perform(get(PRODUCT_API_URL + "/{id}", products.getId())).andExpect(jsonPath("$.totalAmount").value(12));
+    }
+
+    @Test
+    void getNonExistingStockSummary() throws Exception {
+        restStockSummaryMockMvc.perform(get(ROOM_API_URL + "/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        restStockSummaryMockMvc.perform(get(PRODUCT_API_URL + "/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+}
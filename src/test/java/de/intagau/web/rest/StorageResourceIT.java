@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import de.intagau.IntegrationTest;
 import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom;
 import de.intagau.repository.StorageRepository;
 import java.util.List;
 import java.util.Random;
@@ -158,6 +159,144 @@ class StorageResourceIT {
             .andExpect(jsonPath("$.[*].key").value(hasItem(DEFAULT_KEY)));
     }
 
+    @Test
+    @Transactional
+    void getStoragesByIdFiltering() throws Exception {
+        // Initialize the database
+        storageRepository.saveAndFlush(storage);
+
+        Long id = storage.getId();
+
+        defaultStorageShouldBeFound("id.equals=" + id);
+        defaultStorageShouldNotBeFound("id.notEquals=" + id);
+
+        defaultStorageShouldBeFound("id.greaterThanOrEqual=" + id);
+        defaultStorageShouldNotBeFound("id.greaterThan=" + id);
+
+        defaultStorageShouldBeFound("id.lessThanOrEqual=" + id);
+        defaultStorageShouldNotBeFound("id.lessThan=" + id);
+    }
+
+    @Test
+    @Transactional
+    void getAllStoragesByKeyIsEqualToSomething() throws Exception {
+        // Initialize the database
+        storageRepository.saveAndFlush(storage);
+
+        // Get all the storageList where key equals to DEFAULT_KEY
+        defaultStorageShouldBeFound("key.equals=" + DEFAULT_KEY);
+
+        // Get all the storageList where key equals to UPDATED_KEY
+        defaultStorageShouldNotBeFound("key.equals=" + UPDATED_KEY);
+    }
+
+    @Test
+    @Transactional
+    void getAllStoragesByKeyIsInShouldWork() throws Exception {
+        // Initialize the database
+        storageRepository.saveAndFlush(storage);
+
+        // Get all the storageList where key in DEFAULT_KEY or UPDATED_KEY
+        defaultStorageShouldBeFound("key.in=" + DEFAULT_KEY + "," + UPDATED_KEY);
+
+        // Get all the storageList where key equals to UPDATED_KEY
+        defaultStorageShouldNotBeFound("key.in=" + UPDATED_KEY);
+    }
+
+    @Test
+    @Transactional
+    void getAllStoragesByKeyIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        storageRepository.saveAndFlush(storage);
+
+        // Get all the storageList where key is not null
+        defaultStorageShouldBeFound("key.specified=true");
+
+        // Get all the storageList where key is null
+        defaultStorageShouldNotBeFound("key.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllStoragesByKeyContainsSomething() throws Exception {
+        // Initialize the database
+        storageRepository.saveAndFlush(storage);
+
+        // Get all the storageList where key contains DEFAULT_KEY
+        defaultStorageShouldBeFound("key.contains=" + DEFAULT_KEY);
+
+        // Get all the storageList where key contains UPDATED_KEY
+        defaultStorageShouldNotBeFound("key.contains=" + UPDATED_KEY);
+    }
+
+    @Test
+    @Transactional
+    void getAllStoragesByKeyNotContainsSomething() throws Exception {
+        // Initialize the database
+        storageRepository.saveAndFlush(storage);
+
+        // Get all the storageList where key does not contain DEFAULT_KEY
+        defaultStorageShouldNotBeFound("key.doesNotContain=" + DEFAULT_KEY);
+
+        // Get all the storageList where key does not contain UPDATED_KEY
+        defaultStorageShouldBeFound("key.doesNotContain=" + UPDATED_KEY);
+    }
+
+    @Test
+    @Transactional
+    void getAllStoragesByStorageRoomIsEqualToSomething() throws Exception {
+        StorageRoom storageRoom = StorageRoomResourceIT.createEntity(em);
+        em.persist(storageRoom);
+        em.flush();
+        storage.setStorageRoom(storageRoom);
+        storageRepository.saveAndFlush(storage);
+        Long storageRoomId = storageRoom.getId();
+
+        // Get all the storageList where storageRoom equals to storageRoomId
+        defaultStorageShouldBeFound("storageRoomId.equals=" + storageRoomId);
+
+        // Get all the storageList where storageRoom equals to (storageRoomId + 1)
+        defaultStorageShouldNotBeFound("storageRoomId.equals=" + (storageRoomId + 1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultStorageShouldBeFound(String filter) throws Exception {
+        restStorageMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(storage.getId().intValue())))
+            .andExpect(jsonPath("$.[*].key").value(hasItem(DEFAULT_KEY)));
+
+        // Check, that the count call also returns 1
+        restStorageMockMvc
+            .perform(get(ENTITY_API_URL + "/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultStorageShouldNotBeFound(String filter) throws Exception {
+        restStorageMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restStorageMockMvc
+            .perform(get(ENTITY_API_URL + "/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
+
     @Test
     @Transactional
     void getStorage() throws Exception {
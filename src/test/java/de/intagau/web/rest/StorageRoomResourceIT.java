@@ -1,15 +1,19 @@
 package de.intagau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.domain.StockPosition;
 import de.intagau.domain.Storage;
 import de.intagau.domain.StorageRoom;
 import de.intagau.repository.StorageRoomRepository;
+import de.intagau.service.StorageTreeService;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -43,6 +47,9 @@ class StorageRoomResourceIT {
     @Autowired
     private StorageRoomRepository storageRoomRepository;
 
+    @Autowired
+    private StorageTreeService storageTreeService;
+
     @Autowired
     private EntityManager em;
 
@@ -157,6 +164,177 @@ class StorageRoomResourceIT {
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
     }
 
+    @Test
+    @Transactional
+    void getStorageRoomsByIdFiltering() throws Exception {
+        // Initialize the database
+        storageRoomRepository.saveAndFlush(storageRoom);
+
+        Long id = storageRoom.getId();
+
+        defaultStorageRoomShouldBeFound("id.equals=" + id);
+        defaultStorageRoomShouldNotBeFound("id.notEquals=" + id);
+
+        defaultStorageRoomShouldBeFound("id.greaterThanOrEqual=" + id);
+        defaultStorageRoomShouldNotBeFound("id.greaterThan=" + id);
+
+        defaultStorageRoomShouldBeFound("id.lessThanOrEqual=" + id);
+        defaultStorageRoomShouldNotBeFound("id.lessThan=" + id);
+    }
+
+    @Test
+    @Transactional
+    void getAllStorageRoomsByNameIsEqualToSomething() throws Exception {
+        // Initialize the database
+        storageRoomRepository.saveAndFlush(storageRoom);
+
+        // Get all the storageRoomList where name equals to DEFAULT_NAME
+        defaultStorageRoomShouldBeFound("name.equals=" + DEFAULT_NAME);
+
+        // Get all the storageRoomList where name equals to UPDATED_NAME
+        defaultStorageRoomShouldNotBeFound("name.equals=" + UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void getAllStorageRoomsByNameIsInShouldWork() throws Exception {
+        // Initialize the database
+        storageRoomRepository.saveAndFlush(storageRoom);
+
+        // Get all the storageRoomList where name in DEFAULT_NAME or UPDATED_NAME
+        defaultStorageRoomShouldBeFound("name.in=" + DEFAULT_NAME + "," + UPDATED_NAME);
+
+        // Get all the storageRoomList where name equals to UPDATED_NAME
+        defaultStorageRoomShouldNotBeFound("name.in=" + UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void getAllStorageRoomsByNameIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        storageRoomRepository.saveAndFlush(storageRoom);
+
+        // Get all the storageRoomList where name is not null
+        defaultStorageRoomShouldBeFound("name.specified=true");
+
+        // Get all the storageRoomList where name is null
+        defaultStorageRoomShouldNotBeFound("name.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllStorageRoomsByNameContainsSomething() throws Exception {
+        // Initialize the database
+        storageRoomRepository.saveAndFlush(storageRoom);
+
+        // Get all the storageRoomList where name contains DEFAULT_NAME
+        defaultStorageRoomShouldBeFound("name.contains=" + DEFAULT_NAME);
+
+        // Get all the storageRoomList where name contains UPDATED_NAME
+        defaultStorageRoomShouldNotBeFound("name.contains=" + UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void getAllStorageRoomsByNameNotContainsSomething() throws Exception {
+        // Initialize the database
+        storageRoomRepository.saveAndFlush(storageRoom);
+
+        // Get all the storageRoomList where name does not contain DEFAULT_NAME
+        defaultStorageRoomShouldNotBeFound("name.doesNotContain=" + DEFAULT_NAME);
+
+        // Get all the storageRoomList where name does not contain UPDATED_NAME
+        defaultStorageRoomShouldBeFound("name.doesNotContain=" + UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void getAllStorageRoomsByInheritIsEqualToSomething() throws Exception {
+        // Initialize the database
+        storageRoomRepository.saveAndFlush(storageRoom);
+        Long inheritId = storageRoom.getInherit().getId();
+
+        // Get all the storageRoomList where inherit equals to inheritId
+        defaultStorageRoomShouldBeFound("inheritId.equals=" + inheritId);
+
+        // Get all the storageRoomList where inherit equals to (inheritId + 1)
+        defaultStorageRoomShouldNotBeFound("inheritId.equals=" + (inheritId + 1));
+    }
+
+    @Test
+    @Transactional
+    void getAllStorageRoomsByContainsIsEqualToSomething() throws Exception {
+        // Initialize the database
+        storageRoomRepository.saveAndFlush(storageRoom);
+        Storage contains = StorageResourceIT.createEntity(em);
+        em.persist(contains);
+        em.flush();
+        storageRoom.addContains(contains);
+        storageRoomRepository.saveAndFlush(storageRoom);
+        Long containsId = contains.getId();
+
+        // Get all the storageRoomList where contains equals to containsId
+        defaultStorageRoomShouldBeFound("containsId.equals=" + containsId);
+
+        // Get all the storageRoomList where contains equals to (containsId + 1)
+        defaultStorageRoomShouldNotBeFound("containsId.equals=" + (containsId + 1));
+    }
+
+    @Test
+    @Transactional
+    void getAllStorageRoomsByProductsIsEqualToSomething() throws Exception {
+        Products products = ProductsResourceIT.createEntity(em);
+        em.persist(products);
+        em.flush();
+        storageRoom.setProducts(products);
+        storageRoomRepository.saveAndFlush(storageRoom);
+        Long productsId = products.getId();
+
+        // Get all the storageRoomList where products equals to productsId
+        defaultStorageRoomShouldBeFound("productsId.equals=" + productsId);
+
+        // Get all the storageRoomList where products equals to (productsId + 1)
+        defaultStorageRoomShouldNotBeFound("productsId.equals=" + (productsId + 1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultStorageRoomShouldBeFound(String filter) throws Exception {
+        restStorageRoomMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(storageRoom.getId().intValue())))
+            .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
+
+        // Check, that the count call also returns 1
+        restStorageRoomMockMvc
+            .perform(get(ENTITY_API_URL + "/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultStorageRoomShouldNotBeFound(String filter) throws Exception {
+        restStorageRoomMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restStorageRoomMockMvc
+            .perform(get(ENTITY_API_URL + "/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
+
     @Test
     @Transactional
     void getStorageRoom() throws Exception {
@@ -172,6 +350,138 @@ class StorageRoomResourceIT {
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME));
     }
 
+    @Test
+    @Transactional
+    void getStorageRoomSubtree() throws Exception {
+        // Initialize the tree: room > shelf > nestedRoom > box > stockPosition, and an unrelated room
+        Storage rootStorage = persist(new Storage().key("root"));
+        StorageRoom room = storageTreeService.save(new StorageRoom().name("room").inherit(rootStorage));
+        Storage shelf = persist(new Storage().key("shelf").storageRoom(room));
+        StorageRoom nestedRoom = storageTreeService.save(new StorageRoom().name("nested").inherit(shelf));
+        Storage box = persist(new Storage().key("box").storageRoom(nestedRoom));
+        StockPosition stockPosition = new StockPosition().amount(3).inherit(box);
+        em.persist(stockPosition);
+        storageTreeService.save(new StorageRoom().name("other").inherit(persist(new Storage().key("other"))));
+        em.flush();
+        em.clear();
+
+        assertThat(storageRoomRepository.findById(nestedRoom.getId()).orElseThrow().getPath())
+            .isEqualTo("/" + room.getId() + "/" + nestedRoom.getId() + "/");
+
+        restStorageRoomMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/subtree", room.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.storageRoomId").value(room.getId().intValue()))
+            .andExpect(jsonPath("$.storageRooms[*].id").value(containsInAnyOrder(room.getId().intValue(), nestedRoom.getId().intValue())))
+            .andExpect(
+                jsonPath("$.storageRooms[*].contains[*].id").value(containsInAnyOrder(shelf.getId().intValue(), box.getId().intValue()))
+            )
+            .andExpect(jsonPath("$.stockPositions[*].id").value(containsInAnyOrder(stockPosition.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void moveStorageRoomSubtree() throws Exception {
+        // Initialize the tree: room > shelf > nestedRoom, and otherRoom
+        Storage rootStorage = persist(new Storage().key("root"));
+        StorageRoom room = storageTreeService.save(new StorageRoom().name("room").inherit(rootStorage));
+        Storage shelf = persist(new Storage().key("shelf").storageRoom(room));
+        StorageRoom nestedRoom = storageTreeService.save(new StorageRoom().name("nested").inherit(shelf));
+        StorageRoom otherRoom = storageTreeService.save(new StorageRoom().name("other").inherit(persist(new Storage().key("other"))));
+        em.flush();
+        em.clear();
+
+        // Move the shelf, and the room stored on it, to the other room
+        restStorageRoomMockMvc
+            .perform(
+                put("/api/storages/{id}", shelf.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new Storage().id(shelf.getId()).key("shelf").storageRoom(otherRoom)))
+            )
+            .andExpect(status().isOk());
+        em.flush();
+        em.clear();
+
+        assertThat(storageRoomRepository.findById(nestedRoom.getId()).orElseThrow().getPath())
+            .isEqualTo("/" + otherRoom.getId() + "/" + nestedRoom.getId() + "/");
+        restStorageRoomMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/subtree", otherRoom.getId()))
+            .andExpect(status().isOk())
+            .andExpect(
+                jsonPath("$.storageRooms[*].id").value(containsInAnyOrder(otherRoom.getId().intValue(), nestedRoom.getId().intValue()))
+            );
+        restStorageRoomMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/subtree", room.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.storageRooms[*].id").value(containsInAnyOrder(room.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void updateStorageRoomKeepsItInTheSubtree() throws Exception {
+        // Initialize the tree: room > shelf > nestedRoom
+        Storage rootStorage = persist(new Storage().key("root"));
+        StorageRoom room = storageTreeService.save(new StorageRoom().name("room").inherit(rootStorage));
+        Storage shelf = persist(new Storage().key("shelf").storageRoom(room));
+        StorageRoom nestedRoom = storageTreeService.save(new StorageRoom().name("nested").inherit(shelf));
+        em.flush();
+        em.clear();
+
+        // Update the nested room without moving it; the path is not part of the request
+        restStorageRoomMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, nestedRoom.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new StorageRoom().id(nestedRoom.getId()).name("nested").inherit(shelf)))
+            )
+            .andExpect(status().isOk());
+        em.flush();
+        em.clear();
+
+        assertThat(storageRoomRepository.findById(nestedRoom.getId()).orElseThrow().getPath())
+            .isEqualTo("/" + room.getId() + "/" + nestedRoom.getId() + "/");
+        restStorageRoomMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/subtree", room.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.storageRooms[*].id").value(containsInAnyOrder(room.getId().intValue(), nestedRoom.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void moveStorageRoomIntoItself() throws Exception {
+        // Initialize the tree: room > shelf > nestedRoom
+        Storage rootStorage = persist(new Storage().key("root"));
+        StorageRoom room = storageTreeService.save(new StorageRoom().name("room").inherit(rootStorage));
+        Storage shelf = persist(new Storage().key("shelf").storageRoom(room));
+        StorageRoom nestedRoom = storageTreeService.save(new StorageRoom().name("nested").inherit(shelf));
+        em.flush();
+        em.clear();
+
+        // Storing the room inside its own nested room would create a cycle
+        restStorageRoomMockMvc
+            .perform(
+                put("/api/storages/{id}", rootStorage.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new Storage().id(rootStorage.getId()).key("root").storageRoom(nestedRoom)))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingStorageRoomSubtree() throws Exception {
+        restStorageRoomMockMvc.perform(get(ENTITY_API_URL_ID + "/subtree", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    private Storage persist(Storage storage) {
+        em.persist(storage);
+        return storage;
+    }
+
     @Test
     @Transactional
     void getNonExistingStorageRoom() throws Exception {
@@ -0,0 +1,151 @@
+package de.intagau.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import de.intagau.IntegrationTest;
+import de.intagau.domain.Products;
+import de.intagau.domain.Storage;
+import de.intagau.domain.StorageRoom;
+import de.intagau.repository.ProductsRepository;
+import de.intagau.repository.StorageRepository;
+import de.intagau.repository.StorageRoomRepository;
+import de.intagau.service.SuggestionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link SuggestResource} REST controller.
+ * <p>
+ * The suggestions follow the committed changes, so the test data is committed and deleted after each test
+ * rather than rolled back.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SuggestResourceIT {
+
+    private static final String SUGGEST_API_URL = "/api/_suggest/{entity}";
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private StorageRoomRepository storageRoomRepository;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private MockMvc restSuggestMockMvc;
+
+    private Products screwdriver;
+
+    private Products screws;
+
+    @BeforeEach
+    public void initTest() {
+        screwdriver = productsRepository.save(new Products().name("Suggest Screwdriver"));
+        screws = productsRepository.save(new Products().name("suggest screws"));
+        productsRepository.save(new Products().name("Suggest Hammer"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productsRepository.deleteAll();
+        storageRoomRepository.deleteAll();
+        storageRepository.deleteAll();
+    }
+
+    @Test
+    void suggestProducts() throws Exception {
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "products").param("q", "SUGGEST SCREW"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(screwdriver.getId().intValue(), screws.getId().intValue())))
+            .andExpect(jsonPath("$.[0].label").value("Suggest Screwdriver"));
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "products").param("q", "suggest").param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].label").value("Suggest Hammer"));
+    }
+
+    @Test
+    void suggestionsFollowChanges() throws Exception {
+        // Load the index first, so that it is updated rather than reloaded
+        restSuggestMockMvc.perform(get(SUGGEST_API_URL, "storages").param("q", "suggest")).andExpect(jsonPath("$.length()").value(0));
+        Storage storage = storageRepository.save(new Storage().key("suggest shelf"));
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "storages").param("q", "suggest"))
+            .andExpect(jsonPath("$.[*].id").value(contains(storage.getId().intValue())));
+
+        restSuggestMockMvc.perform(get(SUGGEST_API_URL, "products").param("q", "suggest")).andExpect(jsonPath("$.length()").value(3));
+        screws.setName("Suggest Nails");
+        restSuggestMockMvc
+            .perform(
+                put("/api/products/{id}", screws.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(screws))
+            )
+            .andExpect(status().isOk());
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "products").param("q", "suggest screw"))
+            .andExpect(jsonPath("$.[*].id").value(contains(screwdriver.getId().intValue())));
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "products").param("q", "suggest n"))
+            .andExpect(jsonPath("$.[*].id").value(contains(screws.getId().intValue())));
+
+        restSuggestMockMvc.perform(delete("/api/products/{id}", screwdriver.getId()).with(csrf())).andExpect(status().isNoContent());
+        restSuggestMockMvc.perform(get(SUGGEST_API_URL, "products").param("q", "suggest screw")).andExpect(jsonPath("$.length()").value(0));
+
+        // A rebuild reads the same state from the database
+        suggestionService.rebuild();
+        restSuggestMockMvc.perform(get(SUGGEST_API_URL, "products").param("q", "suggest")).andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void suggestStorageRooms() throws Exception {
+        // Load the index first, so that it is updated rather than reloaded
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "storage-rooms").param("q", "suggest"))
+            .andExpect(jsonPath("$.length()").value(0));
+        StorageRoom cellar = storageRoomRepository.save(
+            new StorageRoom().name("Suggest Cellar").inherit(storageRepository.save(new Storage().key("suggest cellar")))
+        );
+        StorageRoom unnamed = storageRoomRepository.save(
+            new StorageRoom().inherit(storageRepository.save(new Storage().key("suggest attic")))
+        );
+
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "storage-rooms").param("q", "suggest"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(cellar.getId().intValue())));
+        // A room without a name is suggested by its id, before and after a rebuild
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "storage-rooms").param("q", unnamed.getId().toString()))
+            .andExpect(jsonPath("$.[0].label").value(unnamed.getId().toString()));
+        suggestionService.rebuild();
+        restSuggestMockMvc
+            .perform(get(SUGGEST_API_URL, "storage-rooms").param("q", unnamed.getId().toString()))
+            .andExpect(jsonPath("$.[0].label").value(unnamed.getId().toString()));
+    }
+
+    @Test
+    void suggestUnknownEntity() throws Exception {
+        restSuggestMockMvc.perform(get(SUGGEST_API_URL, "users").param("q", "a")).andExpect(status().isNotFound());
+    }
+}